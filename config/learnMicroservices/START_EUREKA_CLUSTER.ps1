@@ -0,0 +1,77 @@
+# ============================================================================
+# 🌐 START EUREKA PEER CLUSTER - 3 Local Nodes
+# ============================================================================
+# Starts 3 eureka-server nodes that replicate to each other:
+#   peer1 → http://localhost:8761
+#   peer2 → http://localhost:8762
+#   peer3 → http://localhost:8763
+#
+# Profiles are defined in eureka-server/src/main/resources/application.yml
+# (cluster = peer list + replication tuning, peerN = port)
+#
+# Build first:  cd eureka-server; mvn package -DskipTests
+# Then measure: .\TEST_EUREKA_REPLICATION.ps1
+# ============================================================================
+
+$eurekaDir = Join-Path $PSScriptRoot "eureka-server"
+$jar = Join-Path $eurekaDir "target\eureka-server-1.0.0.jar"
+
+if (-not (Test-Path $jar)) {
+    Write-Host "❌ $jar not found. Run 'mvn package -DskipTests' in eureka-server first." -ForegroundColor Red
+    exit 1
+}
+
+Write-Host @"
+╔════════════════════════════════════════════════════════════════╗
+║                                                                ║
+║        🌐 EUREKA PEER CLUSTER - Starting 3 Nodes              ║
+║                                                                ║
+║        ├─ peer1 (8761)                                        ║
+║        ├─ peer2 (8762)                                        ║
+║        └─ peer3 (8763)                                        ║
+║                                                                ║
+╚════════════════════════════════════════════════════════════════╝
+"@ -ForegroundColor Cyan
+
+$peers = [ordered]@{ "peer1" = 8761; "peer2" = 8762; "peer3" = 8763 }
+
+foreach ($peer in $peers.Keys) {
+    Write-Host "⏳ Starting $peer (Port $($peers[$peer]))..." -ForegroundColor Cyan
+    Start-Process powershell -ArgumentList "-NoExit", "-Command", "cd $eurekaDir; java -jar $jar --spring.profiles.active=cluster,$peer"
+    Start-Sleep -Seconds 2
+}
+
+Write-Host "`n⏳ Waiting for all nodes to report UP..." -ForegroundColor Yellow
+$deadline = (Get-Date).AddSeconds(120)
+foreach ($port in $peers.Values) {
+    while ($true) {
+        try {
+            $health = Invoke-RestMethod -Uri "http://localhost:$port/actuator/health" -Method Get -TimeoutSec 2
+            if ($health.status -eq "UP") {
+                Write-Host "   ✅ localhost:$port UP" -ForegroundColor Green
+                break
+            }
+        } catch { }
+        if ((Get-Date) -gt $deadline) {
+            Write-Host "   ❌ localhost:$port did not come up" -ForegroundColor Red
+            exit 1
+        }
+        Start-Sleep -Seconds 2
+    }
+}
+
+Write-Host @"
+
+╔════════════════════════════════════════════════════════════════╗
+║                                                                ║
+║        ✅ CLUSTER RUNNING                                     ║
+║                                                                ║
+║        Dashboards (DS Replicas lists the other 2 nodes):      ║
+║        → http://localhost:8761                                ║
+║        → http://localhost:8762                                ║
+║        → http://localhost:8763                                ║
+║                                                                ║
+║        Next: .\TEST_EUREKA_REPLICATION.ps1                    ║
+║                                                                ║
+╚════════════════════════════════════════════════════════════════╝
+"@ -ForegroundColor Green
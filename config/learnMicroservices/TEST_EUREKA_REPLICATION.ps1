@@ -0,0 +1,186 @@
+# ============================================================================
+# 📊 EUREKA PEER REPLICATION - Lag & Throughput Harness
+# ============================================================================
+# Run against the 3-node cluster from START_EUREKA_CLUSTER.ps1.
+#
+# Registers synthetic instances on peer1 ONLY and measures how they show up
+# on peer2 and peer3 (which only learn about them through replication):
+#
+#   1. REGISTER LAG   - time until one new instance is visible on each peer
+#   2. BULK REGISTER  - register N instances, time until peers have all N
+#   3. HEARTBEATS     - N renewals per round, time until peers see them all
+#   4. CANCEL         - delete all N, time until peers drop them
+#
+# Usage:
+#   .\TEST_EUREKA_REPLICATION.ps1
+#   .\TEST_EUREKA_REPLICATION.ps1 -Instances 500 -LagSamples 20 -HeartbeatRounds 5
+# ============================================================================
+
+param(
+    [int]$Instances = 200,
+    [int]$LagSamples = 10,
+    [int]$HeartbeatRounds = 3,
+    [int]$TimeoutSeconds = 60
+)
+
+$origin = "http://localhost:8761/eureka"
+$peers = @("http://localhost:8762/eureka", "http://localhost:8763/eureka")
+$appName = "REPLICATION-BENCH"
+$jsonHeaders = @{ "Accept" = "application/json" }
+
+function New-InstanceBody([string]$id, [int]$port) {
+    return @{
+        instance = @{
+            instanceId     = $id
+            hostName       = "127.0.0.1"
+            app            = $appName
+            ipAddr         = "127.0.0.1"
+            status         = "UP"
+            port           = @{ '$' = $port; '@enabled' = "true" }
+            dataCenterInfo = @{
+                '@class' = 'com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo'
+                name     = "MyOwn"
+            }
+            leaseInfo      = @{ renewalIntervalInSecs = 30; durationInSecs = 90 }
+        }
+    } | ConvertTo-Json -Depth 5
+}
+
+function Register-Instance([string]$id, [int]$port) {
+    Invoke-WebRequest -Uri "$origin/apps/$appName" -Method Post `
+        -ContentType "application/json" -Body (New-InstanceBody $id $port) -UseBasicParsing | Out-Null
+}
+
+function Get-PeerInstances([string]$peer) {
+    try {
+        $app = Invoke-RestMethod -Uri "$peer/apps/$appName" -Headers $jsonHeaders -Method Get -TimeoutSec 5
+        return @($app.application.instance)
+    } catch {
+        return @()
+    }
+}
+
+# Poll a condition until true; returns elapsed milliseconds or -1 on timeout
+function Wait-Until([scriptblock]$condition, [System.Diagnostics.Stopwatch]$watch) {
+    while ($watch.Elapsed.TotalSeconds -lt $TimeoutSeconds) {
+        if (& $condition) { return $watch.Elapsed.TotalMilliseconds }
+        Start-Sleep -Milliseconds 20
+    }
+    return -1
+}
+
+function Write-Stats([string]$label, [double[]]$values) {
+    $valid = @($values | Where-Object { $_ -ge 0 } | Sort-Object)
+    if ($valid.Count -eq 0) {
+        Write-Host "   $label : TIMEOUT" -ForegroundColor Red
+        return
+    }
+    $avg = ($valid | Measure-Object -Average).Average
+    $p95 = $valid[[math]::Min($valid.Count - 1, [math]::Floor($valid.Count * 0.95))]
+    Write-Host ("   {0,-10} min {1,7:N0}ms   avg {2,7:N0}ms   p95 {3,7:N0}ms   max {4,7:N0}ms" -f `
+        $label, $valid[0], $avg, $p95, $valid[-1]) -ForegroundColor White
+}
+
+Write-Host "`n========== EUREKA PEER REPLICATION HARNESS ==========`n" -ForegroundColor Cyan
+Write-Host "Origin: $origin   Peers: $($peers -join ', ')" -ForegroundColor Gray
+Write-Host "Instances: $Instances   Lag samples: $LagSamples   Heartbeat rounds: $HeartbeatRounds`n" -ForegroundColor Gray
+
+foreach ($node in @($origin) + $peers) {
+    try {
+        Invoke-RestMethod -Uri "$node/apps" -Headers $jsonHeaders -Method Get -TimeoutSec 3 | Out-Null
+    } catch {
+        Write-Host "❌ $node is not reachable. Start the cluster with .\START_EUREKA_CLUSTER.ps1" -ForegroundColor Red
+        exit 1
+    }
+}
+
+# ---------------------------------------------------------------------------
+# 1. REGISTER LAG (single instance)
+# ---------------------------------------------------------------------------
+Write-Host "Step 1: Single-instance register lag..." -ForegroundColor Yellow
+$lags = @{}
+foreach ($peer in $peers) { $lags[$peer] = @() }
+
+for ($i = 1; $i -le $LagSamples; $i++) {
+    $id = "lag-probe-$i"
+    $watch = [System.Diagnostics.Stopwatch]::StartNew()
+    Register-Instance $id (20000 + $i)
+    foreach ($peer in $peers) {
+        $lags[$peer] += Wait-Until {
+            try {
+                Invoke-RestMethod -Uri "$peer/apps/$appName/$id" -Headers $jsonHeaders -Method Get -TimeoutSec 2 | Out-Null
+                $true
+            } catch { $false }
+        } $watch
+    }
+    Invoke-WebRequest -Uri "$origin/apps/$appName/$id" -Method Delete -UseBasicParsing | Out-Null
+}
+foreach ($peer in $peers) { Write-Stats ($peer -replace '^http://localhost:(\d+).*', ':$1') $lags[$peer] }
+
+# Let the probe cancellations drain before the bulk run
+Start-Sleep -Seconds 2
+
+# ---------------------------------------------------------------------------
+# 2. BULK REGISTER THROUGHPUT
+# ---------------------------------------------------------------------------
+Write-Host "`nStep 2: Registering $Instances instances on the origin..." -ForegroundColor Yellow
+$ids = 1..$Instances | ForEach-Object { "bench-$_" }
+$watch = [System.Diagnostics.Stopwatch]::StartNew()
+for ($i = 0; $i -lt $Instances; $i++) {
+    Register-Instance $ids[$i] (30000 + $i)
+}
+$sendMs = $watch.Elapsed.TotalMilliseconds
+Write-Host ("   Origin accepted {0} registrations in {1:N0}ms ({2:N0}/s)" -f $Instances, $sendMs, ($Instances / ($sendMs / 1000))) -ForegroundColor White
+
+foreach ($peer in $peers) {
+    $doneMs = Wait-Until { (Get-PeerInstances $peer).Count -ge $Instances } $watch
+    if ($doneMs -lt 0) {
+        Write-Host "   ${peer}: TIMEOUT ($((Get-PeerInstances $peer).Count)/$Instances replicated)" -ForegroundColor Red
+    } else {
+        Write-Host ("   {0}: all {1} replicated after {2:N0}ms → {3:N0} instances/s cross-node" -f `
+            $peer, $Instances, $doneMs, ($Instances / ($doneMs / 1000))) -ForegroundColor Green
+    }
+}
+
+# ---------------------------------------------------------------------------
+# 3. HEARTBEAT (RENEW) REPLICATION
+# ---------------------------------------------------------------------------
+Write-Host "`nStep 3: Heartbeat replication ($HeartbeatRounds rounds x $Instances renewals)..." -ForegroundColor Yellow
+for ($round = 1; $round -le $HeartbeatRounds; $round++) {
+    $roundStart = [DateTimeOffset]::UtcNow.ToUnixTimeMilliseconds()
+    $watch = [System.Diagnostics.Stopwatch]::StartNew()
+    foreach ($id in $ids) {
+        Invoke-WebRequest -Uri "$origin/apps/$appName/${id}?status=UP" -Method Put -UseBasicParsing | Out-Null
+    }
+    $sendMs = $watch.Elapsed.TotalMilliseconds
+
+    foreach ($peer in $peers) {
+        $doneMs = Wait-Until {
+            $renewed = @(Get-PeerInstances $peer | Where-Object { $_.leaseInfo.lastRenewalTimestamp -ge $roundStart })
+            $renewed.Count -ge $Instances
+        } $watch
+        $result = if ($doneMs -lt 0) { "TIMEOUT" } else { "{0:N0}ms" -f $doneMs }
+        Write-Host ("   Round {0}: sent {1} renewals in {2:N0}ms ({3:N0}/s) → {4} renewed on {5}" -f `
+            $round, $Instances, $sendMs, ($Instances / ($sendMs / 1000)), $result, $peer) -ForegroundColor White
+    }
+}
+
+# ---------------------------------------------------------------------------
+# 4. CANCEL REPLICATION + CLEANUP
+# ---------------------------------------------------------------------------
+Write-Host "`nStep 4: Cancelling $Instances instances..." -ForegroundColor Yellow
+$watch = [System.Diagnostics.Stopwatch]::StartNew()
+foreach ($id in $ids) {
+    Invoke-WebRequest -Uri "$origin/apps/$appName/$id" -Method Delete -UseBasicParsing | Out-Null
+}
+foreach ($peer in $peers) {
+    $doneMs = Wait-Until { (Get-PeerInstances $peer).Count -eq 0 } $watch
+    $result = if ($doneMs -lt 0) { "TIMEOUT" } else { "{0:N0}ms" -f $doneMs }
+    Write-Host "   ${peer}: all cancellations replicated after $result" -ForegroundColor White
+}
+
+Write-Host "`n========== DONE ==========`n" -ForegroundColor Cyan
+Write-Host "Reading the numbers:" -ForegroundColor Yellow
+Write-Host "- Lag is dominated by the batching window (up to 500ms per batch)" -ForegroundColor White
+Write-Host "- Cross-node throughput should far exceed 1 call per event: events are" -ForegroundColor White
+Write-Host "  shipped 250 at a time in POST /eureka/peerreplication/batch" -ForegroundColor White
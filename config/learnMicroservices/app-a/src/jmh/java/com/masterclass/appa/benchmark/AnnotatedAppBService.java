@@ -0,0 +1,51 @@
+package com.masterclass.appa.benchmark;
+
+import com.masterclass.appa.clients.AppBClient;
+import com.masterclass.appa.clients.AppBClientFallback;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import io.github.resilience4j.retry.annotation.Retry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * The "before" side of ResiliencePipelineBenchmark: getProduct exactly as
+ * AppBResilientService used to declare it - four stacked annotations,
+ * fallback resolved by name through the Spring AOP proxy.
+ */
+public class AnnotatedAppBService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnnotatedAppBService.class);
+
+    private final AppBClient appBClient;
+    private final AppBClientFallback fallback;
+
+    public AnnotatedAppBService(AppBClient appBClient, AppBClientFallback fallback) {
+        this.appBClient = appBClient;
+        this.fallback = fallback;
+    }
+
+    @Retry(name = "appBRetry")
+    @CircuitBreaker(name = "appBCircuitBreaker")
+    @RateLimiter(name = "appBRateLimiter")
+    @Bulkhead(name = "appBBulkhead", fallbackMethod = "getProductFallback")
+    public String getProduct(String productId) {
+        String traceId = MDC.get("traceId");
+        logger.info("[TRACE: {}] Calling App B product endpoint for product: {}",
+            traceId != null ? traceId : "NO_TRACE", productId);
+
+        return appBClient.getProduct(productId);
+    }
+
+    public String getProductFallback(String productId, Exception ex) {
+        String traceId = MDC.get("traceId");
+        logger.warn("[FALLBACK] [TRACE: {}] getProduct({}) failed: {}. Using fallback.",
+            traceId != null ? traceId : "NO_TRACE",
+            productId,
+            ex.getClass().getSimpleName());
+
+        return fallback.getProduct(productId);
+    }
+}
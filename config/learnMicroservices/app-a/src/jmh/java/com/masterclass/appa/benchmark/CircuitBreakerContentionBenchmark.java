@@ -0,0 +1,116 @@
+package com.masterclass.appa.benchmark;
+
+import com.masterclass.appa.resilience.StripedCircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ============================================================
+ * APP A: CIRCUIT BREAKER BOOKKEEPING UNDER CONTENTION (1-64 threads)
+ * ============================================================
+ *
+ * One operation = what every protected App B call costs the breaker:
+ * tryAcquirePermission + onSuccess/onError. 1 call in 100 fails (never
+ * enough to open it), so the threshold check runs too.
+ *
+ * implementation=standard → resilience4j CircuitBreaker, COUNT_BASED window
+ *                           of 10 (appBCircuitBreaker) - one lock per record
+ * implementation=striped  → StripedCircuitBreaker, same config,
+ *                           10s window in 10 epoch buckets of LongAdders
+ *
+ * All threads share ONE breaker, like all Tomcat threads share
+ * appBCircuitBreaker. Throughput should scale with the threads (and cores)
+ * for striped, and flatten - or drop - for standard.
+ *
+ * Run:  mvn -Pjmh compile exec:exec -Djmh.args="CircuitBreakerContentionBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CircuitBreakerContentionBenchmark {
+
+    private static final IOException FAILURE = new IOException("App B failed");
+
+    @Param({"standard", "striped"})
+    public String implementation;
+
+    private CircuitBreaker circuitBreaker;
+
+    /** Per thread: which call fails */
+    @State(Scope.Thread)
+    public static class Caller {
+        int calls;
+    }
+
+    @Setup
+    public void setUp() {
+        // appBCircuitBreaker's settings (application.yml)
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+            .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+            .slidingWindowSize(10)
+            .minimumNumberOfCalls(5)
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofSeconds(10))
+            .permittedNumberOfCallsInHalfOpenState(3)
+            .build();
+        circuitBreaker = "striped".equals(implementation)
+            ? new StripedCircuitBreaker("appBCircuitBreaker", config, Map.of(), Duration.ofSeconds(10), 10)
+            : CircuitBreaker.of("appBCircuitBreaker", config);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean threads01(Caller caller) {
+        return call(caller);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean threads04(Caller caller) {
+        return call(caller);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean threads16(Caller caller) {
+        return call(caller);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean threads64(Caller caller) {
+        return call(caller);
+    }
+
+    private boolean call(Caller caller) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return false;
+        }
+        if (++caller.calls % 100 == 0) {
+            circuitBreaker.onError(2, TimeUnit.MILLISECONDS, FAILURE);
+        } else {
+            circuitBreaker.onSuccess(2, TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+}
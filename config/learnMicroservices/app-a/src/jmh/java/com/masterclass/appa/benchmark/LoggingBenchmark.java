@@ -0,0 +1,138 @@
+package com.masterclass.appa.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.masterclass.logging.JsonLogEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ============================================================
+ * APP A: WHAT ONE LOG LINE COSTS THE REQUEST THREAD
+ * ============================================================
+ *
+ * One operation = the "Calling App B product endpoint" line of callProduct,
+ * with a traceId in the MDC like every traced request.
+ *
+ * patternSync → before: MDC.get("traceId") + "[TRACE: {}]" at the call site,
+ *               PatternLayoutEncoder formatting and writing ON the caller
+ * jsonAsync   → after: plain message, JsonLogEncoder behind the bounded
+ *               AsyncAppender (neverBlock) - the caller only enqueues,
+ *               traceId is picked up from the MDC by the encoder
+ *
+ * Both write to a discarding stream, so stdout speed doesn't count.
+ * With -prof gc (the default jmh.args) gc.alloc.rate.norm shows the bytes
+ * allocated per line on the caller side.
+ *
+ * Note: when the worker can't keep up (1 core), jsonAsync measures
+ * enqueue-or-drop - exactly what a request thread sees under a log flood.
+ *
+ * Run:  mvn -Pjmh compile exec:exec -Djmh.args="LoggingBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String PATTERN = "%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - [TRACE: %X{traceId}] %msg%n";
+
+    private LoggerContext patternContext;
+    private LoggerContext jsonContext;
+    private Logger patternLogger;
+    private Logger jsonLogger;
+
+    @Setup
+    public void setUp() {
+        patternContext = context();
+        PatternLayoutEncoder pattern = new PatternLayoutEncoder();
+        pattern.setPattern(PATTERN);
+        patternLogger = logger(patternContext, discarding(patternContext, pattern));
+
+        jsonContext = context();
+        JsonLogEncoder json = new JsonLogEncoder();
+        json.setService("app-a");
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(jsonContext);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.setIncludeCallerData(false);
+        async.addAppender(discarding(jsonContext, json));
+        async.start();
+        jsonLogger = logger(jsonContext, async);
+    }
+
+    /** The MDC is per thread - filled on the benchmark thread itself */
+    @State(Scope.Thread)
+    public static class TracedRequest {
+        @Setup
+        public void setUp() {
+            MDC.put("traceId", "64f1c2a97be0d3f2");
+            MDC.put("spanId", "9a07c51e2b4d8f60");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        patternContext.stop();
+        jsonContext.stop();
+    }
+
+    @Benchmark
+    public void patternSync(TracedRequest request) {
+        String traceId = MDC.get("traceId");
+        patternLogger.info("[TRACE: {}] Calling App B product endpoint for product: {}",
+            traceId != null ? traceId : "NO_TRACE", "42");
+    }
+
+    @Benchmark
+    public void jsonAsync(TracedRequest request) {
+        jsonLogger.info("Calling App B product endpoint for product: {}", "42");
+    }
+
+    /** Same MDC as the application's context - otherwise no traceId to log */
+    private static LoggerContext context() {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(MDC.getMDCAdapter());
+        return context;
+    }
+
+    private static OutputStreamAppender<ILoggingEvent> discarding(LoggerContext context, Encoder<ILoggingEvent> encoder) {
+        encoder.setContext(context);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        return appender;
+    }
+
+    private static Logger logger(LoggerContext context, Appender<ILoggingEvent> appender) {
+        Logger logger = context.getLogger("com.masterclass.appa.service.AppBResilientService");
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+}
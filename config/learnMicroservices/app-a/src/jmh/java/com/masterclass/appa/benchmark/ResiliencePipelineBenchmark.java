@@ -0,0 +1,245 @@
+package com.masterclass.appa.benchmark;
+
+import com.masterclass.appa.cache.LastKnownGoodCache;
+import com.masterclass.appa.clients.AppBClient;
+import com.masterclass.appa.clients.AppBClientFallback;
+import com.masterclass.appa.config.AppBBatchingProperties;
+import com.masterclass.appa.config.AppBCacheProperties;
+import com.masterclass.appa.config.AppBExecutorProperties;
+import com.masterclass.appa.config.AppBHedgingProperties;
+import com.masterclass.appa.config.AppBRetryBudgetProperties;
+import com.masterclass.appa.config.ResiliencePipelineConfig;
+import com.masterclass.appa.resilience.AppBPartitions;
+import com.masterclass.appa.resilience.HedgedAppBCaller;
+import com.masterclass.appa.service.AppBResilientService;
+import io.github.resilience4j.springboot3.bulkhead.autoconfigure.BulkheadAutoConfiguration;
+import io.github.resilience4j.springboot3.circuitbreaker.autoconfigure.CircuitBreakerAutoConfiguration;
+import io.github.resilience4j.springboot3.ratelimiter.autoconfigure.RateLimiterAutoConfiguration;
+import io.github.resilience4j.springboot3.retry.autoconfigure.RetryAutoConfiguration;
+import io.github.resilience4j.springboot3.timelimiter.autoconfigure.TimeLimiterAutoConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryProperties;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ============================================================
+ * APP A: RESILIENCE PIPELINE BENCHMARK (AOP vs PRECOMPOSED)
+ * ============================================================
+ *
+ * Per-call cost of wrapping one App B call in
+ * Retry ( CircuitBreaker ( RateLimiter ( Fallback ( Bulkhead ( call ) ) ) ) )
+ *
+ * PATHS:
+ * ------
+ * direct     - appBClient.getProduct(id) with no resilience (the floor)
+ * annotated  - BEFORE: AnnotatedAppBService through the Spring AOP proxy,
+ *              one aspect per annotation (registry lookups + reflective
+ *              fallbackMethod resolution on every call)
+ * pipeline   - AFTER: AppBResilientService.getProduct, prebuilt pipeline
+ *
+ * App B is an in-memory stub so only the resilience layer is measured:
+ *   appB=up   → stub answers (happy path)
+ *   appB=down → stub throws, fallback answers (CircuitBreaker still sees
+ *               success because the fallback sits inside it)
+ *
+ * Both sides use the real resilience4j Spring Boot auto-configuration and
+ * the instance names from application.yml. The rate limiter is opened up
+ * (1 call/s would throttle the benchmark itself), the last-known-good cache
+ * ttl is 0 (every call goes through the pipeline), hedging is off (one stub,
+ * no second instance), micro-batching is off (a lone caller would only wait
+ * out the batch window) and logging is at ERROR.
+ *
+ * WHAT IS REPORTED:
+ * -----------------
+ * Average time per call and, with the default "-prof gc" from the jmh
+ * profile, gc.alloc.rate.norm = bytes allocated per call.
+ *
+ * RUN:
+ *   mvn -Pjmh compile exec:exec -Djmh.args="ResiliencePipeline -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ResiliencePipelineBenchmark {
+
+    @Param({"up", "down"})
+    public String appB;
+
+    private AnnotationConfigApplicationContext context;
+    private StubAppBClient client;
+    private AnnotatedAppBService annotated;
+    private AppBResilientService pipeline;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+            .setLevel(ch.qos.logback.classic.Level.ERROR);
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("bench", properties()));
+        context.register(BenchmarkConfig.class);
+        context.refresh();
+
+        client = context.getBean(StubAppBClient.class);
+        client.down = "down".equals(appB);
+        annotated = context.getBean(AnnotatedAppBService.class);
+        pipeline = context.getBean(AppBResilientService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String direct() {
+        try {
+            return client.getProduct("42");
+        } catch (IllegalStateException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String annotated() {
+        return annotated.getProduct("42");
+    }
+
+    @Benchmark
+    public String pipeline() {
+        return pipeline.getProduct("42");
+    }
+
+    /**
+     * Same instances as application.yml, rate limiter wide open.
+     */
+    private static Map<String, Object> properties() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("resilience4j.circuitbreaker.instances.appBCircuitBreaker.slidingWindowSize", 10);
+        properties.put("resilience4j.circuitbreaker.instances.appBCircuitBreaker.minimumNumberOfCalls", 5);
+        properties.put("resilience4j.circuitbreaker.instances.appBCircuitBreaker.failureRateThreshold", 50);
+        properties.put("resilience4j.circuitbreaker.configs.appBOperation.slidingWindowSize", 10);
+        properties.put("resilience4j.circuitbreaker.configs.appBOperation.minimumNumberOfCalls", 5);
+        properties.put("resilience4j.circuitbreaker.configs.appBOperation.failureRateThreshold", 50);
+        properties.put("resilience4j.retry.instances.appBRetry.maxAttempts", 3);
+        properties.put("resilience4j.bulkhead.instances.appBBulkhead.maxConcurrentCalls", 10);
+        properties.put("resilience4j.bulkhead.instances.appBBulkhead.maxWaitDuration", "500ms");
+        properties.put("resilience4j.bulkhead.configs.appBOperation.maxConcurrentCalls", 6);
+        properties.put("resilience4j.bulkhead.configs.appBOperation.maxWaitDuration", "500ms");
+        properties.put("resilience4j.ratelimiter.instances.appBRateLimiter.limitForPeriod", Integer.MAX_VALUE);
+        properties.put("resilience4j.ratelimiter.instances.appBRateLimiter.limitRefreshPeriod", "1s");
+        properties.put("resilience4j.ratelimiter.instances.appBRateLimiter.timeoutDuration", "0");
+        properties.put("resilience4j.timelimiter.instances.appBTimeLimiter.timeoutDuration", "3s");
+        properties.put("app-b.cache.ttl", "0s");
+        properties.put("app-b.hedging.enabled", false);
+        properties.put("app-b.batching.enabled", false);
+        return properties;
+    }
+
+    @Configuration
+    @ImportAutoConfiguration({
+        AopAutoConfiguration.class,
+        CircuitBreakerAutoConfiguration.class,
+        RetryAutoConfiguration.class,
+        BulkheadAutoConfiguration.class,
+        RateLimiterAutoConfiguration.class,
+        TimeLimiterAutoConfiguration.class
+    })
+    @EnableConfigurationProperties({AppBCacheProperties.class, AppBHedgingProperties.class,
+        AppBRetryBudgetProperties.class, AppBExecutorProperties.class, AppBBatchingProperties.class})
+    @Import({ResiliencePipelineConfig.class, LastKnownGoodCache.class, AppBClientFallback.class,
+        HedgedAppBCaller.class, AppBPartitions.class, AppBResilientService.class})
+    static class BenchmarkConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        DiscoveryClient discoveryClient() {
+            return new SimpleDiscoveryClient(new SimpleDiscoveryProperties());
+        }
+
+        @Bean
+        @Primary
+        StubAppBClient stubAppBClient() {
+            return new StubAppBClient();
+        }
+
+        @Bean
+        AnnotatedAppBService annotatedAppBService(AppBClient appBClient, AppBClientFallback fallback) {
+            return new AnnotatedAppBService(appBClient, fallback);
+        }
+    }
+
+    /**
+     * App B without the network: a fixed answer, or a failure when "down".
+     */
+    static class StubAppBClient implements AppBClient {
+
+        private static final String PRODUCT = "{\"id\":\"42\",\"name\":\"Product 42\"}";
+
+        volatile boolean down;
+
+        @Override
+        public String getAppBStatus() {
+            return answer();
+        }
+
+        @Override
+        public String getProduct(String id) {
+            return answer();
+        }
+
+        @Override
+        public String getProducts(List<String> ids) {
+            return "{\"42\":" + answer() + "}";
+        }
+
+        @Override
+        public String getGreeting(String name) {
+            return answer();
+        }
+
+        private String answer() {
+            if (down) {
+                throw new IllegalStateException("App B is down");
+            }
+            return PRODUCT;
+        }
+    }
+}
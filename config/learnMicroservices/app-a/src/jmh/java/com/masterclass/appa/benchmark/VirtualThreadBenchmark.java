@@ -0,0 +1,167 @@
+package com.masterclass.appa.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import feign.RequestLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.core.task.support.ExecutorServiceAdapter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ============================================================
+ * APP A: PLATFORM vs VIRTUAL THREADS (thousands of slow App B calls)
+ * ============================================================
+ *
+ * One burst = `calls` requests arriving at once, each making a blocking
+ * Feign call to an App B that takes `slowMs` to answer - what a Tomcat
+ * handler in AppBResilientService does during an App B slowdown.
+ *
+ * threads=platform → 200-thread pool (Tomcat's default max threads)
+ *                    2000 calls / 200 threads = 10 waves of 200ms ≈ 2s
+ * threads=virtual  → one virtual thread per request (profile "virtual-threads")
+ *                    all 2000 wait on App B at the same time ≈ 200ms
+ *
+ * App B is a local HTTP server that answers after slowMs WITHOUT holding a
+ * thread (a timer completes the response), so the thread counts below
+ * are App A's alone.
+ *
+ * WHAT IS REPORTED:
+ * -----------------
+ * Time per burst, plus one FOOTPRINT line per run (highest of all bursts):
+ * peak threads - peak live platform threads; each one reserves a native
+ *                stack (1MB by default, -Xss)
+ * heap used    - heap in use right after a burst (virtual thread stacks
+ *                live on the heap)
+ *
+ * Run:  mvn -Pjmh compile exec:exec -Djmh.args="VirtualThreadBenchmark"
+ * threads=virtual needs Java 21+; on Java 17 only threads=platform runs:
+ *       mvn -Pjmh compile exec:exec -Djmh.args="VirtualThreadBenchmark -p threads=platform"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"2000"})
+    public int calls;
+
+    @Param({"200"})
+    public int slowMs;
+
+    private HttpServer appB;
+    private ScheduledExecutorService appBTimer;
+    private SlowAppB appBClient;
+    private ExecutorService handlers;
+    private int peakThreads;
+    private long peakHeapUsedMb;
+
+    interface SlowAppB {
+        @RequestLine("GET /api/app-b/status")
+        String getAppBStatus();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        appBTimer = Executors.newScheduledThreadPool(2);
+        appB = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        appB.createContext("/api/app-b/status", exchange ->
+            appBTimer.schedule(() -> respond(exchange), slowMs, TimeUnit.MILLISECONDS));
+        appB.setExecutor(Executors.newFixedThreadPool(4));
+        appB.start();
+
+        appBClient = Feign.builder()
+            .target(SlowAppB.class, "http://127.0.0.1:" + appB.getAddress().getPort());
+
+        if ("virtual".equals(threads)) {
+            // Throws UnsupportedOperationException on Java < 21
+            handlers = new ExecutorServiceAdapter(new VirtualThreadTaskExecutor("handler-"));
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            handlers = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "http-nio-exec-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nFOOTPRINT threads=%s: peak threads %d, heap used %dMB%n",
+            threads, peakThreads, peakHeapUsedMb);
+        if (!"virtual".equals(threads)) {
+            handlers.shutdownNow();
+        }
+        appB.stop(0);
+        appBTimer.shutdownNow();
+    }
+
+    @Benchmark
+    public int burst() throws InterruptedException {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        threadBean.resetPeakThreadCount();
+
+        CountDownLatch done = new CountDownLatch(calls);
+        AtomicInteger answered = new AtomicInteger();
+        for (int i = 0; i < calls; i++) {
+            handlers.execute(() -> {
+                try {
+                    appBClient.getAppBStatus();
+                    answered.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+
+        peakThreads = Math.max(peakThreads, threadBean.getPeakThreadCount());
+        peakHeapUsedMb = Math.max(peakHeapUsedMb,
+            ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024 * 1024));
+        return answered.get();
+    }
+
+    private static void respond(HttpExchange exchange) {
+        byte[] body = "App B is UP".getBytes(StandardCharsets.UTF_8);
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.sendResponseHeaders(200, body.length);
+            out.write(body);
+        } catch (IOException ex) {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.masterclass.appa.cache;
+
+import com.masterclass.appa.config.AppBCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ============================================================
+ * LAST-KNOWN-GOOD CACHE FOR APP B RESPONSES
+ * ============================================================
+ *
+ * WHAT IT DOES:
+ * -------------
+ * Every SUCCESSFUL App B response is stored here, keyed by operation and
+ * arguments ("getProduct:42"). The cache then helps twice:
+ *
+ * 1. NORMAL TRAFFIC (stale-while-revalidate)
+ *
+ *    age:  0 ──────────────── ttl-refreshAhead ────────── ttl ──────────→
+ *          │   served from cache     │ served from cache  │ call App B
+ *          │   (App B not called)    │ + ONE background   │ (entry too old)
+ *          │                         │   refresh          │
+ *
+ *    Hot products hit App B about once per ttl, not once per request -
+ *    which is exactly the load a recovering App B can't take.
+ *
+ * 2. APP B DOWN (fallback)
+ *    AppBClientFallback serves the last good value (up to maxStale old)
+ *    with "cached": true and its age, instead of "UNAVAILABLE".
+ *
+ * BOUNDED:
+ * --------
+ * At most maxEntries entries, least recently used evicted first. Refreshes
+ * run on a small pool with a bounded queue; one refresh per key at a time,
+ * extra refresh requests are simply skipped.
+ *
+ * Configured under app-b.cache.* (AppBCacheProperties).
+ */
+@Component
+public class LastKnownGoodCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastKnownGoodCache.class);
+
+    private final AppBCacheProperties properties;
+    private final Map<String, Entry> entries;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor refreshExecutor;
+
+    private final Counter freshHits;
+    private final Counter misses;
+    private final Counter staleServed;
+    private final Counter refreshes;
+
+    public LastKnownGoodCache(AppBCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        int maxEntries = properties.getMaxEntries();
+        // Access-ordered LinkedHashMap = LRU; guarded by synchronized(entries)
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(
+            properties.getRefreshThreads(), properties.getRefreshThreads(),
+            30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(100),
+            runnable -> {
+                Thread thread = new Thread(runnable, "appb-cache-refresh-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.refreshExecutor.allowCoreThreadTimeOut(true);
+
+        this.freshHits = lookup(meterRegistry, "hit");
+        this.misses = lookup(meterRegistry, "miss");
+        this.staleServed = lookup(meterRegistry, "stale-fallback");
+        this.refreshes = Counter.builder("appb.cache.refreshes")
+            .description("Background refreshes of near-expiry entries")
+            .register(meterRegistry);
+        Gauge.builder("appb.cache.size", this, LastKnownGoodCache::size)
+            .description("Entries in the App B last-known-good cache")
+            .register(meterRegistry);
+    }
+
+    public static String key(String operation, String argument) {
+        return argument == null ? operation : operation + ":" + argument;
+    }
+
+    /**
+     * Store a successful App B response.
+     */
+    public void put(String key, String value) {
+        if (value == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry(value, Instant.now()));
+        }
+    }
+
+    /**
+     * Normal read path. Returns the cached value while it is younger than ttl
+     * (App B is not called). Near expiry, also starts one background refresh.
+     * Empty = call App B.
+     */
+    public Optional<String> getFresh(String key, Runnable refresh) {
+        Entry entry = find(key);
+        Duration ttl = properties.getTtl();
+        if (entry == null || entry.age().compareTo(ttl) >= 0) {
+            misses.increment();
+            return Optional.empty();
+        }
+        freshHits.increment();
+        if (entry.age().compareTo(ttl.minus(properties.getRefreshAhead())) >= 0) {
+            refreshAsync(key, refresh);
+        }
+        return Optional.of(entry.value());
+    }
+
+    /**
+     * Fallback read path. Returns the last good value, however old (up to
+     * maxStale), so the caller can serve it with staleness metadata.
+     */
+    public Optional<Entry> getLastKnownGood(String key) {
+        Entry entry = find(key);
+        if (entry == null || entry.age().compareTo(properties.getMaxStale()) > 0) {
+            return Optional.empty();
+        }
+        staleServed.increment();
+        return Optional.of(entry);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private Entry find(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private void refreshAsync(String key, Runnable refresh) {
+        // Single-flight: one refresh per key in progress
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refreshes.increment();
+                    refresh.run();
+                } catch (Exception ex) {
+                    logger.debug("Background refresh of {} failed: {}", key, ex.toString());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // Refresh queue full - the entry is still valid, try on a later hit
+            refreshing.remove(key);
+        }
+    }
+
+    private static Counter lookup(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("appb.cache.lookups")
+            .description("App B cache lookups by result")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * One cached App B response and when it was received.
+     */
+    public record Entry(String value, Instant storedAt) {
+
+        public Duration age() {
+            return Duration.between(storedAt, Instant.now());
+        }
+    }
+}
@@ -3,6 +3,9 @@ package com.masterclass.appa.clients;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
 
 /**
  * Feign Client for communicating with App B
@@ -35,6 +38,14 @@ public interface AppBClient {
     @GetMapping("/product/{id}")
     String getProduct(@PathVariable("id") String id);
     
+    /**
+     * Get many products from App B in one call (micro-batching)
+     * Maps to: GET /products?ids=1&ids=2
+     * Returns a JSON object: product id → same body as getProduct(id)
+     */
+    @GetMapping("/products")
+    String getProducts(@RequestParam("ids") List<String> ids);
+    
     /**
      * Get a greeting from App B
      * Maps to: GET /greeting/{name}
@@ -1,10 +1,19 @@
 package com.masterclass.appa.clients;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.masterclass.appa.cache.LastKnownGoodCache;
+import com.masterclass.tracing.TailSamplingSpanHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
 /**
  * ============================================================
  * PHASE 4: FALLBACK HANDLER FOR APP B CLIENT
@@ -41,11 +50,31 @@ import org.springframework.stereotype.Component;
  * 3. Timeout exceeded (service too slow)
  * 4. Bulkhead full (too many concurrent requests)
  * 5. Rate limit exceeded (too many requests per second)
+ * 
+ * LAST-KNOWN-GOOD DATA FIRST:
+ * ---------------------------
+ * Every fallback first asks LastKnownGoodCache for the last successful
+ * App B response for the same call. If there is one, it is served with
+ * "cached": true, when it was received and how old it is (strategy 1).
+ * Only when nothing was ever cached do we fall back to the defaults below.
+ * 
+ * Every fallback also keeps its trace (tail-based sampling): a degraded
+ * 200 OK is exactly the request we want to see in the traces.
  */
 @Component
 public class AppBClientFallback implements AppBClient {
     
     private static final Logger logger = LoggerFactory.getLogger(AppBClientFallback.class);
+    private static final ObjectMapper JSON = new ObjectMapper();
+    
+    private final LastKnownGoodCache cache;
+    private final TailSamplingSpanHandler tailSampling;
+    
+    public AppBClientFallback(LastKnownGoodCache cache,
+                              ObjectProvider<TailSamplingSpanHandler> tailSampling) {
+        this.cache = cache;
+        this.tailSampling = tailSampling.getIfAvailable();
+    }
     
     /**
      * Fallback for getAppBStatus()
@@ -62,17 +91,17 @@ public class AppBClientFallback implements AppBClient {
     public String getAppBStatus() {
         String traceId = MDC.get("traceId");
         
+        Optional<String> lastKnown = fromCache(LastKnownGoodCache.key("getAppBStatus", null), traceId);
+        if (lastKnown.isPresent()) {
+            return lastKnown.get();
+        }
+        
         logger.warn(
-            "[FALLBACK] [TRACE: {}] App B status check failed. " +
-            "Using fallback response. Circuit breaker protecting system.",
-            traceId != null ? traceId : "NO_TRACE"
+            "[FALLBACK] App B status check failed. " +
+            "Using fallback response. Circuit breaker protecting system."
         );
         
-        // Return a graceful degraded response
-        // In production, you might:
-        // 1. Check a cache for last known status
-        // 2. Return health status from a secondary source
-        // 3. Return a generic "service unavailable" message
+        // No last known status cached - return a graceful degraded response
         
         return """
             {
@@ -93,26 +122,25 @@ public class AppBClientFallback implements AppBClient {
     /**
      * Fallback for getProduct(id)
      * 
-     * Response strategy: Return "product unavailable" message
-     * 
-     * In a real system, you might:
-     * 1. Return cached product data
-     * 2. Return product from a backup service
-     * 3. Return minimal product info from local database
+     * Response strategy: Return the last known good product data,
+     * otherwise a "product unavailable" message
      */
     @Override
     public String getProduct(String id) {
         String traceId = MDC.get("traceId");
         
+        Optional<String> lastKnown = fromCache(LastKnownGoodCache.key("getProduct", id), traceId);
+        if (lastKnown.isPresent()) {
+            return lastKnown.get();
+        }
+        
         logger.warn(
-            "[FALLBACK] [TRACE: {}] Product {} fetch failed. " +
+            "[FALLBACK] Product {} fetch failed. " +
             "App B unavailable. Using fallback.",
-            traceId != null ? traceId : "NO_TRACE",
             id
         );
         
-        // Cache lookup would go here in production
-        // For now, return a helpful message
+        // Never fetched successfully (or too old) - nothing cached to serve
         
         return """
             {
@@ -132,6 +160,20 @@ public class AppBClientFallback implements AppBClient {
             );
     }
     
+    /**
+     * Fallback for getProducts(ids)
+     * 
+     * Response strategy: every product answered exactly like getProduct(id)
+     * would - last known good where we have it, "unavailable" otherwise
+     */
+    @Override
+    public String getProducts(List<String> ids) {
+        return ids.stream()
+            .distinct()
+            .map(id -> quote(id) + ": " + getProduct(id).trim())
+            .collect(Collectors.joining(",\n", "{\n", "\n}"));
+    }
+    
     /**
      * Fallback for getGreeting(name)
      * 
@@ -146,10 +188,14 @@ public class AppBClientFallback implements AppBClient {
     public String getGreeting(String name) {
         String traceId = MDC.get("traceId");
         
+        Optional<String> lastKnown = fromCache(LastKnownGoodCache.key("getGreeting", name), traceId);
+        if (lastKnown.isPresent()) {
+            return lastKnown.get();
+        }
+        
         logger.warn(
-            "[FALLBACK] [TRACE: {}] Greeting for '{}' from App B failed. " +
+            "[FALLBACK] Greeting for '{}' from App B failed. " +
             "Using local fallback greeting.",
-            traceId != null ? traceId : "NO_TRACE",
             name
         );
         
@@ -171,4 +217,67 @@ public class AppBClientFallback implements AppBClient {
                 traceId != null ? traceId : "NO_TRACE"
             );
     }
+    
+    /**
+     * Last good App B response for this call, wrapped with staleness metadata:
+     * 
+     * {
+     *   "status": "STALE", "cached": true,
+     *   "cachedAt": "...", "ageSeconds": 42,
+     *   "data": <exactly what App B returned back then>
+     * }
+     */
+    private Optional<String> fromCache(String key, String traceId) {
+        // Every fallback starts here
+        if (tailSampling != null) {
+            tailSampling.keepCurrentTrace("fallback");
+        }
+        
+        return cache.getLastKnownGood(key).map(entry -> {
+            logger.warn(
+                "[FALLBACK] Serving last known good {} ({}s old)",
+                key,
+                entry.age().toSeconds()
+            );
+            
+            return """
+                {
+                    "status": "STALE",
+                    "cached": true,
+                    "cachedAt": "%s",
+                    "ageSeconds": %d,
+                    "fallbackReason": "App B is not responding - serving last known good response",
+                    "timestamp": "%s",
+                    "traceId": "%s",
+                    "data": %s
+                }
+                """.formatted(
+                    entry.storedAt().toString(),
+                    entry.age().toSeconds(),
+                    java.time.Instant.now().toString(),
+                    traceId != null ? traceId : "NO_TRACE",
+                    asJsonValue(entry.value())
+                );
+        });
+    }
+    
+    /**
+     * App B's product answer is a JSON object - embed it as is.
+     * Status and greeting are plain text - embed them as a JSON string.
+     */
+    private static String asJsonValue(String value) {
+        String trimmed = value.trim();
+        if (trimmed.startsWith("{") || trimmed.startsWith("[")) {
+            return trimmed;
+        }
+        return quote(value);
+    }
+    
+    private static String quote(String value) {
+        try {
+            return JSON.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            return "null";
+        }
+    }
 }
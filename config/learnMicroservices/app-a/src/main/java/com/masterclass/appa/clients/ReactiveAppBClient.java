@@ -0,0 +1,39 @@
+package com.masterclass.appa.clients;
+
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.service.annotation.GetExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================
+ * REACTIVE TWIN OF AppBClient (WebClient, non-blocking)
+ * ============================================================
+ * 
+ * Same endpoints as the Feign AppBClient, but every method returns a Mono:
+ * 
+ *   Feign:     String s = appBClient.getProduct("42");      // thread WAITS
+ *   Reactive:  Mono<String> m = reactiveAppBClient.getProduct("42");
+ *              // nothing sent yet - the request goes out on subscribe and
+ *              // the answer arrives on a Netty event-loop thread
+ * 
+ * While App B is thinking, NO thread is held. A handful of event-loop
+ * threads (one per CPU core) serve thousands of in-flight calls.
+ * 
+ * Like Feign, this is only an interface - Spring generates the
+ * implementation (HttpServiceProxyFactory, see ReactiveAppBClientConfig).
+ * "app-b" is resolved through Eureka by the load balancer, the same
+ * instances the Feign client uses.
+ * 
+ * Resilience patterns are applied by ReactiveAppBService, not here.
+ */
+public interface ReactiveAppBClient {
+    
+    @GetExchange("/status")
+    Mono<String> getAppBStatus();
+    
+    @GetExchange("/product/{id}")
+    Mono<String> getProduct(@PathVariable("id") String id);
+    
+    @GetExchange("/greeting/{name}")
+    Mono<String> getGreeting(@PathVariable("name") String name);
+}
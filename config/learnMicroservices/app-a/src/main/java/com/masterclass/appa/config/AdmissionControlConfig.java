@@ -0,0 +1,65 @@
+package com.masterclass.appa.config;
+
+import com.masterclass.appa.resilience.CoDelAdmissionFilter;
+import com.masterclass.appa.resilience.QueueTimedExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.catalina.Lifecycle;
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.management.ObjectName;
+
+/**
+ * ============================================================
+ * CoDel ADMISSION CONTROL IN FRONT OF EVERY ENDPOINT
+ * ============================================================
+ *
+ *   socket readable → QueueTimedExecutor (queued at) → Tomcat thread
+ *                   → CoDelAdmissionFilter (first filter) → shed (503) or serve
+ *
+ * The executor is installed just before the connector starts, so Tomcat's
+ * server.tomcat.threads.* settings are already applied. Virtual threads
+ * (profile "virtual-threads") bring their own executor and have no queue
+ * to measure - the filter then admits everything.
+ * Opt-in with admission-control.enabled=true - it swaps Tomcat's executor
+ * and answers 503s, so size admission-control.target from measured waits.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "admission-control", name = "enabled", havingValue = "true")
+public class AdmissionControlConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> queueTimedTomcatExecutor() {
+        return factory -> factory.addConnectorCustomizers(connector -> connector.addLifecycleListener(event -> {
+            if (!(connector.getProtocolHandler() instanceof AbstractProtocol<?> protocol)) {
+                return;
+            }
+            if (Lifecycle.BEFORE_START_EVENT.equals(event.getType()) && protocol.getExecutor() == null) {
+                // getName() is quoted for JMX - Tomcat's threads are http-nio-8080-exec-N
+                protocol.setExecutor(QueueTimedExecutor.create(ObjectName.unquote(protocol.getName()) + "-exec-",
+                    protocol.getMinSpareThreads(), protocol.getMaxThreads(), protocol.getThreadPriority()));
+            } else if (Lifecycle.AFTER_STOP_EVENT.equals(event.getType())
+                    && protocol.getExecutor() instanceof QueueTimedExecutor executor) {
+                // Not Tomcat's own executor - Tomcat leaves it running
+                executor.shutdownNow();
+                protocol.setExecutor(null);
+            }
+        }));
+    }
+
+    @Bean
+    public FilterRegistrationBean<CoDelAdmissionFilter> coDelAdmissionFilter(AdmissionControlProperties properties,
+                                                                           MeterRegistry meterRegistry) {
+        FilterRegistrationBean<CoDelAdmissionFilter> registration = new FilterRegistrationBean<>(
+            new CoDelAdmissionFilter(properties.getTarget(), properties.getInterval(), meterRegistry));
+        // First: a shed request should cost as little as possible
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,23 @@
+package com.masterclass.appa.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * CoDel admission control of App A's endpoints (admission-control.*)
+ * See com.masterclass.appa.resilience.CoDelAdmissionFilter
+ */
+@Component
+@ConfigurationProperties(prefix = "admission-control")
+@Data
+public class AdmissionControlProperties {
+    /** true = shed requests while a standing queue builds up in front of Tomcat */
+    private boolean enabled = false;
+    /** Acceptable time a request waits for a thread */
+    private Duration target = Duration.ofMillis(5);
+    /** Minimum wait above target for this long → shed */
+    private Duration interval = Duration.ofMillis(100);
+}
@@ -0,0 +1,43 @@
+package com.masterclass.appa.config;
+
+import com.masterclass.appa.resilience.AdaptiveBulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * ============================================================
+ * SELF-SIZING APP B BULKHEAD
+ * ============================================================
+ *
+ *   appBBulkhead events (permitted / finished) → AdaptiveBulkhead
+ *                                                    ↓ every interval
+ *   appBBulkhead limit = λ x W_min x headroom      ←
+ *     (grow: changeConfig / parked permits back, shrink: park free permits)
+ *
+ * appBBulkhead's maxConcurrentCalls in application.yml becomes the
+ * starting point; maxWaitDuration and the per-operation (appB.*)
+ * bulkheads stay as configured. Opt-in with
+ * app-b.adaptive-bulkhead.enabled=true - off, appBBulkhead keeps the fixed
+ * size the bulkhead guides describe.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app-b.adaptive-bulkhead", name = "enabled", havingValue = "true")
+public class AppBAdaptiveBulkheadConfig {
+
+    private static final String BULKHEAD_NAME = "appBBulkhead";
+
+    @Bean(destroyMethod = "shutdown")
+    public AdaptiveBulkhead appBAdaptiveBulkhead(BulkheadRegistry bulkheadRegistry,
+                                                 AppBAdaptiveBulkheadProperties properties,
+                                                 MeterRegistry meterRegistry) {
+        return new AdaptiveBulkhead(
+            bulkheadRegistry.bulkhead(BULKHEAD_NAME),
+            properties.getMinConcurrentCalls(), properties.getMaxConcurrentCalls(),
+            properties.getHeadroom(), properties.getHysteresis(),
+            properties.getMinimumCalls(), properties.getBaselineIntervals(),
+            properties.getInterval(), meterRegistry);
+    }
+}
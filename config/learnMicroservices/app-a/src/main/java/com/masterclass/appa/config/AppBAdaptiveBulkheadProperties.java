@@ -0,0 +1,33 @@
+package com.masterclass.appa.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Little's-law sizing of appBBulkhead (app-b.adaptive-bulkhead.*)
+ * See com.masterclass.appa.resilience.AdaptiveBulkhead
+ */
+@Component
+@ConfigurationProperties(prefix = "app-b.adaptive-bulkhead")
+@Data
+public class AppBAdaptiveBulkheadProperties {
+    /** true = maxConcurrentCalls follows throughput x latency, false = static maxConcurrentCalls */
+    private boolean enabled = false;
+    /** Never fewer concurrent App B calls than this */
+    private int minConcurrentCalls = 4;
+    /** Never more concurrent App B calls than this */
+    private int maxConcurrentCalls = 32;
+    /** Spare capacity on top of throughput x baseline latency - 2.0 = double */
+    private double headroom = 2.0;
+    /** Resize only when the target differs by more than this share of the current limit */
+    private double hysteresis = 0.2;
+    /** Calls needed in an interval before it is used */
+    private int minimumCalls = 10;
+    /** Intervals the baseline (lowest) latency is taken from */
+    private int baselineIntervals = 30;
+    /** One measurement (and possibly one resize) per interval */
+    private Duration interval = Duration.ofSeconds(1);
+}
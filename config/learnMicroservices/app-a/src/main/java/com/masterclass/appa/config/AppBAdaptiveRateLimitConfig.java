@@ -0,0 +1,58 @@
+package com.masterclass.appa.config;
+
+import com.masterclass.appa.resilience.AdaptiveRateLimit;
+import com.masterclass.appa.resilience.AdaptiveRateLimitLifecycle;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ============================================================
+ * ADAPTIVE APP B RATE LIMIT
+ * ============================================================
+ *
+ *   App B call → AdaptiveRateLimitLifecycle → AdaptiveRateLimit (counts)
+ *                                                   ↓ every interval
+ *   appBRateLimiter.changeLimitForPeriod(AIMD step) ←
+ *
+ * appBRateLimiter's limitForPeriod in application.yml becomes the starting
+ * point. Opt-in with app-b.adaptive-rate-limit.enabled=true - off, the
+ * limit stays the static one the guides describe.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app-b.adaptive-rate-limit", name = "enabled", havingValue = "true")
+public class AppBAdaptiveRateLimitConfig {
+
+    private static final String SERVICE_ID = "app-b";
+    private static final String RATE_LIMITER_NAME = "appBRateLimiter";
+
+    @Bean
+    public AdaptiveRateLimit appBAdaptiveRateLimit(RateLimiterRegistry rateLimiterRegistry,
+                                                   AppBAdaptiveRateLimitProperties properties,
+                                                   ScheduledExecutorService resilienceScheduler,
+                                                   MeterRegistry meterRegistry) {
+        AdaptiveRateLimit rateLimit = new AdaptiveRateLimit(
+            rateLimiterRegistry.rateLimiter(RATE_LIMITER_NAME),
+            properties.getMinLimit(), properties.getMaxLimit(),
+            properties.getAdditiveIncrease(), properties.getMultiplicativeDecrease(),
+            properties.getLatencyTarget(), properties.getSlowCallRateTarget(), properties.getErrorRateTarget(),
+            properties.getMinimumCalls(), properties.getInterval(), meterRegistry);
+        long interval = properties.getInterval().toMillis();
+        resilienceScheduler.scheduleAtFixedRate(rateLimit::adjust, interval, interval, TimeUnit.MILLISECONDS);
+        return rateLimit;
+    }
+
+    /**
+     * Lifecycle beans of the main context apply to every load-balanced
+     * client - this one ignores everything but app-b.
+     */
+    @Bean
+    public AdaptiveRateLimitLifecycle appBAdaptiveRateLimitLifecycle(AdaptiveRateLimit appBAdaptiveRateLimit) {
+        return new AdaptiveRateLimitLifecycle(SERVICE_ID, appBAdaptiveRateLimit);
+    }
+}
@@ -0,0 +1,37 @@
+package com.masterclass.appa.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Adaptive (AIMD) limit of appBRateLimiter (app-b.adaptive-rate-limit.*)
+ * See com.masterclass.appa.resilience.AdaptiveRateLimit
+ */
+@Component
+@ConfigurationProperties(prefix = "app-b.adaptive-rate-limit")
+@Data
+public class AppBAdaptiveRateLimitProperties {
+    /** true = limitForPeriod follows App B's capacity, false = static limitForPeriod */
+    private boolean enabled = false;
+    /** Lowest limitForPeriod the controller goes down to */
+    private int minLimit = 1;
+    /** Highest limitForPeriod the controller goes up to */
+    private int maxLimit = 100;
+    /** Added per interval while App B is healthy and the limit is used up */
+    private int additiveIncrease = 1;
+    /** Factor applied on congestion - 0.5 = halve */
+    private double multiplicativeDecrease = 0.5;
+    /** An App B call slower than this is a slow call */
+    private Duration latencyTarget = Duration.ofMillis(500);
+    /** Slow calls above this share cut the limit - 0.1 = p90 must stay under latencyTarget */
+    private double slowCallRateTarget = 0.1;
+    /** Failed calls (not congestion) above this share also cut the limit */
+    private double errorRateTarget = 0.1;
+    /** Calls needed in an interval before its congestion, slow call and error rates count */
+    private int minimumCalls = 5;
+    /** One AIMD step per interval */
+    private Duration interval = Duration.ofSeconds(1);
+}
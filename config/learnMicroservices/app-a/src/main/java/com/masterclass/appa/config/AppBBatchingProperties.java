@@ -0,0 +1,23 @@
+package com.masterclass.appa.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Micro-batching of getProduct calls into one bulk App B call (app-b.batching.*)
+ * See com.masterclass.appa.resilience.MicroBatcher
+ */
+@Component
+@ConfigurationProperties(prefix = "app-b.batching")
+@Data
+public class AppBBatchingProperties {
+    /** true = getProduct waits up to one window for a batch, false = one call per product */
+    private boolean enabled = false;
+    /** How long the first call of a batch waits for others to join */
+    private Duration window = Duration.ofMillis(5);
+    /** A full batch is sent at once, without waiting for the window */
+    private int maxBatchSize = 50;
+}
@@ -0,0 +1,27 @@
+package com.masterclass.appa.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Last-known-good cache for App B responses (app-b.cache.*)
+ * See com.masterclass.appa.cache.LastKnownGoodCache
+ */
+@Component
+@ConfigurationProperties(prefix = "app-b.cache")
+@Data
+public class AppBCacheProperties {
+    /** Most entries kept; least recently used are dropped first */
+    private int maxEntries = 1000;
+    /** How long an entry is served without asking App B */
+    private Duration ttl = Duration.ofSeconds(60);
+    /** In the last part of ttl, a hit also refreshes the entry in the background */
+    private Duration refreshAhead = Duration.ofSeconds(15);
+    /** Oldest entry a fallback may still serve */
+    private Duration maxStale = Duration.ofHours(24);
+    /** Background refresh threads */
+    private int refreshThreads = 2;
+}
@@ -0,0 +1,34 @@
+package com.masterclass.appa.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Executor running the blocking App B calls of async operations (app-b.executor.*)
+ * See com.masterclass.appa.config.ResiliencePipelineConfig
+ */
+@Component
+@ConfigurationProperties(prefix = "app-b.executor")
+@Data
+public class AppBExecutorProperties {
+    /** Threads kept even when idle */
+    private int coreThreads = 32;
+    /** Threads started once the queue is full */
+    private int maxThreads = 32;
+    /** Calls waiting for a thread - 0 = no queue (hand off or reject) */
+    private int queueCapacity = 256;
+    /** Idle time before a thread above coreThreads stops */
+    private Duration keepAlive = Duration.ofSeconds(60);
+    /** What happens to a call when threads AND queue are full */
+    private RejectionPolicy rejectionPolicy = RejectionPolicy.ABORT;
+
+    public enum RejectionPolicy {
+        /** Fail the call (RejectedExecutionException → pipeline fallback) */
+        ABORT,
+        /** Run the call on the caller's thread - slows the caller down (backpressure). Micro-batches are failed instead */
+        CALLER_RUNS
+    }
+}
@@ -0,0 +1,30 @@
+package com.masterclass.appa.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Hedged requests for idempotent App B calls (app-b.hedging.*)
+ * See com.masterclass.appa.resilience.HedgedAppBCaller
+ */
+@Component
+@ConfigurationProperties(prefix = "app-b.hedging")
+@Data
+public class AppBHedgingProperties {
+    private boolean enabled = true;
+    /** Hedge once a call is slower than this percentile of recent calls */
+    private double percentile = 0.95;
+    /** Never hedge sooner than this (protects against a tiny p95) */
+    private Duration minDelay = Duration.ofMillis(20);
+    /** Recent successful calls needed before hedging starts */
+    private int minSamples = 20;
+    /** Hedges allowed per call - 0.1 = at most ~10% extra load on App B */
+    private double budgetRatio = 0.1;
+    /** Hedges that may be saved up for a burst */
+    private int budgetBurst = 10;
+    /** Threads running hedged attempts (primary + hedge) */
+    private int maxThreads = 64;
+}
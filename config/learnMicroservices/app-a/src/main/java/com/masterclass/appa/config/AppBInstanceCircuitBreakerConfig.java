@@ -0,0 +1,71 @@
+package com.masterclass.appa.config;
+
+import com.masterclass.appa.resilience.CircuitBreakerAwareServiceInstanceListSupplier;
+import com.masterclass.appa.resilience.InstanceCircuitBreakerLifecycle;
+import com.masterclass.appa.resilience.InstanceCircuitBreakers;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * ============================================================
+ * PER-INSTANCE CIRCUIT BREAKERS IN THE LOAD BALANCER
+ * ============================================================
+ *
+ * Wires InstanceCircuitBreakers into Spring Cloud LoadBalancer for the
+ * "app-b" client (used by AppBClient AND ReactiveAppBClient):
+ *
+ *   Eureka → cache → [skip OPEN instances] → round robin → call
+ *                                                            ↓
+ *                  InstanceCircuitBreakerLifecycle ← outcome
+ *
+ * Per-instance breakers are configured by
+ * resilience4j.circuitbreaker.configs.appBInstance.
+ * Disable with app-b.instance-circuit-breakers.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app-b.instance-circuit-breakers", name = "enabled", matchIfMissing = true)
+@LoadBalancerClient(name = AppBInstanceCircuitBreakerConfig.SERVICE_ID,
+    configuration = AppBInstanceCircuitBreakerConfig.InstanceFilter.class)
+public class AppBInstanceCircuitBreakerConfig {
+
+    static final String SERVICE_ID = "app-b";
+    private static final String CIRCUIT_BREAKER_CONFIG = "appBInstance";
+
+    @Bean
+    public InstanceCircuitBreakers appBInstanceCircuitBreakers(CircuitBreakerRegistry circuitBreakerRegistry) {
+        return new InstanceCircuitBreakers(circuitBreakerRegistry, CIRCUIT_BREAKER_CONFIG);
+    }
+
+    /**
+     * Lifecycle beans of the main context apply to every load-balanced
+     * client - this one ignores everything but app-b.
+     */
+    @Bean
+    public InstanceCircuitBreakerLifecycle appBInstanceCircuitBreakerLifecycle(InstanceCircuitBreakers circuitBreakers) {
+        return new InstanceCircuitBreakerLifecycle(SERVICE_ID, circuitBreakers);
+    }
+
+    /**
+     * Load balancer configuration of the app-b client only - deliberately
+     * NOT a @Configuration, so component scanning doesn't apply it to every
+     * client.
+     */
+    static class InstanceFilter {
+
+        @Bean
+        public ServiceInstanceListSupplier circuitBreakerAwareServiceInstanceListSupplier(
+                ConfigurableApplicationContext context, InstanceCircuitBreakers circuitBreakers) {
+            return new CircuitBreakerAwareServiceInstanceListSupplier(
+                ServiceInstanceListSupplier.builder()
+                    .withBlockingDiscoveryClient()
+                    .withCaching()
+                    .build(context),
+                circuitBreakers);
+        }
+    }
+}
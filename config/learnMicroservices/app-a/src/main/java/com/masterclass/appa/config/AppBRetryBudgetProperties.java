@@ -0,0 +1,21 @@
+package com.masterclass.appa.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Retry budget for App B calls (app-b.retry-budget.*)
+ * See com.masterclass.appa.resilience.RetryBudget
+ */
+@Component
+@ConfigurationProperties(prefix = "app-b.retry-budget")
+@Data
+public class AppBRetryBudgetProperties {
+    /** true = budgeted retries, false = plain appBRetry (always up to maxAttempts) */
+    private boolean enabled = true;
+    /** Retry tokens earned per successful call - 0.1 = retries ≤ ~10% of successes */
+    private double ratio = 0.1;
+    /** Most retries that can be saved up */
+    private double maxTokens = 10;
+}
@@ -0,0 +1,45 @@
+package com.masterclass.appa.config;
+
+import com.masterclass.appa.clients.ReactiveAppBClient;
+import io.netty.channel.ChannelOption;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.support.WebClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+
+/**
+ * Reactive App B client: WebClient + Eureka load balancing.
+ * 
+ * - WebClient.Builder is Spring Boot's (already instrumented for tracing,
+ *   so App B sees the same traceId, like with Feign)
+ * - The load-balancer filter turns http://app-b into a real App B
+ *   instance picked from Eureka, per request
+ * - Same timeouts as the Feign client's defaults (connect 10s, read 60s):
+ *   without a response timeout a hung App B would hold a bulkhead permit
+ *   forever - there is no thread to interrupt
+ */
+@Configuration
+public class ReactiveAppBClientConfig {
+    
+    @Bean
+    public ReactiveAppBClient reactiveAppBClient(WebClient.Builder webClientBuilder,
+                                                 ReactorLoadBalancerExchangeFilterFunction loadBalancer) {
+        HttpClient httpClient = HttpClient.create()
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10_000)
+            .responseTimeout(Duration.ofSeconds(60));
+        WebClient webClient = webClientBuilder
+            .baseUrl("http://app-b")
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .filter(loadBalancer)
+            .build();
+        return HttpServiceProxyFactory.builderFor(WebClientAdapter.create(webClient))
+            .build()
+            .createClient(ReactiveAppBClient.class);
+    }
+}
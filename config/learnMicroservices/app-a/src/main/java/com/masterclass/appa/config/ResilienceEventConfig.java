@@ -1,15 +1,28 @@
 package com.masterclass.appa.config;
 
+import com.masterclass.appa.resilience.ResilienceEventAggregator;
+import com.masterclass.appa.resilience.ResilienceEventAggregator.Kind;
+import com.masterclass.tracing.TailSamplingSpanHandler;
+import io.github.resilience4j.bulkhead.Bulkhead;
 import io.github.resilience4j.bulkhead.BulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.Registry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
 import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryRegistry;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.function.Consumer;
+
 /**
  * ============================================================
  * PHASE 4: RESILIENCE EVENT MONITORING CONFIGURATION
@@ -39,11 +52,18 @@ import org.springframework.context.annotation.Configuration;
  * <p>
  * This is OBSERVABILITY - the ability to understand system behavior!
  * <p>
- * LOG LEVELS:
- * -----------
- * - INFO: Normal events (circuit created, state transitions)
- * - WARN: Concerning events (failures, rejections, retries)
- * - ERROR: Critical events (circuit opened, all retries failed)
+ * WHAT IS LOGGED WHERE:
+ * ---------------------
+ * - State transitions: logged IMMEDIATELY, one line each
+ *   (ERROR opened, WARN half-open, INFO closed) - rare, and each one matters
+ * - Everything else (errors, retries, rejections, rate-limited calls):
+ *   NOT logged by the failing call. The listener only publishes a code
+ *   into ResilienceEventAggregator's ring buffer; a background thread logs
+ *   ONE summary line per second and updates resilience.events metrics.
+ *   During an incident: 1 line/s instead of one multi-line WARN per call.
+ *
+ * Instances created later (appB.* partitions, appB@host:port instance
+ * breakers) get their listeners when they are added to the registry.
  */
 @Configuration
 public class ResilienceEventConfig {
@@ -54,16 +74,25 @@ public class ResilienceEventConfig {
     private final RetryRegistry retryRegistry;
     private final BulkheadRegistry bulkheadRegistry;
     private final RateLimiterRegistry rateLimiterRegistry;
+    private final ResilienceEventAggregator events;
+    private final TailSamplingSpanHandler tailSampling;
+
+    // Instances that already have listeners (identity - a re-added instance is a new object)
+    private final Set<Object> registered = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
 
     public ResilienceEventConfig(
             CircuitBreakerRegistry circuitBreakerRegistry,
             RetryRegistry retryRegistry,
             BulkheadRegistry bulkheadRegistry,
-            RateLimiterRegistry rateLimiterRegistry) {
+            RateLimiterRegistry rateLimiterRegistry,
+            ResilienceEventAggregator events,
+            ObjectProvider<TailSamplingSpanHandler> tailSampling) {
         this.circuitBreakerRegistry = circuitBreakerRegistry;
         this.retryRegistry = retryRegistry;
         this.bulkheadRegistry = bulkheadRegistry;
         this.rateLimiterRegistry = rateLimiterRegistry;
+        this.events = events;
+        this.tailSampling = tailSampling.getIfAvailable();
     }
 
     /**
@@ -77,112 +106,96 @@ public class ResilienceEventConfig {
         logger.info("PHASE 4: Registering Resilience Event Listeners");
         logger.info("============================================================");
 
-        registerCircuitBreakerEvents();
-        registerRetryEvents();
-        registerBulkheadEvents();
-        registerRateLimiterEvents();
+        registerAll(circuitBreakerRegistry, circuitBreakerRegistry.getAllCircuitBreakers(), this::registerCircuitBreakerEvents);
+        registerAll(retryRegistry, retryRegistry.getAllRetries(), this::registerRetryEvents);
+        registerAll(bulkheadRegistry, bulkheadRegistry.getAllBulkheads(), this::registerBulkheadEvents);
+        registerAll(rateLimiterRegistry, rateLimiterRegistry.getAllRateLimiters(), this::registerRateLimiterEvents);
 
         logger.info("============================================================");
         logger.info("PHASE 4: All Resilience Event Listeners Registered ✅");
         logger.info("============================================================");
     }
 
+    /**
+     * Existing instances now, later ones as they are added - or replaced
+     * (StripedCircuitBreakerRegistry swaps in its own circuit breakers).
+     */
+    private <E> void registerAll(Registry<E, ?> registry, Iterable<E> existing, Consumer<E> listeners) {
+        Consumer<E> once = entry -> {
+            if (registered.add(entry)) {
+                listeners.accept(entry);
+            }
+        };
+        registry.getEventPublisher()
+                .onEntryAdded(event -> once.accept(event.getAddedEntry()))
+                .onEntryRemoved(event -> registered.remove(event.getRemovedEntry()))
+                .onEntryReplaced(event -> {
+                    registered.remove(event.getOldEntry());
+                    once.accept(event.getNewEntry());
+                });
+        existing.forEach(once);
+    }
+
     /**
      * ============================================================
      * CIRCUIT BREAKER EVENTS
      * ============================================================
      * <p>
      * Events to monitor:
-     * - STATE TRANSITIONS: CLOSED → OPEN → HALF_OPEN → CLOSED
-     * - SUCCESS/ERROR: Each call recorded
-     * - SLOW CALLS: Calls exceeding threshold
-     * - IGNORED ERRORS: Errors that don't count toward failure rate
+     * - STATE TRANSITIONS: CLOSED → OPEN → HALF_OPEN → CLOSED (logged now)
+     * - ERRORS, NOT PERMITTED: Each call recorded (aggregated)
+     *   (NOT PERMITTED also keeps the refused request's trace - tail sampling)
+     * - FAILURE/SLOW CALL RATE EXCEEDED: About to open (aggregated)
      */
-    private void registerCircuitBreakerEvents() {
-        circuitBreakerRegistry.getAllCircuitBreakers().forEach(circuitBreaker -> {
-            String name = circuitBreaker.getName();
+    private void registerCircuitBreakerEvents(CircuitBreaker circuitBreaker) {
+        String name = circuitBreaker.getName();
+        int source = events.source("circuitbreaker", name);
 
-            logger.info("Registering event listeners for Circuit Breaker: {}", name);
+        logger.info("Registering event listeners for Circuit Breaker: {}", name);
 
-            circuitBreaker.getEventPublisher()
-                    // STATE TRANSITIONS - Most important events!
-                    .onStateTransition(event -> {
-                        CircuitBreaker.StateTransition transition = event.getStateTransition();
+        circuitBreaker.getEventPublisher()
+                // STATE TRANSITIONS - Most important events!
+                .onStateTransition(event -> {
+                    CircuitBreaker.StateTransition transition = event.getStateTransition();
 
-                        if (transition.getToState() == CircuitBreaker.State.OPEN) {
-                            // CRITICAL: Circuit opened - service is considered DOWN
-                            logger.error(
-                                    "🔴 CIRCUIT BREAKER [{}] OPENED! Transition: {} → {}\n" +
-                                            "   Reason: Too many failures detected\n" +
-                                            "   Action: Requests will fail fast until recovery\n" +
-                                            "   Metrics: Failure Rate: {}%, Slow Call Rate: {}%",
-                                    name,
-                                    transition.getFromState(),
-                                    transition.getToState(),
-                                    circuitBreaker.getMetrics().getFailureRate(),
-                                    circuitBreaker.getMetrics().getSlowCallRate()
-                            );
-                        } else if (transition.getToState() == CircuitBreaker.State.HALF_OPEN) {
-                            // Testing recovery
-                            logger.warn(
-                                    "🟡 CIRCUIT BREAKER [{}] HALF_OPEN: {} → {}\n" +
-                                            "   Status: Testing if service has recovered\n" +
-                                            "   Action: Allowing limited test requests",
-                                    name,
-                                    transition.getFromState(),
-                                    transition.getToState()
-                            );
-                        } else if (transition.getToState() == CircuitBreaker.State.CLOSED) {
-                            // Recovered!
-                            logger.info(
-                                    "🟢 CIRCUIT BREAKER [{}] CLOSED: {} → {}\n" +
-                                            "   Status: Service recovered, normal operation resumed\n" +
-                                            "   Action: All requests will be sent normally",
-                                    name,
-                                    transition.getFromState(),
-                                    transition.getToState()
-                            );
-                        }
-                    })
-                    // ERRORS - Track each failure
-                    .onError(event -> {
-                        logger.warn(
-                                "⚠️ CIRCUIT BREAKER [{}] ERROR recorded\n" +
-                                        "   Exception: {}\n" +
-                                        "   Duration: {}ms\n" +
-                                        "   Current Failure Rate: {}%",
-                                name,
-                                event.getThrowable().getClass().getSimpleName(),
-                                event.getElapsedDuration().toMillis(),
-                                circuitBreaker.getMetrics().getFailureRate()
-                        );
-                    })
-                    // SUCCESS - Track each success
-                    .onSuccess(event -> {
-                        logger.debug(
-                                "✅ CIRCUIT BREAKER [{}] SUCCESS: Duration: {}ms",
+                    if (transition.getToState() == CircuitBreaker.State.OPEN) {
+                        // CRITICAL: Circuit opened - service is considered DOWN
+                        logger.error(
+                                "🔴 CIRCUIT BREAKER [{}] OPENED! Transition: {} → {} (failure rate {}%, slow call rate {}%) - requests fail fast until recovery",
                                 name,
-                                event.getElapsedDuration().toMillis()
+                                transition.getFromState(),
+                                transition.getToState(),
+                                circuitBreaker.getMetrics().getFailureRate(),
+                                circuitBreaker.getMetrics().getSlowCallRate()
                         );
-                    })
-                    // SLOW CALLS - Track performance issues
-                    .onSlowCallRateExceeded(event -> {
+                    } else if (transition.getToState() == CircuitBreaker.State.HALF_OPEN) {
+                        // Testing recovery
                         logger.warn(
-                                "🐢 CIRCUIT BREAKER [{}] SLOW CALL RATE EXCEEDED: {}%",
+                                "🟡 CIRCUIT BREAKER [{}] HALF_OPEN: {} → {} - allowing limited test requests",
                                 name,
-                                event.getSlowCallRate()
+                                transition.getFromState(),
+                                transition.getToState()
                         );
-                    })
-                    // FAILURE RATE EXCEEDED - About to open!
-                    .onFailureRateExceeded(event -> {
-                        logger.error(
-                                "🚨 CIRCUIT BREAKER [{}] FAILURE RATE EXCEEDED: {}%\n" +
-                                        "   Circuit will open if this continues!",
+                    } else if (transition.getToState() == CircuitBreaker.State.CLOSED) {
+                        // Recovered!
+                        logger.info(
+                                "🟢 CIRCUIT BREAKER [{}] CLOSED: {} → {} - service recovered, normal operation resumed",
                                 name,
-                                event.getFailureRate()
+                                transition.getFromState(),
+                                transition.getToState()
                         );
-                    });
-        });
+                    }
+                })
+                .onError(event -> events.publish(source, Kind.ERROR))
+                .onCallNotPermitted(event -> {
+                    events.publish(source, Kind.NOT_PERMITTED);
+                    // Runs on the refused caller's thread - keep that request's trace
+                    if (tailSampling != null) {
+                        tailSampling.keepCurrentTrace("circuit-open");
+                    }
+                })
+                .onSlowCallRateExceeded(event -> events.publish(source, Kind.SLOW_CALL_RATE_EXCEEDED))
+                .onFailureRateExceeded(event -> events.publish(source, Kind.FAILURE_RATE_EXCEEDED));
     }
 
     /**
@@ -190,61 +203,21 @@ public class ResilienceEventConfig {
      * RETRY EVENTS
      * ============================================================
      * <p>
-     * Events to monitor:
+     * Events to monitor (all aggregated):
      * - RETRY: Each retry attempt
-     * - SUCCESS: Retry succeeded
-     * - ERROR: All retries exhausted
-     * - IGNORED ERROR: Error that shouldn't be retried
+     * - RECOVERED: Retry succeeded after at least one retry
+     * - EXHAUSTED: All retries failed
      */
-    private void registerRetryEvents() {
-        retryRegistry.getAllRetries().forEach(retry -> {
-            String name = retry.getName();
+    private void registerRetryEvents(Retry retry) {
+        String name = retry.getName();
+        int source = events.source("retry", name);
 
-            logger.info("Registering event listeners for Retry: {}", name);
+        logger.info("Registering event listeners for Retry: {}", name);
 
-            retry.getEventPublisher()
-                    // RETRY ATTEMPT
-                    .onRetry(event -> {
-                        logger.warn(
-                                "🔄 RETRY [{}] Attempt {} of {}\n" +
-                                        "   Exception: {}\n" +
-                                        "   Wait before next: Will use exponential backoff",
-                                name,
-                                event.getNumberOfRetryAttempts(),
-                                retry.getRetryConfig().getMaxAttempts(),
-                                event.getLastThrowable().getClass().getSimpleName()
-                        );
-                    })
-                    // RETRY SUCCESS
-                    .onSuccess(event -> {
-                        if (event.getNumberOfRetryAttempts() > 0) {
-                            logger.info(
-                                    "✅ RETRY [{}] SUCCEEDED after {} attempts",
-                                    name,
-                                    event.getNumberOfRetryAttempts()
-                            );
-                        }
-                    })
-                    // ALL RETRIES FAILED
-                    .onError(event -> {
-                        logger.error(
-                                "❌ RETRY [{}] EXHAUSTED after {} attempts\n" +
-                                        "   Final Exception: {}\n" +
-                                        "   Action: Fallback will be used",
-                                name,
-                                event.getNumberOfRetryAttempts(),
-                                event.getLastThrowable().getClass().getSimpleName()
-                        );
-                    })
-                    // IGNORED ERROR
-                    .onIgnoredError(event -> {
-                        logger.debug(
-                                "⏭️ RETRY [{}] IGNORED: {} (not retryable)",
-                                name,
-                                event.getLastThrowable().getClass().getSimpleName()
-                        );
-                    });
-        });
+        retry.getEventPublisher()
+                .onRetry(event -> events.publish(source, Kind.RETRY))
+                .onSuccess(event -> events.publish(source, Kind.RECOVERED))
+                .onError(event -> events.publish(source, Kind.EXHAUSTED));
     }
 
     /**
@@ -252,46 +225,18 @@ public class ResilienceEventConfig {
      * BULKHEAD EVENTS
      * ============================================================
      * <p>
-     * Events to monitor:
-     * - CALL PERMITTED: Request allowed through
+     * Events to monitor (aggregated):
      * - CALL REJECTED: Pool full, request rejected
-     * - CALL FINISHED: Request completed
+     * Permitted/finished calls: see resilience4j.bulkhead.* metrics
      */
-    private void registerBulkheadEvents() {
-        bulkheadRegistry.getAllBulkheads().forEach(bulkhead -> {
-            String name = bulkhead.getName();
+    private void registerBulkheadEvents(Bulkhead bulkhead) {
+        String name = bulkhead.getName();
+        int source = events.source("bulkhead", name);
 
-            logger.info("Registering event listeners for Bulkhead: {}", name);
+        logger.info("Registering event listeners for Bulkhead: {}", name);
 
-            bulkhead.getEventPublisher()
-                    // REJECTED - Pool full!
-                    .onCallRejected(event -> {
-                        logger.warn(
-                                "🚫 BULKHEAD [{}] REJECTED request\n" +
-                                        "   Reason: Maximum concurrent calls reached\n" +
-                                        "   Available permits: {}\n" +
-                                        "   Action: Fallback will be used",
-                                name,
-                                bulkhead.getMetrics().getAvailableConcurrentCalls()
-                        );
-                    })
-                    // PERMITTED - Request allowed
-                    .onCallPermitted(event -> {
-                        logger.debug(
-                                "✅ BULKHEAD [{}] PERMITTED: Available permits: {}",
-                                name,
-                                bulkhead.getMetrics().getAvailableConcurrentCalls()
-                        );
-                    })
-                    // FINISHED - Request completed
-                    .onCallFinished(event -> {
-                        logger.debug(
-                                "✅ BULKHEAD [{}] FINISHED: Available permits now: {}",
-                                name,
-                                bulkhead.getMetrics().getAvailableConcurrentCalls()
-                        );
-                    });
-        });
+        bulkhead.getEventPublisher()
+                .onCallRejected(event -> events.publish(source, Kind.REJECTED));
     }
 
     /**
@@ -299,35 +244,16 @@ public class ResilienceEventConfig {
      * RATE LIMITER EVENTS
      * ============================================================
      * <p>
-     * Events to monitor:
-     * - SUCCESS: Request within rate limit
+     * Events to monitor (aggregated):
      * - FAILURE: Rate limit exceeded
      */
-    private void registerRateLimiterEvents() {
-        rateLimiterRegistry.getAllRateLimiters().forEach(rateLimiter -> {
-            String name = rateLimiter.getName();
+    private void registerRateLimiterEvents(RateLimiter rateLimiter) {
+        String name = rateLimiter.getName();
+        int source = events.source("ratelimiter", name);
 
-            logger.info("Registering event listeners for RateLimiter: {}", name);
+        logger.info("Registering event listeners for RateLimiter: {}", name);
 
-            rateLimiter.getEventPublisher()
-                    // RATE LIMIT EXCEEDED
-                    .onFailure(event -> {
-                        logger.warn(
-                                "🚦 RATE LIMITER [{}] EXCEEDED\n" +
-                                        "   Available permissions: {}\n" +
-                                        "   Action: Request rejected or delayed",
-                                name,
-                                rateLimiter.getMetrics().getAvailablePermissions()
-                        );
-                    })
-                    // SUCCESS
-                    .onSuccess(event -> {
-                        logger.debug(
-                                "✅ RATE LIMITER [{}] PERMITTED: Available: {}",
-                                name,
-                                rateLimiter.getMetrics().getAvailablePermissions()
-                        );
-                    });
-        });
+        rateLimiter.getEventPublisher()
+                .onFailure(event -> events.publish(source, Kind.REJECTED));
     }
 }
@@ -0,0 +1,21 @@
+package com.masterclass.appa.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Aggregated resilience event logging (resilience-events.*)
+ * See com.masterclass.appa.resilience.ResilienceEventAggregator
+ */
+@Component
+@ConfigurationProperties(prefix = "resilience-events")
+@Data
+public class ResilienceEventProperties {
+    /** Events waiting for the aggregator - beyond that they are dropped (rounded up to a power of two) */
+    private int bufferSize = 8192;
+    /** One summary line (and metric update) per interval, only when something happened */
+    private Duration summaryInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,155 @@
+package com.masterclass.appa.config;
+
+import com.masterclass.appa.resilience.ContextPropagatingExecutorService;
+import com.masterclass.appa.resilience.ContextPropagatingScheduledExecutorService;
+import com.masterclass.appa.resilience.RetryBudget;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.core.task.support.ExecutorServiceAdapter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ============================================================
+ * RESILIENCE PIPELINE INFRASTRUCTURE
+ * ============================================================
+ *
+ * The programmatic pipelines in AppBResilientService need:
+ * 
+ * resilienceScheduler - fires TimeLimiter timeouts, retry backoffs and
+ *                       rate-limiter waits for async calls. One shared daemon
+ *                       thread is enough - its tasks only complete futures or
+ *                       start the next attempt, they never run calls.
+ *                       Timers carry the MDC and trace span of whoever set
+ *                       them (ContextPropagatingScheduledExecutorService),
+ *                       so a delayed or retried call keeps its traceId.
+ * 
+ * appBCallExecutor    - runs the actual (blocking Feign) App B calls of the
+ *                       async operations - NOT the common ForkJoinPool, which
+ *                       is sized for CPU work and shared by the whole JVM.
+ *                       Bounded (app-b.executor.*: 32 threads, 256 queued
+ *                       calls by default); beyond that the rejection-policy
+ *                       decides: ABORT fails the call (handled by the
+ *                       pipeline like any other failure), CALLER_RUNS runs it
+ *                       on the caller's thread.
+ *                       Tasks carry the caller's MDC and trace span
+ *                       (ContextPropagatingExecutorService).
+ * 
+ * appBRetryBudget     - the retry budget (app-b.retry-budget.*) shared by
+ *                       EVERY App B call - blocking, async and reactive alike.
+ *                       No bean when app-b.retry-budget.enabled=false.
+ * 
+ * METRICS (appBCallExecutor, tag name=appb-call):
+ * -----------------------------------------------
+ * executor.queued              calls waiting in the queue (queue depth)
+ * executor.queue.remaining     free queue slots
+ * executor.active              threads running a call
+ * executor.idle                time a call waited in the queue
+ * executor                     time a call ran
+ * appb.executor.rejected       calls hitting the rejection policy
+ * 
+ * VIRTUAL-THREAD MODE (profile "virtual-threads", Java 21+):
+ * ----------------------------------------------------------
+ * A blocked virtual thread costs a few KB of heap instead of a 1MB
+ * platform stack, so appBCallExecutor becomes one new virtual thread per
+ * call - no pool, no queue. The limit on concurrent App B calls is then
+ * ONLY the appBBulkhead semaphore (raised in application-virtual-threads.yml).
+ * On Java 17 the property is ignored and the bounded pool is used.
+ */
+@Configuration
+public class ResiliencePipelineConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService resilienceScheduler(ObjectProvider<Tracer> tracer) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "resilience-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new ContextPropagatingScheduledExecutorService(scheduler, tracer.getIfAvailable(() -> Tracer.NOOP));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app-b.retry-budget", name = "enabled", matchIfMissing = true)
+    public RetryBudget appBRetryBudget(RetryRegistry retryRegistry,
+                                       AppBRetryBudgetProperties properties,
+                                       MeterRegistry meterRegistry) {
+        return new RetryBudget(
+            retryRegistry.retry("appBRetry"),
+            properties.getRatio(), properties.getMaxTokens(), meterRegistry);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ExecutorService appBCallExecutor(AppBExecutorProperties properties,
+                                            MeterRegistry meterRegistry,
+                                            ObjectProvider<Tracer> tracer) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            properties.getCoreThreads(), Math.max(properties.getCoreThreads(), properties.getMaxThreads()),
+            properties.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS,
+            queue(properties.getQueueCapacity()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "appb-call-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            rejectionHandler(properties, meterRegistry));
+        return instrument(executor, meterRegistry, tracer);
+    }
+
+    /**
+     * Virtual threads need no shutdown - nothing is pooled.
+     */
+    @Bean(name = "appBCallExecutor", destroyMethod = "")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public ExecutorService virtualAppBCallExecutor(MeterRegistry meterRegistry, ObjectProvider<Tracer> tracer) {
+        return instrument(new ExecutorServiceAdapter(new VirtualThreadTaskExecutor("appb-call-")),
+            meterRegistry, tracer);
+    }
+
+    private static ExecutorService instrument(ExecutorService executor, MeterRegistry meterRegistry,
+                                              ObjectProvider<Tracer> tracer) {
+        ExecutorService timed = ExecutorServiceMetrics.monitor(meterRegistry, executor, "appb-call");
+        return new ContextPropagatingExecutorService(timed, tracer.getIfAvailable(() -> Tracer.NOOP));
+    }
+
+    private static BlockingQueue<Runnable> queue(int capacity) {
+        return capacity > 0 ? new ArrayBlockingQueue<>(capacity) : new SynchronousQueue<>();
+    }
+
+    private static RejectedExecutionHandler rejectionHandler(AppBExecutorProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder("appb.executor.rejected")
+            .description("App B calls that found appBCallExecutor's threads and queue full")
+            .tag("policy", properties.getRejectionPolicy().name())
+            .register(meterRegistry);
+        RejectedExecutionHandler policy = switch (properties.getRejectionPolicy()) {
+            case ABORT -> new ThreadPoolExecutor.AbortPolicy();
+            case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+        };
+        return (runnable, executor) -> {
+            rejected.increment();
+            policy.rejectedExecution(runnable, executor);
+        };
+    }
+}
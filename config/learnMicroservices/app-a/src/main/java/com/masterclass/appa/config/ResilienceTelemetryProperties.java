@@ -0,0 +1,19 @@
+package com.masterclass.appa.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Live resilience telemetry stream (resilience-telemetry.*)
+ * See com.masterclass.appa.resilience.ResilienceTelemetry
+ */
+@Component
+@ConfigurationProperties(prefix = "resilience-telemetry")
+@Data
+public class ResilienceTelemetryProperties {
+    /** One snapshot per interval, shared by every subscriber */
+    private Duration interval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,51 @@
+package com.masterclass.appa.config;
+
+import com.masterclass.appa.resilience.StripedCircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * ============================================================
+ * LOCK-FREE CIRCUIT BREAKERS IN THE REGISTRY
+ * ============================================================
+ *
+ * The CircuitBreakerRegistry stays resilience4j's (auto-configured from
+ * resilience4j.circuitbreaker.*) - it is only wrapped on its way out of
+ * the bean factory:
+ *
+ *   resilience4j registry → StripedCircuitBreakerRegistry → every injection point
+ *                           (ResilienceController, AppBPartitions,
+ *                            InstanceCircuitBreakers, telemetry, events ...)
+ *
+ * Same configs, same names, same events and metrics - only the listed
+ * instances (striped-circuit-breaker.instances) count their calls lock-free.
+ * Opt-in with striped-circuit-breaker.enabled=true - it changes a
+ * COUNT_BASED window (last N calls) into a time window.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "striped-circuit-breaker", name = "enabled", havingValue = "true")
+public class StripedCircuitBreakerConfig {
+
+    /**
+     * Static: post-processors are created before the other beans. The
+     * properties are looked up lazily - when the registry shows up, they
+     * are bound.
+     */
+    @Bean
+    public static BeanPostProcessor stripedCircuitBreakerRegistryPostProcessor(
+            ObjectProvider<StripedCircuitBreakerProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CircuitBreakerRegistry registry && !(bean instanceof StripedCircuitBreakerRegistry)) {
+                    return new StripedCircuitBreakerRegistry(registry, properties.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.masterclass.appa.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lock-free circuit breakers (striped-circuit-breaker.*)
+ * See com.masterclass.appa.resilience.StripedCircuitBreaker
+ */
+@Component
+@ConfigurationProperties(prefix = "striped-circuit-breaker")
+@Data
+public class StripedCircuitBreakerProperties {
+    /** true = the listed circuit breakers are StripedCircuitBreakers */
+    private boolean enabled = false;
+    /** Circuit breaker names - "appB.*" = every name starting with "appB." */
+    private List<String> instances = new ArrayList<>(List.of("appBCircuitBreaker", "appB.*"));
+    /** Sliding window of a COUNT_BASED config (TIME_BASED ones keep their slidingWindowSize seconds) */
+    private Duration window = Duration.ofSeconds(10);
+    /** Epochs the window is split into - the window slides one epoch at a time */
+    private int buckets = 10;
+}
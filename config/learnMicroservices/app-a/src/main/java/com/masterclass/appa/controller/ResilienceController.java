@@ -1,15 +1,25 @@
 package com.masterclass.appa.controller;
 
+import com.masterclass.appa.resilience.AppBPartitions;
+import com.masterclass.appa.resilience.ResilienceTelemetry;
 import com.masterclass.appa.service.AppBResilientService;
+import com.masterclass.appa.service.ReactiveAppBService;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -30,24 +40,43 @@ import java.util.concurrent.CompletableFuture;
  * GET  /api/resilience/app-b/status     - Call App B with resilience
  * GET  /api/resilience/app-b/product/{id} - Get product with resilience
  * GET  /api/resilience/app-b/greeting/{name} - Get greeting with resilience
+ * GET  /api/resilience/app-b/products?ids=1,2,3  - Many products (micro-batched)
+ * GET  /api/resilience/app-b/product/{id}/async     - Same, non-blocking
+ * GET  /api/resilience/app-b/greeting/{name}/async  - Same, non-blocking
+ * GET  /api/resilience/app-b/status/cb/test/async   - CB test, non-blocking
+ * GET  /api/resilience/app-b/status/reactive         - Reactive (WebClient) twins
+ * GET  /api/resilience/app-b/product/{id}/reactive
+ * GET  /api/resilience/app-b/greeting/{name}/reactive
+ * GET  /api/resilience/app-b/status/cb/test/reactive
  * GET  /api/resilience/circuit-breaker/status - View circuit breaker state
+ *                                              (+ per-operation partitions)
  * POST /api/resilience/circuit-breaker/reset  - Reset circuit breaker
+ * GET  /api/resilience/telemetry/stream        - Live state of ALL resilience
+ *                                                instances (server-sent events)
  * 
  * TESTING GUIDE:
  * --------------
+ * /app-b/status has its fallback INSIDE the circuit breaker
+ * (Retry ( CB ( RateLimiter ( Fallback ( Bulkhead ( call ) ) ) ) )): it
+ * answers 200 with degraded data, and appB.status sees a success - it
+ * never opens that way. Watch the breaker open on the test endpoint, which
+ * has no fallback:
+ *
  * 1. Start App A and App B normally
- * 2. Call /api/resilience/app-b/status → Should succeed
+ * 2. Call /api/resilience/app-b/status/cb/test → Should succeed
  * 3. Stop App B (kill the process)
- * 4. Call /api/resilience/app-b/status multiple times
- *    → First few: Retries, then fallback
- *    → After ~5 failures: Circuit opens
+ * 4. Call /api/resilience/app-b/status/cb/test multiple times
+ *    → First few: Retries, then the error
+ *    → After ~5 failures: Circuit opens (CallNotPermittedException)
+ *    → /api/resilience/app-b/status meanwhile: 200 OK, fallback
  * 5. Call /api/resilience/circuit-breaker/status
- *    → Should show state: OPEN
+ *    → appBCircuitBreaker should show state: OPEN
+ *      (the appB.* partitions stay CLOSED - their fallbacks succeed)
  * 6. Wait 30 seconds (waitDurationInOpenState)
- * 7. Call /api/resilience/app-b/status
+ * 7. Call /api/resilience/app-b/status/cb/test
  *    → Circuit is HALF_OPEN, tests recovery
  * 8. Start App B again
- * 9. Call /api/resilience/app-b/status
+ * 9. Call /api/resilience/app-b/status/cb/test
  *    → Should succeed, circuit closes
  */
 @RestController
@@ -57,13 +86,22 @@ public class ResilienceController {
     private static final Logger logger = LoggerFactory.getLogger(ResilienceController.class);
     
     private final AppBResilientService appBResilientService;
+    private final ReactiveAppBService reactiveAppBService;
     private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final AppBPartitions partitions;
+    private final ResilienceTelemetry telemetry;
     
     public ResilienceController(
             AppBResilientService appBResilientService,
-            CircuitBreakerRegistry circuitBreakerRegistry) {
+            ReactiveAppBService reactiveAppBService,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            AppBPartitions partitions,
+            ResilienceTelemetry telemetry) {
         this.appBResilientService = appBResilientService;
+        this.reactiveAppBService = reactiveAppBService;
         this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.partitions = partitions;
+        this.telemetry = telemetry;
     }
     
     /**
@@ -81,8 +119,7 @@ public class ResilienceController {
     @GetMapping("/app-b/status")
     public ResponseEntity<Map<String, Object>> getAppBStatus() {
         String traceId = MDC.get("traceId");
-        logger.info("[TRACE: {}] Resilient call to App B status", 
-            traceId != null ? traceId : "NO_TRACE");
+        logger.info("Resilient call to App B status");
         
         long startTime = System.currentTimeMillis();
         
@@ -92,7 +129,7 @@ public class ResilienceController {
         long duration = System.currentTimeMillis() - startTime;
         
         // Get current circuit breaker state
-        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("appBCircuitBreaker");
+        CircuitBreaker circuitBreaker = breaker(AppBPartitions.STATUS);
         
         Map<String, Object> result = new HashMap<>();
         result.put("response", response);
@@ -112,15 +149,13 @@ public class ResilienceController {
      */
     @GetMapping("/app-b/product/{id}")
     public ResponseEntity<Map<String, Object>> getProduct(@PathVariable String id) {
-        String traceId = MDC.get("traceId");
-        logger.info("[TRACE: {}] Resilient call to App B product: {}", 
-            traceId != null ? traceId : "NO_TRACE", id);
+        logger.info("Resilient call to App B product: {}", id);
         
         long startTime = System.currentTimeMillis();
         String response = appBResilientService.getProduct(id);
         long duration = System.currentTimeMillis() - startTime;
         
-        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("appBCircuitBreaker");
+        CircuitBreaker circuitBreaker = breaker(AppBPartitions.PRODUCT);
         
         Map<String, Object> result = new HashMap<>();
         result.put("productId", id);
@@ -138,15 +173,13 @@ public class ResilienceController {
      */
     @GetMapping("/app-b/greeting/{name}")
     public ResponseEntity<Map<String, Object>> getGreeting(@PathVariable String name) {
-        String traceId = MDC.get("traceId");
-        logger.info("[TRACE: {}] Resilient call to App B greeting: {}", 
-            traceId != null ? traceId : "NO_TRACE", name);
+        logger.info("Resilient call to App B greeting: {}", name);
         
         long startTime = System.currentTimeMillis();
         String response = appBResilientService.getGreeting(name);
         long duration = System.currentTimeMillis() - startTime;
         
-        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("appBCircuitBreaker");
+        CircuitBreaker circuitBreaker = breaker(AppBPartitions.GREETING);
         
         Map<String, Object> result = new HashMap<>();
         result.put("name", name);
@@ -157,6 +190,39 @@ public class ResilienceController {
         return ResponseEntity.ok(result);
     }
     
+    /**
+     * ============================================================
+     * ENDPOINT: Get Many Products (a list page)
+     * ============================================================
+     * 
+     * Asks for every product at once, the way a list page does. With
+     * app-b.batching.enabled they all land in the same batch window, so
+     * App B sees ONE GET /products?ids=... instead of one call per product
+     * (metric appb.batch.size).
+     */
+    @GetMapping("/app-b/products")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getProducts(@RequestParam List<String> ids) {
+        logger.info("Resilient call to App B for {} products", ids.size());
+        
+        long startTime = System.currentTimeMillis();
+        Map<String, CompletableFuture<String>> calls = new LinkedHashMap<>();
+        ids.forEach(id -> calls.computeIfAbsent(id, appBResilientService::getProductAsync));
+        
+        return CompletableFuture.allOf(calls.values().toArray(CompletableFuture[]::new))
+            .thenApply(done -> {
+                Map<String, Object> products = new LinkedHashMap<>();
+                calls.forEach((id, call) -> products.put(id, call.join()));
+                
+                Map<String, Object> result = new HashMap<>();
+                result.put("products", products);
+                result.put("count", products.size());
+                result.put("durationMs", System.currentTimeMillis() - startTime);
+                result.put("circuitBreakerState",
+                    breaker(AppBPartitions.PRODUCT).getState().name());
+                return ResponseEntity.ok(result);
+            });
+    }
+    
     /**
      * ============================================================
      * ENDPOINT: Get App B Status (async with timeout)
@@ -167,9 +233,7 @@ public class ResilienceController {
      */
     @GetMapping("/app-b/status/async")
     public CompletableFuture<ResponseEntity<Map<String, Object>>> getAppBStatusAsync() {
-        String traceId = MDC.get("traceId");
-        logger.info("[TRACE: {}] Async resilient call to App B status", 
-            traceId != null ? traceId : "NO_TRACE");
+        logger.info("Async resilient call to App B status");
         
         long startTime = System.currentTimeMillis();
         
@@ -177,7 +241,7 @@ public class ResilienceController {
             .thenApply(response -> {
                 long duration = System.currentTimeMillis() - startTime;
                 
-                CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("appBCircuitBreaker");
+                CircuitBreaker circuitBreaker = breaker(AppBPartitions.STATUS);
                 
                 Map<String, Object> result = new HashMap<>();
                 result.put("response", response);
@@ -246,26 +310,172 @@ public class ResilienceController {
     @GetMapping("/app-b/status/cb/test")
     public ResponseEntity<Map<String, Object>> circuitBreakerTest() {
         String traceId = MDC.get("traceId");
-        logger.info("[TRACE: {}] [CB_TEST] Circuit breaker test call (NO FALLBACK)", 
-            traceId != null ? traceId : "NO_TRACE");
+        logger.info("[CB_TEST] Circuit breaker test call (NO FALLBACK)");
+        
+        CircuitBreakerTestCall call = new CircuitBreakerTestCall(traceId);
+        try {
+            // Call WITHOUT fallback - failures will count!
+            String response = appBResilientService.getAppBStatusForCircuitBreakerTest();
+            return call.succeeded(response);
+        } catch (Exception e) {
+            return call.failed(e);
+        }
+    }
+    
+    /**
+     * ============================================================
+     * NON-BLOCKING ENDPOINTS (CompletableFuture results)
+     * ============================================================
+     * 
+     * Same as the endpoints above, but the Tomcat thread is released as soon
+     * as the call is started. Retry backoff (5s!) and rate-limiter waits are
+     * timers - no thread sleeps through them. Spring MVC writes the response
+     * when the future completes.
+     * 
+     * GET /api/resilience/app-b/product/{id}/async
+     * GET /api/resilience/app-b/greeting/{name}/async
+     * GET /api/resilience/app-b/status/cb/test/async
+     */
+    @GetMapping("/app-b/product/{id}/async")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getProductAsync(@PathVariable String id) {
+        logger.info("Async resilient call to App B product: {}", id);
         
         long startTime = System.currentTimeMillis();
-        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("appBCircuitBreaker");
+        return appBResilientService.getProductAsync(id)
+            .thenApply(response -> {
+                Map<String, Object> result = new HashMap<>();
+                result.put("productId", id);
+                result.put("response", response);
+                result.put("durationMs", System.currentTimeMillis() - startTime);
+                result.put("async", true);
+                result.put("circuitBreakerState",
+                    breaker(AppBPartitions.PRODUCT).getState().name());
+                return ResponseEntity.ok(result);
+            });
+    }
+    
+    @GetMapping("/app-b/greeting/{name}/async")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getGreetingAsync(@PathVariable String name) {
+        logger.info("Async resilient call to App B greeting: {}", name);
         
-        // Capture state BEFORE call
-        String stateBefore = circuitBreaker.getState().name();
-        float failureRateBefore = circuitBreaker.getMetrics().getFailureRate();
-        int failedCallsBefore = circuitBreaker.getMetrics().getNumberOfFailedCalls();
+        long startTime = System.currentTimeMillis();
+        return appBResilientService.getGreetingAsync(name)
+            .thenApply(response -> {
+                Map<String, Object> result = new HashMap<>();
+                result.put("name", name);
+                result.put("response", response);
+                result.put("durationMs", System.currentTimeMillis() - startTime);
+                result.put("async", true);
+                result.put("circuitBreakerState",
+                    breaker(AppBPartitions.GREETING).getState().name());
+                return ResponseEntity.ok(result);
+            });
+    }
+    
+    @GetMapping("/app-b/status/cb/test/async")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> circuitBreakerTestAsync() {
+        String traceId = MDC.get("traceId");
+        logger.info("[CB_TEST] Async circuit breaker test call (NO FALLBACK)");
         
-        Map<String, Object> result = new HashMap<>();
-        result.put("traceId", traceId);
-        result.put("stateBefore", stateBefore);
-        result.put("failureRateBefore", String.format("%.1f%%", failureRateBefore));
+        CircuitBreakerTestCall call = new CircuitBreakerTestCall(traceId);
+        return appBResilientService.getAppBStatusForCircuitBreakerTestAsync()
+            .handle((response, failure) -> {
+                if (failure == null) {
+                    return call.succeeded(response);
+                }
+                Throwable cause = failure instanceof java.util.concurrent.CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+                return call.failed(cause);
+            });
+    }
+    
+    /**
+     * ============================================================
+     * REACTIVE ENDPOINTS (ReactiveAppBClient / WebClient)
+     * ============================================================
+     * 
+     * The /async endpoints still run a blocking Feign call on a pool thread.
+     * These don't hold ANY thread while App B is working: the request goes
+     * out on a Netty event loop, Spring MVC writes the response when the
+     * Mono completes. Same resilience instances, same fallbacks.
+     * 
+     * GET /api/resilience/app-b/status/reactive
+     * GET /api/resilience/app-b/product/{id}/reactive
+     * GET /api/resilience/app-b/greeting/{name}/reactive
+     * GET /api/resilience/app-b/status/cb/test/reactive
+     */
+    @GetMapping("/app-b/status/reactive")
+    public Mono<ResponseEntity<Map<String, Object>>> getAppBStatusReactive() {
+        return reactiveResult(AppBPartitions.STATUS, null, null, reactiveAppBService.getAppBStatus());
+    }
+    
+    @GetMapping("/app-b/product/{id}/reactive")
+    public Mono<ResponseEntity<Map<String, Object>>> getProductReactive(@PathVariable String id) {
+        return reactiveResult(AppBPartitions.PRODUCT, "productId", id, reactiveAppBService.getProduct(id));
+    }
+    
+    @GetMapping("/app-b/greeting/{name}/reactive")
+    public Mono<ResponseEntity<Map<String, Object>>> getGreetingReactive(@PathVariable String name) {
+        return reactiveResult(AppBPartitions.GREETING, "name", name, reactiveAppBService.getGreeting(name));
+    }
+    
+    @GetMapping("/app-b/status/cb/test/reactive")
+    public Mono<ResponseEntity<Map<String, Object>>> circuitBreakerTestReactive() {
+        String traceId = MDC.get("traceId");
+        logger.info("[CB_TEST] Reactive circuit breaker test call (NO FALLBACK)");
+        
+        return Mono.defer(() -> {
+            CircuitBreakerTestCall call = new CircuitBreakerTestCall(traceId);
+            return reactiveAppBService.getAppBStatusForCircuitBreakerTest()
+                .map(call::succeeded)
+                .onErrorResume(e -> Mono.just(call.failed(e)));
+        });
+    }
+    
+    private Mono<ResponseEntity<Map<String, Object>>> reactiveResult(String operation,
+                                                                      String argumentName, String argument,
+                                                                      Mono<String> call) {
+        logger.info("Reactive resilient call to App B{}", argument != null ? ": " + argument : "");
         
-        try {
-            // Call WITHOUT fallback - failures will count!
-            String response = appBResilientService.getAppBStatusForCircuitBreakerTest();
+        long startTime = System.currentTimeMillis();
+        return call.map(response -> {
+            Map<String, Object> result = new HashMap<>();
+            if (argumentName != null) {
+                result.put(argumentName, argument);
+            }
+            result.put("response", response);
+            result.put("durationMs", System.currentTimeMillis() - startTime);
+            result.put("reactive", true);
+            result.put("circuitBreakerState",
+                breaker(operation).getState().name());
+            return ResponseEntity.ok(result);
+        });
+    }
+    
+    /**
+     * One circuit breaker test call: captures the state BEFORE the call and
+     * builds the response AFTER it (shared by the blocking and async endpoints).
+     */
+    private final class CircuitBreakerTestCall {
+        
+        private final CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("appBCircuitBreaker");
+        private final long startTime = System.currentTimeMillis();
+        private final String stateBefore;
+        private final int failedCallsBefore;
+        private final Map<String, Object> result = new HashMap<>();
+        
+        CircuitBreakerTestCall(String traceId) {
+            // Capture state BEFORE call
+            this.stateBefore = circuitBreaker.getState().name();
+            this.failedCallsBefore = circuitBreaker.getMetrics().getNumberOfFailedCalls();
+            float failureRateBefore = circuitBreaker.getMetrics().getFailureRate();
             
+            result.put("traceId", traceId);
+            result.put("stateBefore", stateBefore);
+            result.put("failureRateBefore", String.format("%.1f%%", failureRateBefore));
+        }
+        
+        ResponseEntity<Map<String, Object>> succeeded(String response) {
             long duration = System.currentTimeMillis() - startTime;
             
             // Success case
@@ -277,32 +487,32 @@ public class ResilienceController {
             result.put("message", "✅ Call succeeded! App B is healthy.");
             
             return ResponseEntity.ok(result);
-            
-        } catch (io.github.resilience4j.circuitbreaker.CallNotPermittedException e) {
-            // Circuit breaker is OPEN - rejecting calls immediately
+        }
+        
+        ResponseEntity<Map<String, Object>> failed(Throwable e) {
             long duration = System.currentTimeMillis() - startTime;
             
-            result.put("success", false);
-            result.put("error", "Circuit Breaker OPEN");
-            result.put("errorType", "CallNotPermittedException");
-            result.put("durationMs", duration);
-            result.put("stateAfter", "OPEN");
-            result.put("failureRateAfter", String.format("%.1f%%", circuitBreaker.getMetrics().getFailureRate()));
-            result.put("notPermittedCalls", circuitBreaker.getMetrics().getNumberOfNotPermittedCalls());
-            result.put("message", "⚡ Circuit breaker OPEN! Call rejected instantly. System protected from cascading failure.");
-            result.put("explanation", "Circuit opened because failure rate exceeded 50%. No actual call to App B made. Wait 30 seconds for HALF_OPEN state.");
-            
-            // Note: Duration should be <1ms since call is rejected immediately
-            if (duration < 10) {
-                result.put("performance", "⚡ INSTANT rejection - Circuit breaker working perfectly!");
+            if (e instanceof io.github.resilience4j.circuitbreaker.CallNotPermittedException) {
+                // Circuit breaker is OPEN - rejecting calls immediately
+                result.put("success", false);
+                result.put("error", "Circuit Breaker OPEN");
+                result.put("errorType", "CallNotPermittedException");
+                result.put("durationMs", duration);
+                result.put("stateAfter", "OPEN");
+                result.put("failureRateAfter", String.format("%.1f%%", circuitBreaker.getMetrics().getFailureRate()));
+                result.put("notPermittedCalls", circuitBreaker.getMetrics().getNumberOfNotPermittedCalls());
+                result.put("message", "⚡ Circuit breaker OPEN! Call rejected instantly. System protected from cascading failure.");
+                result.put("explanation", "Circuit opened because failure rate exceeded 50%. No actual call to App B made. Wait 30 seconds for HALF_OPEN state.");
+                
+                // Note: Duration should be <1ms since call is rejected immediately
+                if (duration < 10) {
+                    result.put("performance", "⚡ INSTANT rejection - Circuit breaker working perfectly!");
+                }
+                
+                return ResponseEntity.status(503).body(result);
             }
             
-            return ResponseEntity.status(503).body(result);
-            
-        } catch (Exception e) {
             // Actual failure (App B down, timeout, etc.)
-            long duration = System.currentTimeMillis() - startTime;
-            
             result.put("success", false);
             result.put("error", e.getClass().getSimpleName());
             result.put("errorMessage", e.getMessage());
@@ -344,6 +554,9 @@ public class ResilienceController {
      * - failedCalls: Number of failed calls
      * - slowCalls: Number of slow calls
      * - notPermittedCalls: Calls rejected because circuit is OPEN
+     * - partitions: the per-operation breakers and bulkheads
+     *   (appB.status, appB.product, appB.greeting) the calls go through,
+     *   plus the free permits of the shared parent bulkhead appBBulkhead
      */
     @GetMapping("/circuit-breaker/status")
     public ResponseEntity<Map<String, Object>> getCircuitBreakerStatus() {
@@ -389,15 +602,53 @@ public class ResilienceController {
         };
         status.put("stateExplanation", stateExplanation);
         
+        // Per-operation partitions
+        List<Map<String, Object>> partitionList = new ArrayList<>();
+        for (AppBPartitions.Partition partition : partitions.all()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", partition.circuitBreaker().getName());
+            entry.put("state", partition.circuitBreaker().getState().name());
+            entry.put("failureRate", partition.circuitBreaker().getMetrics().getFailureRate() + "%");
+            entry.put("notPermittedCalls", partition.circuitBreaker().getMetrics().getNumberOfNotPermittedCalls());
+            entry.put("bulkheadAvailable", partition.bulkhead().getMetrics().getAvailableConcurrentCalls());
+            entry.put("bulkheadMax", partition.bulkhead().getMetrics().getMaxAllowedConcurrentCalls());
+            partitionList.add(entry);
+        }
+        status.put("partitions", partitionList);
+        status.put("parentBulkheadAvailable", partitions.parentBulkhead().getMetrics().getAvailableConcurrentCalls());
+        
         return ResponseEntity.ok(status);
     }
     
+    /**
+     * ============================================================
+     * ENDPOINT: Live Resilience Telemetry (server-sent events)
+     * ============================================================
+     * 
+     * Instead of polling /circuit-breaker/status: keep ONE connection open
+     * and receive every circuit breaker, bulkhead, rate limiter and retry
+     * as it changes. First event "snapshot" (everything), then "delta"
+     * (changed fields only). Computed once per interval for all viewers -
+     * see ResilienceTelemetry.
+     * 
+     * TRY IT:
+     *   curl -N http://localhost:8084/api/resilience/telemetry/stream
+     * 
+     * In a browser: new EventSource("/api/resilience/telemetry/stream")
+     * (reconnects by itself and starts with a fresh snapshot).
+     */
+    @GetMapping(value = "/telemetry/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> telemetryStream() {
+        return telemetry.stream();
+    }
+    
     /**
      * ============================================================
      * ENDPOINT: Reset Circuit Breaker
      * ============================================================
      * 
-     * Manually reset the circuit breaker to CLOSED state.
+     * Manually reset the circuit breaker to CLOSED state - together with
+     * the per-operation breakers (appB.status, appB.product, appB.greeting).
      * 
      * USE CASES:
      * - Testing: Reset after testing failure scenarios
@@ -415,6 +666,7 @@ public class ResilienceController {
         
         // Reset to CLOSED state
         circuitBreaker.reset();
+        partitions.all().forEach(partition -> partition.circuitBreaker().reset());
         
         logger.info("Circuit Breaker [{}] manually reset: {} → CLOSED", 
             circuitBreaker.getName(), previousState);
@@ -480,4 +732,12 @@ public class ResilienceController {
             ));
         }
     }
+    
+    /**
+     * The circuit breaker of one App B operation - the one its calls
+     * actually go through.
+     */
+    private CircuitBreaker breaker(String operation) {
+        return partitions.partition(operation).circuitBreaker();
+    }
 }
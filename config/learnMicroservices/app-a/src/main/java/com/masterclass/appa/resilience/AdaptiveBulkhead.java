@@ -0,0 +1,252 @@
+package com.masterclass.appa.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ============================================================
+ * SELF-SIZING BULKHEAD (Little's law)
+ * ============================================================
+ *
+ * THE PROBLEM:
+ * ------------
+ * appBBulkhead's maxConcurrentCalls: 10 only fits one latency. App B at
+ * 20ms and 100 calls/s needs 2 concurrent calls; at 200ms the same 100
+ * calls/s need 20 - and if App B only got slower because it is queueing,
+ * 20 just makes the queue longer.
+ *
+ * LITTLE'S LAW:
+ * -------------
+ *   concurrency = throughput x latency              L = λ x W
+ *
+ * Every interval the bulkhead is measured - from its own permitted /
+ * finished events, so blocking, async and reactive callers all count:
+ *
+ *   λ      calls finished per second
+ *   W      mean time a call held its permit (time-integral of the
+ *          in-flight calls / calls finished)
+ *   W_min  lowest W of the last baseline-intervals - App B's latency
+ *          when it is NOT queueing
+ *
+ *   target = λ x W_min x headroom, within [min, max]
+ *
+ * Demand below capacity → λ is the demand, the limit follows it (with
+ * headroom for bursts). Bulkhead full, App B fast (W ≈ W_min) → target =
+ * limit x headroom, it grows. App B queueing (W >> W_min) → λ stops
+ * growing while W does → the target shrinks back to what App B serves.
+ *
+ * NO FLAPPING, NO DROPPED CALLS:
+ * ------------------------------
+ * - Hysteresis: resized only when the target is more than `hysteresis`
+ *   (e.g. 20%) away from the current limit; quiet intervals (fewer than
+ *   minimum-calls) change nothing.
+ * - Shrinking is a SOFT cap: the sizer takes permits that are FREE right
+ *   now and parks them (holds them like a call that never finishes).
+ *   In-flight calls keep theirs; the rest of the shrink happens on later
+ *   intervals as they return. Growing gives parked permits back first and
+ *   only then raises maxConcurrentCalls.
+ *
+ *   Why not changeConfig() to shrink? It takes the permits with
+ *   semaphore.acquireUninterruptibly(n) on a FAIR semaphore - if calls
+ *   grab them between our look and the change, the sizer waits for
+ *   in-flight calls, and every new caller's tryAcquire(maxWaitDuration)
+ *   queues behind it:
+ *
+ *     sizer      acquireUninterruptibly(3)  ... waiting for returns ...
+ *     caller 1   tryAcquire(500ms)          ... behind the sizer → rejected
+ *
+ *   Parking takes ONE permit at a time and only while one is free - if a
+ *   caller beats it to the last one, the sizer waits like any single
+ *   caller would, and stops. The sizer's own permitted events are left
+ *   out of the measurement.
+ *
+ *   effective limit = maxConcurrentCalls - parked
+ *
+ * METRICS:
+ * --------
+ * appb.bulkhead.limit                                                     effective limit
+ * resilience4j.bulkhead.max.allowed.concurrent.calls{name=appBBulkhead}   hard ceiling (incl. parked)
+ * appb.bulkhead.resizes{direction=increase|decrease}
+ */
+public class AdaptiveBulkhead {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveBulkhead.class);
+
+    private final Bulkhead bulkhead;
+    private final int minConcurrentCalls;
+    private final int maxConcurrentCalls;
+    private final double headroom;
+    private final double hysteresis;
+    private final int minimumCalls;
+
+    // Event timestamps relative to origin - the sums of one interval
+    private final long origin = System.nanoTime();
+    private final LongAdder permittedAt = new LongAdder();
+    private final LongAdder finishedAt = new LongAdder();
+    private final LongAdder finished = new LongAdder();
+
+    // Sizer thread only
+    private final long[] baseline;
+    private int baselineIndex;
+    private long lastTick = origin;
+    private int lastInFlight;
+
+    // Free permits the sizer holds to keep the limit below maxConcurrentCalls
+    private volatile int parked;
+    private volatile Thread sizerThread;
+
+    private final Counter increased;
+    private final Counter decreased;
+
+    private final ScheduledExecutorService sizer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "appb-bulkhead-sizer");
+        thread.setDaemon(true);
+        sizerThread = thread;
+        return thread;
+    });
+
+    public AdaptiveBulkhead(Bulkhead bulkhead, int minConcurrentCalls, int maxConcurrentCalls,
+                            double headroom, double hysteresis, int minimumCalls, int baselineIntervals,
+                            Duration interval, MeterRegistry meterRegistry) {
+        this.bulkhead = bulkhead;
+        this.minConcurrentCalls = Math.max(1, minConcurrentCalls);
+        this.maxConcurrentCalls = Math.max(this.minConcurrentCalls, maxConcurrentCalls);
+        this.headroom = headroom;
+        this.hysteresis = hysteresis;
+        this.minimumCalls = Math.max(1, minimumCalls);
+        this.baseline = new long[Math.max(1, baselineIntervals)];
+        Arrays.fill(baseline, Long.MAX_VALUE);
+
+        Gauge.builder("appb.bulkhead.limit", this, AdaptiveBulkhead::limit)
+            .description("Effective concurrent-call limit of appBBulkhead, set by the Little's-law sizer")
+            .register(meterRegistry);
+        this.increased = resizes(meterRegistry, "increase");
+        this.decreased = resizes(meterRegistry, "decrease");
+
+        bulkhead.getEventPublisher()
+            .onCallPermitted(event -> {
+                // Parked permits are not calls
+                if (Thread.currentThread() != sizerThread) {
+                    permittedAt.add(System.nanoTime() - origin);
+                }
+            })
+            .onCallFinished(event -> {
+                finishedAt.add(System.nanoTime() - origin);
+                finished.increment();
+            });
+        long millis = interval.toMillis();
+        sizer.scheduleAtFixedRate(this::resize, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        sizer.shutdownNow();
+    }
+
+    /** Concurrent calls appBBulkhead lets through right now */
+    public int limit() {
+        return bulkhead.getBulkheadConfig().getMaxConcurrentCalls() - parked;
+    }
+
+    private void resize() {
+        try {
+            measureAndResize();
+        } catch (RuntimeException ex) {
+            // A failing run would cancel the schedule - keep sizing
+            logger.warn("appBBulkhead sizing failed: {}", ex.toString());
+        }
+    }
+
+    private void measureAndResize() {
+        long now = System.nanoTime();
+        int inFlight = inFlight();
+        long calls = finished.sumThenReset();
+        // ∫ in-flight dt over the interval = Σ finish times - Σ permit times
+        //   + (calls still in flight) x now - (calls in flight last time) x lastTick
+        long busyNanos = finishedAt.sumThenReset() - permittedAt.sumThenReset()
+            + inFlight * (now - origin) - lastInFlight * (lastTick - origin);
+        long elapsedNanos = now - lastTick;
+        lastTick = now;
+        lastInFlight = inFlight;
+        if (calls < minimumCalls || busyNanos <= 0) {
+            return;
+        }
+
+        long latencyNanos = busyNanos / calls;
+        baseline[baselineIndex] = latencyNanos;
+        baselineIndex = (baselineIndex + 1) % baseline.length;
+        long baselineNanos = Arrays.stream(baseline).min().orElse(latencyNanos);
+
+        double throughput = calls * 1e9 / elapsedNanos;
+        int current = limit();
+        int target = clamp((int) Math.ceil(throughput * baselineNanos / 1e9 * headroom));
+        if (Math.abs(target - current) <= current * hysteresis) {
+            return;
+        }
+        int resized = target > current ? grow(target) : shrink(target);
+        if (resized == current) {
+            return;
+        }
+        (resized > current ? increased : decreased).increment();
+        logger.info("📐 appBBulkhead: {} → {} concurrent calls ({} calls/s x {}ms baseline latency x {}, now {}ms)",
+            current, resized, Math.round(throughput), baselineNanos / 1_000_000, headroom, latencyNanos / 1_000_000);
+    }
+
+    /**
+     * Parked permits back first, then a higher maxConcurrentCalls
+     * (changeConfig only releases when growing - never waits).
+     */
+    private int grow(int target) {
+        while (parked > 0 && limit() < target) {
+            bulkhead.releasePermission();
+            parked--;
+        }
+        int missing = target - limit();
+        if (missing > 0) {
+            bulkhead.changeConfig(BulkheadConfig.from(bulkhead.getBulkheadConfig())
+                .maxConcurrentCalls(bulkhead.getBulkheadConfig().getMaxConcurrentCalls() + missing)
+                .build());
+        }
+        return limit();
+    }
+
+    /**
+     * Park free permits only - in-flight calls keep theirs, callers never
+     * queue behind the sizer.
+     */
+    private int shrink(int target) {
+        while (limit() > target
+                && bulkhead.getMetrics().getAvailableConcurrentCalls() > 0
+                && bulkhead.tryAcquirePermission()) {
+            parked++;
+        }
+        return limit();
+    }
+
+    private int inFlight() {
+        return bulkhead.getMetrics().getMaxAllowedConcurrentCalls() - bulkhead.getMetrics().getAvailableConcurrentCalls()
+            - parked;
+    }
+
+    private int clamp(int value) {
+        return Math.max(minConcurrentCalls, Math.min(maxConcurrentCalls, value));
+    }
+
+    private static Counter resizes(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder("appb.bulkhead.resizes")
+            .description("Changes of appBBulkhead's maxConcurrentCalls by the Little's-law sizer")
+            .tag("direction", direction)
+            .register(meterRegistry);
+    }
+}
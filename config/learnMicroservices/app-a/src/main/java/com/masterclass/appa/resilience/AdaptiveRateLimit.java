@@ -0,0 +1,184 @@
+package com.masterclass.appa.resilience;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ============================================================
+ * ADAPTIVE (AIMD) RATE LIMIT FOR APP B
+ * ============================================================
+ *
+ * THE PROBLEM:
+ * ------------
+ * appBRateLimiter's limitForPeriod is a guess. Too low: App A throttles
+ * itself while App B idles. Too high: App B gets more than it can take and
+ * answers slowly, with 503s, or not at all.
+ *
+ * THE FIX - what TCP does with its congestion window:
+ * ---------------------------------------------------
+ * Every interval, look at the App B calls that went out (load balancer
+ * lifecycle - real HTTP outcomes, not what a fallback made of them):
+ *
+ *   congestion (503/429, timeout),
+ *   slow rate > slowCallRateTarget
+ *   or error rate > errorRateTarget   → limit = limit x multiplicativeDecrease   (e.g. halve)
+ *   all good AND the limit was used up → limit = limit + additiveIncrease       (e.g. +1)
+ *   all good, limit not used up        → keep (no demand, no evidence App B can take more)
+ *
+ *   limit
+ *     │      /|      /|
+ *     │     / |     / |    /
+ *     │    /  |    /  |   /       ← saw-tooth around App B's real capacity
+ *     │   /   |__ /   |__/
+ *     └──────────────────────── time
+ *
+ * A 503/429 or timeout is App B saying "too much" - one is enough, but
+ * only in an interval with at least minimumCalls calls, like the rates
+ * below: a single timeout in a quiet second is no evidence of overload,
+ * and halving on it would drag the limit down while nobody is calling.
+ * A slow call (> latencyTarget) is not enough on its own: every service
+ * has a tail, and halving on the first one would pin the limit at
+ * minLimit under any real volume. Slow calls count as a RATE, like
+ * errors - e.g. more than 10% of the interval's calls, i.e. p90 above
+ * latencyTarget.
+ *
+ * The limit stays within [minLimit, maxLimit] and is applied with
+ * RateLimiter.changeLimitForPeriod() - from the next refresh period on,
+ * for every caller of appBRateLimiter (blocking, async, reactive).
+ *
+ * METRICS:
+ * --------
+ * appb.ratelimiter.limit                            current limitForPeriod
+ * appb.ratelimiter.adjustments{direction=increase|decrease}
+ */
+public class AdaptiveRateLimit {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveRateLimit.class);
+
+    private final RateLimiter rateLimiter;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int additiveIncrease;
+    private final double multiplicativeDecrease;
+    private final long latencyTargetNanos;
+    private final double slowCallRateTarget;
+    private final double errorRateTarget;
+    private final int minimumCalls;
+    private final double periodsPerInterval;
+
+    // Outcomes of the current interval (any thread)
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+    private final LongAdder congestion = new LongAdder();
+
+    // Written by adjust() only
+    private volatile int limit;
+
+    private final Counter increased;
+    private final Counter decreased;
+
+    public AdaptiveRateLimit(RateLimiter rateLimiter, int minLimit, int maxLimit, int additiveIncrease,
+                             double multiplicativeDecrease, Duration latencyTarget, double slowCallRateTarget,
+                             double errorRateTarget, int minimumCalls, Duration interval,
+                             MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.additiveIncrease = Math.max(1, additiveIncrease);
+        this.multiplicativeDecrease = multiplicativeDecrease;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.slowCallRateTarget = slowCallRateTarget;
+        this.errorRateTarget = errorRateTarget;
+        this.minimumCalls = minimumCalls;
+        this.periodsPerInterval = (double) interval.toNanos()
+            / rateLimiter.getRateLimiterConfig().getLimitRefreshPeriod().toNanos();
+        // Start from the configured limitForPeriod
+        this.limit = clamp(rateLimiter.getRateLimiterConfig().getLimitForPeriod());
+        rateLimiter.changeLimitForPeriod(limit);
+
+        Gauge.builder("appb.ratelimiter.limit", this, AdaptiveRateLimit::limit)
+            .description("Current limitForPeriod of appBRateLimiter, set by the AIMD controller")
+            .register(meterRegistry);
+        this.increased = adjustments(meterRegistry, "increase");
+        this.decreased = adjustments(meterRegistry, "decrease");
+    }
+
+    /** An App B call answered - slow ones count towards the slow call rate */
+    public void onSuccess(long durationNanos) {
+        calls.increment();
+        if (durationNanos > latencyTargetNanos) {
+            slow.increment();
+        }
+    }
+
+    /** App B said "too much" (503, 429) or didn't answer in time */
+    public void onCongestion() {
+        calls.increment();
+        congestion.increment();
+    }
+
+    /** Any other failure (5xx, connection refused, ...) - counts towards the error rate */
+    public void onError() {
+        calls.increment();
+        errors.increment();
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    /**
+     * One AIMD step - run once per interval, by one thread.
+     */
+    public void adjust() {
+        long intervalCalls = calls.sumThenReset();
+        long intervalErrors = errors.sumThenReset();
+        long intervalSlow = slow.sumThenReset();
+        long intervalCongestion = congestion.sumThenReset();
+
+        boolean enoughCalls = intervalCalls >= minimumCalls;
+        boolean congested = enoughCalls && intervalCongestion > 0;
+        boolean slowRateExceeded = enoughCalls && intervalSlow > slowCallRateTarget * intervalCalls;
+        boolean errorRateExceeded = enoughCalls && intervalErrors > errorRateTarget * intervalCalls;
+        int next;
+        if (congested || slowRateExceeded || errorRateExceeded) {
+            next = clamp((int) (limit * multiplicativeDecrease));
+            if (next < limit) {
+                decreased.increment();
+                logger.warn("📉 appBRateLimiter: {} → {} calls/period ({} congested, {} slow, {} failed of {} calls)",
+                    limit, next, intervalCongestion, intervalSlow, intervalErrors, intervalCalls);
+            }
+        } else if (intervalCalls >= limit * periodsPerInterval) {
+            next = clamp(limit + additiveIncrease);
+            if (next > limit) {
+                increased.increment();
+                logger.debug("📈 appBRateLimiter: {} → {} calls/period", limit, next);
+            }
+        } else {
+            return;
+        }
+        if (next != limit) {
+            limit = next;
+            rateLimiter.changeLimitForPeriod(next);
+        }
+    }
+
+    private int clamp(int value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    private static Counter adjustments(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder("appb.ratelimiter.adjustments")
+            .description("Changes of appBRateLimiter's limit by the AIMD controller")
+            .tag("direction", direction)
+            .register(meterRegistry);
+    }
+}
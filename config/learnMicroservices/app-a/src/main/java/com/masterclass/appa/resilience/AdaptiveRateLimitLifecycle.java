@@ -0,0 +1,113 @@
+package com.masterclass.appa.resilience;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Feeds the outcome of every load-balanced App B call (Feign AND
+ * WebClient) to the AIMD controller.
+ *
+ * SUCCESS with 503 / 429  → congestion (App B is shedding load)
+ * SUCCESS with other 5xx  → error
+ * SUCCESS otherwise       → success (slow when slower than the target)
+ * FAILED by a timeout     → congestion
+ * FAILED otherwise        → error (e.g. connection refused - App B down is
+ *                           the circuit breakers' business, not the rate's)
+ * DISCARD                 → nothing was sent, nothing to record
+ */
+public class AdaptiveRateLimitLifecycle
+        implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private final String serviceId;
+    private final AdaptiveRateLimit rateLimit;
+
+    public AdaptiveRateLimitLifecycle(String serviceId, AdaptiveRateLimit rateLimit) {
+        this.serviceId = serviceId;
+        this.rateLimit = rateLimit;
+    }
+
+    // Raw in LoadBalancerLifecycle - Class<?> parameters would not override it
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+            && ResponseData.class.isAssignableFrom(responseClass)
+            && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        // Same clock as the load balancer's own stats (they may have set it already)
+        RequestDataContext context = request.getContext();
+        if (context != null && context.getRequestStartTime() == 0) {
+            context.setRequestStartTime(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completion) {
+        Response<ServiceInstance> lbResponse = completion.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || !serviceId.equalsIgnoreCase(lbResponse.getServer().getServiceId())) {
+            return;
+        }
+        switch (completion.status()) {
+            case SUCCESS -> {
+                HttpStatusCode status = completion.getClientResponse() != null
+                    ? completion.getClientResponse().getHttpStatus() : null;
+                if (status != null && (status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                        || status.value() == HttpStatus.TOO_MANY_REQUESTS.value())) {
+                    rateLimit.onCongestion();
+                } else if (status != null && status.is5xxServerError()) {
+                    rateLimit.onError();
+                } else {
+                    rateLimit.onSuccess(durationNanos(completion.getLoadBalancerRequest()));
+                }
+            }
+            case FAILED -> {
+                if (isTimeout(completion.getThrowable())) {
+                    rateLimit.onCongestion();
+                } else {
+                    rateLimit.onError();
+                }
+            }
+            case DISCARD -> { }
+        }
+    }
+
+    /**
+     * SocketTimeoutException, TimeoutException, Netty's ReadTimeoutException,
+     * HttpClient 5's ConnectTimeoutException ... - no common supertype, so by name.
+     */
+    private static boolean isTimeout(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause.getClass().getSimpleName().contains("Timeout")) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static long durationNanos(Request<?> request) {
+        if (request != null && request.getContext() instanceof TimedRequestContext timed
+                && timed.getRequestStartTime() != 0) {
+            return System.nanoTime() - timed.getRequestStartTime();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,99 @@
+package com.masterclass.appa.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * ============================================================
+ * PER-OPERATION PARTITIONS (bulkhead + circuit breaker per App B call)
+ * ============================================================
+ *
+ * THE PROBLEM:
+ * ------------
+ * status, product and greeting all shared appBCircuitBreaker and
+ * appBBulkhead:
+ *
+ *   product endpoint slow → its calls hold all 10 bulkhead permits
+ *                         → cheap status calls rejected (BulkheadFull)
+ *   product endpoint failing → ONE breaker opens → status and greeting
+ *                              fail fast too, although they are fine
+ *
+ * THE FIX:
+ * --------
+ * Each operation gets its OWN breaker and bulkhead, generated from the
+ * "appBOperation" template (resilience4j.*.configs.appBOperation):
+ *
+ *   appB.status    appB.product    appB.greeting
+ *
+ * plus the SHARED parent bulkhead appBBulkhead on top, which still caps
+ * the total number of concurrent App B calls:
+ *
+ *   call → [appB.product bulkhead: 6] → [appBBulkhead: 10] → App B
+ *
+ * So one operation can use at most its own share of the parent, and its
+ * failures only open its own breaker.
+ *
+ * OVERRIDING ONE OPERATION:
+ * -------------------------
+ * An instance configured by name wins over the template, e.g.
+ *   resilience4j.bulkhead.instances."[appB.product]".maxConcurrentCalls: 8
+ * (brackets because of the dot).
+ */
+@Component
+public class AppBPartitions {
+
+    public static final String STATUS = "status";
+    public static final String PRODUCT = "product";
+    public static final String GREETING = "greeting";
+
+    private static final String TEMPLATE = "appBOperation";
+    private static final String PARENT_BULKHEAD = "appBBulkhead";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final Bulkhead parentBulkhead;
+    private final Map<String, Partition> partitions = new ConcurrentSkipListMap<>();
+
+    /**
+     * One operation's resilience instances.
+     */
+    public record Partition(String operation, CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+    }
+
+    public AppBPartitions(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.parentBulkhead = bulkheadRegistry.bulkhead(PARENT_BULKHEAD);
+    }
+
+    /**
+     * The partition of an operation - created from the template on first use.
+     */
+    public Partition partition(String operation) {
+        return partitions.computeIfAbsent(operation, key -> {
+            String name = "appB." + key;
+            return new Partition(key,
+                circuitBreakerRegistry.circuitBreaker(name, TEMPLATE),
+                bulkheadRegistry.bulkhead(name, TEMPLATE));
+        });
+    }
+
+    /**
+     * Limit on ALL concurrent App B calls, whatever the operation.
+     */
+    public Bulkhead parentBulkhead() {
+        return parentBulkhead;
+    }
+
+    public Collection<Partition> all() {
+        return Collections.unmodifiableCollection(partitions.values());
+    }
+}
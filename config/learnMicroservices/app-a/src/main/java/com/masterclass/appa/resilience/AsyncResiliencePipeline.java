@@ -0,0 +1,231 @@
+package com.masterclass.appa.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.retry.Retry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * ============================================================
+ * ASYNC (NON-BLOCKING) RESILIENCE PIPELINE
+ * ============================================================
+ *
+ * Same decorators, same order as ResiliencePipeline - but every step
+ * returns a CompletableFuture instead of blocking the caller:
+ *
+ *   pipeline.execute("42")   → returns immediately
+ *      → Retry → CircuitBreaker → RateLimiter → Fallback → Bulkhead → call
+ *
+ * WHERE THE THREADS GO:
+ * ---------------------
+ * Blocking version (one Tomcat thread per request, the whole time):
+ *
+ *   [call 1s][ sleep 5s backoff ][call 1s][ sleep 5s ][call 1s]  = 13s held
+ *
+ * This version:
+ *
+ *   [call 1s]  ...timer...  [call 1s]  ...timer...  [call 1s]
+ *    I/O thread             I/O thread              I/O thread
+ *
+ * - Backoff waits and rate-limiter waits are TIMERS on the shared
+ *   scheduler - no thread sleeps through them
+ * - Bulkhead is a non-blocking "try acquire" (full → rejected at once)
+ * - Only the actual call (supplied by the caller, e.g. on an I/O pool)
+ *   occupies a thread
+ * - Hand the builder a context-carrying scheduler (resilienceScheduler is
+ *   one): a call started by a timer must still log the caller's traceId
+ *   and send its b3 header
+ *
+ * Built once per operation at startup, like ResiliencePipeline.
+ */
+public final class AsyncResiliencePipeline<T, R> {
+
+    private final String name;
+    private final Function<T, CompletionStage<R>> decorated;
+
+    private AsyncResiliencePipeline(String name, Function<T, CompletionStage<R>> decorated) {
+        this.name = name;
+        this.decorated = decorated;
+    }
+
+    /**
+     * Start a pipeline around the actual (asynchronous) call.
+     */
+    public static <T, R> Builder<T, R> of(String name, Function<T, CompletionStage<R>> call,
+                                          ScheduledExecutorService scheduler) {
+        return new Builder<>(name, call, scheduler);
+    }
+
+    public CompletableFuture<R> execute(T input) {
+        return invoke(decorated, input).toCompletableFuture();
+    }
+
+    public CompletableFuture<R> execute() {
+        return execute(null);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Call a step, turning anything it throws into a failed future.
+     */
+    private static <T, R> CompletionStage<R> invoke(Function<T, CompletionStage<R>> step, T input) {
+        try {
+            return step.apply(input);
+        } catch (Exception ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        if ((failure instanceof CompletionException || failure instanceof ExecutionException)
+                && failure.getCause() != null) {
+            return failure.getCause();
+        }
+        return failure;
+    }
+
+    public static final class Builder<T, R> {
+
+        private final String name;
+        private final ScheduledExecutorService scheduler;
+        private Function<T, CompletionStage<R>> current;
+        // The breaker added last - the retry budget checks it for HALF_OPEN
+        private CircuitBreaker circuitBreaker;
+
+        private Builder(String name, Function<T, CompletionStage<R>> call, ScheduledExecutorService scheduler) {
+            this.name = name;
+            this.scheduler = scheduler;
+            this.current = call;
+        }
+
+        /**
+         * Non-blocking: no free permit → BulkheadFullException right away.
+         */
+        public Builder<T, R> bulkhead(Bulkhead bulkhead) {
+            Function<T, CompletionStage<R>> inner = current;
+            current = input -> {
+                if (!bulkhead.tryAcquirePermission()) {
+                    return CompletableFuture.failedFuture(BulkheadFullException.createBulkheadFullException(bulkhead));
+                }
+                return invoke(inner, input).whenComplete((result, failure) -> bulkhead.onComplete());
+            };
+            return this;
+        }
+
+        /**
+         * Reserves a permit; if it is only available later, the call is
+         * started by a timer instead of a sleeping thread.
+         */
+        public Builder<T, R> rateLimiter(RateLimiter rateLimiter) {
+            Function<T, CompletionStage<R>> inner = current;
+            current = input -> {
+                long waitNanos = rateLimiter.reservePermission();
+                if (waitNanos < 0) {
+                    return CompletableFuture.failedFuture(RequestNotPermitted.createRequestNotPermitted(rateLimiter));
+                }
+                if (waitNanos == 0) {
+                    return invoke(inner, input);
+                }
+                return later(waitNanos, inner, input);
+            };
+            return this;
+        }
+
+        public Builder<T, R> circuitBreaker(CircuitBreaker circuitBreaker) {
+            Function<T, CompletionStage<R>> inner = current;
+            current = input -> CircuitBreaker.decorateCompletionStage(circuitBreaker, () -> invoke(inner, input)).get();
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * Backoff between attempts is scheduled on the shared scheduler.
+         */
+        public Builder<T, R> retry(Retry retry) {
+            Function<T, CompletionStage<R>> inner = current;
+            current = input -> Retry.decorateCompletionStage(retry, scheduler, () -> invoke(inner, input)).get();
+            return this;
+        }
+
+        /**
+         * Budgeted retries (see RetryBudget), backoff scheduled like retry(Retry).
+         */
+        public Builder<T, R> retry(RetryBudget retryBudget) {
+            Function<T, CompletionStage<R>> inner = current;
+            CircuitBreaker guarded = circuitBreaker;
+            current = input -> {
+                CompletableFuture<R> result = new CompletableFuture<>();
+                attempt(retryBudget, guarded, inner, input, 1, result);
+                return result;
+            };
+            return this;
+        }
+
+        /**
+         * Same contract as ResiliencePipeline.fallback(): any Exception from the
+         * steps added so far becomes the fallback's value.
+         */
+        public Builder<T, R> fallback(BiFunction<T, Exception, R> fallback) {
+            Function<T, CompletionStage<R>> inner = current;
+            current = input -> invoke(inner, input).exceptionallyCompose(failure -> {
+                Throwable cause = unwrap(failure);
+                if (!(cause instanceof Exception ex)) {
+                    return CompletableFuture.failedFuture(cause);
+                }
+                try {
+                    return CompletableFuture.completedFuture(fallback.apply(input, ex));
+                } catch (Exception fallbackFailure) {
+                    return CompletableFuture.failedFuture(fallbackFailure);
+                }
+            });
+            return this;
+        }
+
+        public AsyncResiliencePipeline<T, R> build() {
+            return new AsyncResiliencePipeline<>(name, current);
+        }
+
+        private void attempt(RetryBudget retryBudget, CircuitBreaker guarded, Function<T, CompletionStage<R>> inner,
+                             T input, int attempt, CompletableFuture<R> result) {
+            invoke(inner, input).whenComplete((value, failure) -> {
+                if (failure == null) {
+                    result.complete(value);
+                    return;
+                }
+                Throwable cause = unwrap(failure);
+                if (!retryBudget.shouldRetry(cause, attempt, guarded)) {
+                    result.completeExceptionally(cause);
+                    return;
+                }
+                scheduler.schedule(() -> attempt(retryBudget, guarded, inner, input, attempt + 1, result),
+                    retryBudget.jitteredBackoff(attempt, cause), TimeUnit.MILLISECONDS);
+            });
+        }
+
+        private CompletionStage<R> later(long delayNanos, Function<T, CompletionStage<R>> inner, T input) {
+            CompletableFuture<R> result = new CompletableFuture<>();
+            scheduler.schedule(() -> invoke(inner, input).whenComplete((value, failure) -> {
+                if (failure != null) {
+                    result.completeExceptionally(unwrap(failure));
+                } else {
+                    result.complete(value);
+                }
+            }), delayNanos, TimeUnit.NANOSECONDS);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.masterclass.appa.resilience;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * The MDC and trace span of one thread, captured to be restored on another.
+ *
+ *   CallerContext context = CallerContext.capture(tracer);   // caller's thread
+ *   ...
+ *   context.run(task);                                       // any thread
+ *
+ * While the task runs it logs the caller's traceId and the Feign tracing
+ * interceptor sends the caller's b3 header. Afterwards the thread gets its
+ * own MDC back. Used by ContextPropagatingExecutorService (per task),
+ * MicroBatcher (per batched key) and HedgedAppBCaller (per attempt).
+ */
+public final class CallerContext {
+
+    private final Tracer tracer;
+    private final Map<String, String> mdc;
+    private final Span span;
+
+    private CallerContext(Tracer tracer) {
+        this.tracer = tracer;
+        this.mdc = MDC.getCopyOfContextMap();
+        this.span = tracer.currentSpan();
+    }
+
+    public static CallerContext capture(Tracer tracer) {
+        return new CallerContext(tracer);
+    }
+
+    public void run(Runnable task) {
+        try {
+            call(() -> {
+                task.run();
+                return null;
+            });
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Exception ex) {
+            // A Runnable throws no checked exception
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public <V> V call(Callable<V> task) throws Exception {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        } else {
+            // The caller had no MDC - don't log under the worker's leftovers
+            MDC.clear();
+        }
+        Tracer.SpanInScope scope = tracer.withSpan(span);
+        try {
+            return task.call();
+        } finally {
+            scope.close();
+            // May run on a thread that has a context of its own (caller-runs) - give it back
+            if (previous != null) {
+                MDC.setContextMap(previous);
+            } else {
+                MDC.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.masterclass.appa.resilience;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Hands the load balancer only the App B instances whose own circuit
+ * breaker lets the call through (see InstanceCircuitBreakers): CLOSED
+ * ones, and HALF_OPEN ones only while they have a trial permit to give -
+ * reserved for this request, settled by InstanceCircuitBreakerLifecycle.
+ *
+ * Sits on top of the cached Eureka list, so the filter is applied on
+ * every call while Eureka is asked at most once per cache TTL.
+ * Every instance isolated → empty list → the call fails without touching
+ * App B (and the operation's breaker / the fallback take over).
+ */
+public class CircuitBreakerAwareServiceInstanceListSupplier extends DelegatingServiceInstanceListSupplier {
+
+    private final InstanceCircuitBreakers circuitBreakers;
+
+    public CircuitBreakerAwareServiceInstanceListSupplier(ServiceInstanceListSupplier delegate,
+                                                          InstanceCircuitBreakers circuitBreakers) {
+        super(delegate);
+        this.circuitBreakers = circuitBreakers;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return delegate.get().map(circuitBreakers::available);
+    }
+
+    // Raw in ServiceInstanceListSupplier - Request<?> would not override it
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Flux<List<ServiceInstance>> get(Request request) {
+        if (request == null || !(request.getContext() instanceof RequestDataContext)) {
+            // No lifecycle will settle trial permits for this request - CLOSED only
+            return delegate.get(request).map(circuitBreakers::available);
+        }
+        return delegate.get(request).map(instances -> circuitBreakers.available(instances, request));
+    }
+}
@@ -0,0 +1,129 @@
+package com.masterclass.appa.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ============================================================
+ * CoDel ADMISSION CONTROL (queue-time load shedding)
+ * ============================================================
+ *
+ * THE PROBLEM:
+ * ------------
+ * Overload: every Tomcat thread waits on App B, new requests queue up for
+ * a thread, then wait in the bulkheads, then time out. EVERY user gets a
+ * slow failure - the queue only grows, nobody is served well.
+ *
+ * THE FIX - CoDel (Controlled Delay), as in network routers:
+ * -----------------------------------------------------------
+ * Measure how long each request waited for a thread (QueueTimedExecutor)
+ * and watch the MINIMUM wait per interval:
+ *
+ *   minimum ≤ target       a burst - queues that drain are fine
+ *   minimum > target for   a STANDING queue: even the luckiest request
+ *   a whole interval       waited → overload → DROPPING mode
+ *
+ * In DROPPING mode a request that waited longer than target is answered
+ * at once: 503 + Retry-After, no App B call, no bulkhead wait. Requests
+ * that got through quickly are still served. The queue drains, the
+ * minimum falls below target → back to normal.
+ *
+ *   overload:  without CoDel → everyone waits 5s, most fail
+ *              with CoDel    → excess fails in ~0ms, the rest sees normal latency
+ *
+ * /actuator/** is never shed (health checks, metrics).
+ *
+ * METRICS:
+ * --------
+ * appa.admission.queue.delay       time requests waited for a Tomcat thread
+ * appa.admission.rejected          requests shed
+ * appa.admission.dropping          1 while in DROPPING mode
+ */
+public class CoDelAdmissionFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoDelAdmissionFilter.class);
+
+    private final long targetNanos;
+    private final long intervalNanos;
+
+    private final AtomicLong intervalStart = new AtomicLong(System.nanoTime());
+    private final AtomicLong intervalMinDelay = new AtomicLong(Long.MAX_VALUE);
+    private volatile boolean dropping;
+
+    private final Timer queueDelay;
+    private final Counter rejected;
+
+    public CoDelAdmissionFilter(Duration target, Duration interval, MeterRegistry meterRegistry) {
+        this.targetNanos = target.toNanos();
+        this.intervalNanos = interval.toNanos();
+        this.queueDelay = Timer.builder("appa.admission.queue.delay")
+            .description("Time requests waited for a Tomcat thread")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("appa.admission.rejected")
+            .description("Requests shed by CoDel admission control")
+            .register(meterRegistry);
+        Gauge.builder("appa.admission.dropping", this, filter -> filter.dropping ? 1 : 0)
+            .description("1 while CoDel admission control is shedding load")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long delay = QueueTimedExecutor.queueDelayNanos();
+        queueDelay.record(delay, TimeUnit.NANOSECONDS);
+        if (shed(delay)) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(String.format(
+                "{\"error\":\"Overloaded\",\"message\":\"Request waited %dms for a thread - shedding load, retry later\"}",
+                TimeUnit.NANOSECONDS.toMillis(delay)));
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private boolean shed(long delay) {
+        intervalMinDelay.accumulateAndGet(delay, Math::min);
+        long now = System.nanoTime();
+        long start = intervalStart.get();
+        if (now - start >= intervalNanos && intervalStart.compareAndSet(start, now)) {
+            // Interval over - one thread decides for the next one
+            boolean standingQueue = intervalMinDelay.getAndSet(Long.MAX_VALUE) > targetNanos;
+            if (standingQueue != dropping) {
+                dropping = standingQueue;
+                if (standingQueue) {
+                    logger.warn("🚦 ADMISSION CONTROL: requests queue > {}ms for {}ms - shedding load (503)",
+                        TimeUnit.NANOSECONDS.toMillis(targetNanos), TimeUnit.NANOSECONDS.toMillis(intervalNanos));
+                } else {
+                    logger.info("🚦 ADMISSION CONTROL: queue drained - admitting all requests again");
+                }
+            }
+        }
+        return dropping && delay > targetNanos;
+    }
+}
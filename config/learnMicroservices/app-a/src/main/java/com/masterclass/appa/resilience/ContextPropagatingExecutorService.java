@@ -0,0 +1,82 @@
+package com.masterclass.appa.resilience;
+
+import io.micrometer.tracing.Tracer;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ============================================================
+ * EXECUTOR THAT CARRIES THE CALLER'S CONTEXT
+ * ============================================================
+ *
+ * THE PROBLEM:
+ * ------------
+ * MDC and the current trace span are THREAD-LOCAL. A task handed to a
+ * pool thread starts with whatever that thread had (usually nothing):
+ *
+ *   request thread   [TRACE: 6f1c...] Calling App B status
+ *   pool thread      [TRACE: ]        ← traceId lost, no B3 header to App B
+ *
+ * THE FIX:
+ * --------
+ * Every task is wrapped when it is SUBMITTED (still on the caller's thread):
+ * - copy of the MDC
+ * - the current span
+ * and both are restored on the pool thread while the task runs, then
+ * cleared - the pool thread doesn't keep them for the next task
+ * (CallerContext).
+ *
+ * Restoring the span also means the Feign tracing interceptor sends the
+ * right b3 header, so App B logs the same traceId.
+ */
+public class ContextPropagatingExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final Tracer tracer;
+
+    public ContextPropagatingExecutorService(ExecutorService delegate, Tracer tracer) {
+        this.delegate = delegate;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(wrap(command));
+    }
+
+    /**
+     * Captures the caller's MDC and span NOW; the returned task runs with them.
+     */
+    protected Runnable wrap(Runnable command) {
+        CallerContext context = CallerContext.capture(tracer);
+        return () -> context.run(command);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
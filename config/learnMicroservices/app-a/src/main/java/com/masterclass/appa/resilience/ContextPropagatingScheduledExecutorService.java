@@ -0,0 +1,79 @@
+package com.masterclass.appa.resilience;
+
+import io.micrometer.tracing.Tracer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ============================================================
+ * SCHEDULER THAT CARRIES THE CALLER'S CONTEXT
+ * ============================================================
+ *
+ * Same idea as ContextPropagatingExecutorService, for timers:
+ *
+ *   request thread      rateLimiter.reservePermission() → wait 200ms
+ *   resilience-scheduler     ...timer fires, starts the call...
+ *   appb-call-3         [TRACE: ]  ← without this: no traceId, no b3 header
+ *
+ * A timer task (rate-limiter wait, retry backoff, timeout) captures the MDC
+ * and span of the thread that SCHEDULES it and runs with them. Whatever
+ * the task submits next (the App B call on appBCallExecutor, the next
+ * retry timer) captures them again from there - the context follows the
+ * call through every hop.
+ *
+ * Periodic tasks get the context of whoever registered them (at startup:
+ * none).
+ */
+public class ContextPropagatingScheduledExecutorService extends ContextPropagatingExecutorService
+        implements ScheduledExecutorService {
+
+    private final ScheduledExecutorService delegate;
+
+    public ContextPropagatingScheduledExecutorService(ScheduledExecutorService delegate, Tracer tracer) {
+        super(delegate, tracer);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return delegate.schedule(wrap(command), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return delegate.schedule(wrap(callable), delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        return delegate.scheduleAtFixedRate(wrap(command), initialDelay, period, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        return delegate.scheduleWithFixedDelay(wrap(command), initialDelay, delay, unit);
+    }
+
+    private <V> Callable<V> wrap(Callable<V> callable) {
+        AtomicReference<V> result = new AtomicReference<>();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Runnable task = wrap(() -> {
+            try {
+                result.set(callable.call());
+            } catch (Exception ex) {
+                failure.set(ex);
+            }
+        });
+        return () -> {
+            task.run();
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+            return result.get();
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package com.masterclass.appa.resilience;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ============================================================
+ * STRIPED SLIDING WINDOW (epoch buckets of LongAdders)
+ * ============================================================
+ *
+ * THE PROBLEM:
+ * ------------
+ * resilience4j's COUNT_BASED window is a ring of the last N outcomes
+ * behind ONE lock: every call, on every thread, queues up on it to
+ * record "success, 12ms". 64 threads → 64 threads taking turns.
+ *
+ * THE FIX:
+ * --------
+ * Time is cut into epochs (window / buckets long, e.g. 1s). Each epoch
+ * has its own bucket of counters - and each counter is a LongAdder,
+ * which spreads concurrent increments over per-core cells:
+ *
+ *   epoch:    41      42      43      44   ← now
+ *   bucket: [calls] [calls] [calls] [calls]
+ *           [fail ] [fail ] [fail ] [fail ]
+ *           [slow ] [slow ] [slow ] [slow ]
+ *
+ *   record → find the bucket of the current epoch → LongAdder.increment()
+ *            no lock, no CAS loop on a shared counter
+ *   read   → sum the buckets still inside the window
+ *
+ * ROLLOVER:
+ * ---------
+ * The ring holds `buckets` slots; slot = epoch % buckets. The first
+ * thread to reach a slot still holding an old epoch swaps in a FRESH
+ * bucket (one CAS, the losers use the winner's). An increment landing on
+ * the old bucket at that exact moment is lost - the window is a
+ * statistical view anyway, just like a time-based one.
+ *
+ * Reads (summing) are the slower side - the circuit breaker only does
+ * them after a failure or a slow call (and, until the window reaches
+ * minimumNumberOfCalls after one, on the calls that follow), not on every
+ * success.
+ */
+public final class EpochWindow {
+
+    /**
+     * Totals of the window at one moment.
+     */
+    public record Totals(long calls, long failedCalls, long slowCalls, long slowFailedCalls) {
+
+        static final Totals EMPTY = new Totals(0, 0, 0, 0);
+
+        public float failureRate() {
+            return calls == 0 ? 0 : failedCalls * 100.0f / calls;
+        }
+
+        public float slowCallRate() {
+            return calls == 0 ? 0 : slowCalls * 100.0f / calls;
+        }
+    }
+
+    private static final class Bucket {
+        final long epoch;
+        final LongAdder calls = new LongAdder();
+        final LongAdder failedCalls = new LongAdder();
+        final LongAdder slowCalls = new LongAdder();
+        final LongAdder slowFailedCalls = new LongAdder();
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    private final AtomicReferenceArray<Bucket> ring;
+    private final long epochNanos;
+
+    public EpochWindow(long windowNanos, int buckets) {
+        this.ring = new AtomicReferenceArray<>(Math.max(1, buckets));
+        this.epochNanos = Math.max(1, windowNanos / ring.length());
+        for (int i = 0; i < ring.length(); i++) {
+            ring.set(i, new Bucket(Long.MIN_VALUE));
+        }
+    }
+
+    public void record(long nowNanos, boolean failed, boolean slow) {
+        Bucket bucket = bucket(nowNanos / epochNanos);
+        bucket.calls.increment();
+        if (failed) {
+            bucket.failedCalls.increment();
+        }
+        if (slow) {
+            bucket.slowCalls.increment();
+            if (failed) {
+                bucket.slowFailedCalls.increment();
+            }
+        }
+    }
+
+    public Totals totals(long nowNanos) {
+        long oldest = nowNanos / epochNanos - ring.length() + 1;
+        long calls = 0;
+        long failedCalls = 0;
+        long slowCalls = 0;
+        long slowFailedCalls = 0;
+        for (int i = 0; i < ring.length(); i++) {
+            Bucket bucket = ring.get(i);
+            if (bucket.epoch >= oldest) {
+                calls += bucket.calls.sum();
+                failedCalls += bucket.failedCalls.sum();
+                slowCalls += bucket.slowCalls.sum();
+                slowFailedCalls += bucket.slowFailedCalls.sum();
+            }
+        }
+        return calls == 0 ? Totals.EMPTY : new Totals(calls, failedCalls, slowCalls, slowFailedCalls);
+    }
+
+    private Bucket bucket(long epoch) {
+        int slot = (int) Math.floorMod(epoch, (long) ring.length());
+        Bucket bucket = ring.get(slot);
+        while (bucket.epoch < epoch) {
+            Bucket fresh = new Bucket(epoch);
+            if (ring.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+            bucket = ring.get(slot);
+        }
+        // Same epoch - or a thread that read the clock a moment too early: count it in the newer bucket
+        return bucket;
+    }
+}
@@ -0,0 +1,74 @@
+package com.masterclass.appa.resilience;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ============================================================
+ * LOCK-FREE RING BUFFER (many producers, one consumer)
+ * ============================================================
+ *
+ * Holds small int codes (see ResilienceEventAggregator) - no objects, so
+ * publishing allocates nothing.
+ *
+ *   producers (request threads)          consumer (ONE background thread)
+ *   ---------------------------          --------------------------------
+ *   claim a slot: CAS on tail            read slot[head]: 0 → nothing yet
+ *   write code + 1 into the slot         clear the slot, head + 1
+ *
+ * FULL → offer() returns false at once. The caller drops the event
+ * instead of waiting: a request thread must never block on monitoring.
+ *
+ * A slot that was claimed but not yet written reads as empty - the
+ * consumer simply picks it up on its next drain.
+ */
+public final class EventRingBuffer {
+
+    private final AtomicIntegerArray slots;     // 0 = empty, otherwise code + 1
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;                 // written by the consumer only
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public EventRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicIntegerArray(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Any thread. False when the buffer is full (nothing is written).
+     */
+    public boolean offer(int code) {
+        long claimed;
+        do {
+            claimed = tail.get();
+            if (claimed - head >= slots.length()) {
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+        slots.lazySet((int) (claimed & mask), code + 1);
+        return true;
+    }
+
+    /**
+     * Consumer thread only. The next code, or -1 when there is none.
+     */
+    public int poll() {
+        long current = head;
+        int index = (int) (current & mask);
+        int value = slots.get(index);
+        if (value == 0) {
+            return -1;
+        }
+        slots.lazySet(index, 0);
+        head = current + 1;
+        return value - 1;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
@@ -0,0 +1,341 @@
+package com.masterclass.appa.resilience;
+
+import com.masterclass.appa.clients.AppBClient;
+import com.masterclass.appa.config.AppBHedgingProperties;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.tracing.Tracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.cloud.openfeign.FeignClientBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * ============================================================
+ * HEDGED REQUESTS TO APP B (tail latency)
+ * ============================================================
+ *
+ * THE PROBLEM:
+ * ------------
+ * One slow App B instance (GC pause, noisy neighbour) makes every call
+ * that lands on it slow - and those calls ARE our p99.
+ *
+ * THE IDEA:
+ * ---------
+ * For idempotent GETs, don't wait forever on the slow instance:
+ *
+ *   t=0        send to instance A
+ *   t=p95      still no answer? send the SAME request to instance B
+ *   first answer wins, the caller stops waiting for the other one
+ *
+ * Only ~5% of calls are slower than p95, so only ~5% get a hedge - but
+ * those are exactly the calls that were hurting the tail.
+ *
+ * SAFETY:
+ * -------
+ * - Only for idempotent calls (getProduct, getGreeting)
+ * - A hedge BUDGET caps the extra load: every call earns budget-ratio of a
+ *   hedge (0.1 → at most ~10% more requests to App B, even during a slowdown)
+ * - Errors are NOT hedged - failing fast and retrying is Retry's job
+ * - The hedge always goes to a DIFFERENT instance (picked from Eureka) -
+ *   with a single instance there is nothing to hedge to
+ * - Instances whose own circuit breaker is OPEN are never picked, and
+ *   every pinned attempt's outcome is reported to that breaker
+ *   (InstanceCircuitBreakers) - hedged calls bypass the load balancer
+ * - Both attempts carry the caller's MDC AND trace span (CallerContext):
+ *   App B gets the same b3 header for either, and the tail sampler sees
+ *   the hedge inside the request's trace
+ *
+ * THE LOSER IS NOT ABORTED:
+ * -------------------------
+ * The losing attempt's future is cancelled and its thread interrupted,
+ * but a blocking Apache HttpClient 5 exchange does not stop on interrupt
+ * (only a wait for a pooled connection does). Until App B answers or the
+ * Feign read timeout fires, the loser still holds:
+ * - its appb-hedge thread (counts against max-threads - when they are
+ *   all busy, calls go out unhedged)
+ * - its pooled connection (counts against max-connections-per-route)
+ * - a request on the slow App B instance
+ * When it does finish, its latency goes into the delay percentile like
+ * any other attempt (it IS a real App B latency) and its outcome to the
+ * instance's circuit breaker. The hedge budget is what keeps this cost
+ * bounded.
+ *
+ * METRICS:
+ * --------
+ * appb.hedge.calls{operation}   calls eligible for hedging
+ * appb.hedge.sent{operation}    hedges sent         (hedge rate = sent / calls)
+ * appb.hedge.wins{operation}    hedges that answered first
+ * appb.hedge.budget.exhausted   hedges skipped because the budget was empty
+ * appb.hedge.delay              current hedge delay (ms)
+ *
+ * Configured under app-b.hedging.* (AppBHedgingProperties).
+ * In virtual-thread mode the attempts run on virtual threads (still at most
+ * max-threads in flight).
+ */
+@Component
+public class HedgedAppBCaller {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgedAppBCaller.class);
+    private static final String SERVICE_ID = "app-b";
+
+    private final AppBClient appBClient;
+    private final DiscoveryClient discoveryClient;
+    private final ApplicationContext applicationContext;
+    private final AppBHedgingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final InstanceCircuitBreakers instanceCircuitBreakers;   // null when disabled
+    private final Tracer tracer;
+
+    private final LatencyWindow latencies;
+    private final TokenBucketBudget budget;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentMap<String, AppBClient> instanceClients = new ConcurrentHashMap<>();
+    private final AtomicInteger nextInstance = new AtomicInteger();
+    private final Counter budgetExhausted;
+
+    public HedgedAppBCaller(
+            AppBClient appBClient,
+            DiscoveryClient discoveryClient,
+            ApplicationContext applicationContext,
+            AppBHedgingProperties properties,
+            MeterRegistry meterRegistry,
+            Environment environment,
+            ObjectProvider<InstanceCircuitBreakers> instanceCircuitBreakers,
+            ObjectProvider<Tracer> tracer) {
+        this.appBClient = appBClient;
+        this.discoveryClient = discoveryClient;
+        this.applicationContext = applicationContext;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.instanceCircuitBreakers = instanceCircuitBreakers.getIfAvailable();
+        this.tracer = tracer.getIfAvailable(() -> Tracer.NOOP);
+
+        this.latencies = new LatencyWindow(512, properties.getPercentile());
+        this.budget = new TokenBucketBudget(properties.getBudgetRatio(), properties.getBudgetBurst());
+
+        // Bounded: no queue, at most maxThreads attempts in flight
+        this.executor = new ThreadPoolExecutor(
+            0, properties.getMaxThreads(),
+            60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            threadFactory(environment));
+
+        this.budgetExhausted = Counter.builder("appb.hedge.budget.exhausted")
+            .description("Hedges skipped because the hedge budget was empty")
+            .register(meterRegistry);
+        Gauge.builder("appb.hedge.delay", this, caller -> caller.hedgeDelayNanos() / 1_000_000.0)
+            .description("Current hedge delay (recent latency percentile)")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Run an idempotent App B call, hedged when it is unusually slow.
+     */
+    public <T> T call(String operation, Function<AppBClient, T> call) {
+        if (!properties.isEnabled()) {
+            return call.apply(appBClient);
+        }
+        budget.deposit();
+
+        List<ServiceInstance> instances = discoveryClient.getInstances(SERVICE_ID);
+        if (instanceCircuitBreakers != null) {
+            instances = instanceCircuitBreakers.available(instances);
+        }
+        long delayNanos = hedgeDelayNanos();
+        if (instances.size() < 2 || latencies.size() < properties.getMinSamples()) {
+            // Nothing to hedge to (or no idea yet what "slow" is) - plain call
+            return timed(call, appBClient);
+        }
+
+        counter("appb.hedge.calls", operation).increment();
+        int first = Math.floorMod(nextInstance.getAndIncrement(), instances.size());
+        ServiceInstance primaryInstance = instances.get(first);
+        ServiceInstance hedgeInstance = instances.get((first + 1) % instances.size());
+
+        ExecutorCompletionService<T> attempts = new ExecutorCompletionService<>(executor);
+        Future<T> primary;
+        try {
+            primary = attempts.submit(attempt(call, primaryInstance));
+        } catch (RejectedExecutionException ex) {
+            // Hedging pool saturated - don't add threads, just call
+            return timed(call, primaryInstance);
+        }
+
+        Future<T> hedge = null;
+        try {
+            Future<T> done = attempts.poll(delayNanos, TimeUnit.NANOSECONDS);
+            if (done == null) {
+                hedge = sendHedge(operation, attempts, call, hedgeInstance);
+                done = attempts.take();
+            }
+            if (isFailed(done) && hedge != null) {
+                // One attempt failed, the other is still running - wait for it
+                done = attempts.take();
+            }
+            if (done == hedge && !isFailed(done)) {
+                counter("appb.hedge.wins", operation).increment();
+            }
+            return done.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling App B", ex);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } finally {
+            // Stop waiting for the loser (if any) - see THE LOSER IS NOT ABORTED
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory threadFactory(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor("appb-hedge-").getVirtualThreadFactory();
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "appb-hedge-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private <T> Future<T> sendHedge(String operation, ExecutorCompletionService<T> attempts,
+                                    Function<AppBClient, T> call, ServiceInstance hedgeInstance) {
+        if (!budget.tryWithdraw()) {
+            budgetExhausted.increment();
+            return null;
+        }
+        try {
+            Future<T> hedge = attempts.submit(attempt(call, hedgeInstance));
+            counter("appb.hedge.sent", operation).increment();
+            logger.debug("Hedging {} after {}ms", operation, hedgeDelayNanos() / 1_000_000);
+            return hedge;
+        } catch (RejectedExecutionException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * One attempt on a pool thread, carrying the caller's MDC and trace span
+     * (captured now, on the caller's thread).
+     */
+    private <T> Callable<T> attempt(Function<AppBClient, T> call, ServiceInstance instance) {
+        CallerContext context = CallerContext.capture(tracer);
+        return () -> context.call(() -> timed(call, instance));
+    }
+
+    /**
+     * A call pinned to one instance; its outcome goes to that instance's
+     * circuit breaker. A cancelled loser is not the instance's fault.
+     */
+    private <T> T timed(Function<AppBClient, T> call, ServiceInstance instance) {
+        long start = System.nanoTime();
+        try {
+            T result = timed(call, clientFor(instance));
+            if (instanceCircuitBreakers != null) {
+                instanceCircuitBreakers.onSuccess(instance, System.nanoTime() - start);
+            }
+            return result;
+        } catch (RuntimeException ex) {
+            if (instanceCircuitBreakers != null && !Thread.currentThread().isInterrupted()) {
+                if (ex instanceof FeignException feign && feign.status() >= 400 && feign.status() < 500) {
+                    instanceCircuitBreakers.onSuccess(instance, System.nanoTime() - start);
+                } else {
+                    instanceCircuitBreakers.onFailure(instance, System.nanoTime() - start, ex);
+                }
+            }
+            throw ex;
+        }
+    }
+
+    private <T> T timed(Function<AppBClient, T> call, AppBClient client) {
+        long start = System.nanoTime();
+        T result = call.apply(client);
+        latencies.record(System.nanoTime() - start);
+        return result;
+    }
+
+    private long hedgeDelayNanos() {
+        return Math.max(properties.getMinDelay().toNanos(), latencies.percentileNanos());
+    }
+
+    /**
+     * A client pinned to ONE App B instance (no load balancer in between),
+     * sharing the "app-b" Feign configuration.
+     */
+    private AppBClient clientFor(ServiceInstance instance) {
+        String url = instance.getUri().toString();
+        return instanceClients.computeIfAbsent(url, key ->
+            new FeignClientBuilder(applicationContext)
+                .forType(AppBClient.class, SERVICE_ID)
+                .url(key)
+                .build());
+    }
+
+    private Counter counter(String name, String operation) {
+        return Counter.builder(name)
+            .tag("operation", operation)
+            .register(meterRegistry);
+    }
+
+    private static boolean isFailed(Future<?> future) {
+        if (!future.isDone() || future.isCancelled()) {
+            return false;
+        }
+        try {
+            future.get();
+            return false;
+        } catch (ExecutionException ex) {
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+}
@@ -0,0 +1,103 @@
+package com.masterclass.appa.resilience;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.HttpServerErrorException;
+
+/**
+ * Reports the outcome of every load-balanced App B call (Feign AND
+ * WebClient) to the circuit breaker of the instance that served it.
+ *
+ * SUCCESS with 2xx-4xx → success
+ * SUCCESS with 5xx     → failure (HttpServerErrorException)
+ * FAILED               → failure (connect error, timeout, ...)
+ * DISCARD              → nothing was sent, nothing to record
+ *
+ * Also settles the HALF_OPEN trial permits the instance list took for the
+ * request: kept by the picked instance, given back by the others (and by
+ * all of them when no instance was picked).
+ */
+public class InstanceCircuitBreakerLifecycle
+        implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private final String serviceId;
+    private final InstanceCircuitBreakers circuitBreakers;
+
+    public InstanceCircuitBreakerLifecycle(String serviceId, InstanceCircuitBreakers circuitBreakers) {
+        this.serviceId = serviceId;
+        this.circuitBreakers = circuitBreakers;
+    }
+
+    // Raw in LoadBalancerLifecycle - Class<?> parameters would not override it
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+            && ResponseData.class.isAssignableFrom(responseClass)
+            && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        // Same clock as the load balancer's own stats (they may have set it already)
+        RequestDataContext context = request.getContext();
+        if (context != null && context.getRequestStartTime() == 0) {
+            context.setRequestStartTime(System.nanoTime());
+        }
+        if (lbResponse != null && lbResponse.hasServer()) {
+            circuitBreakers.picked(request, lbResponse.getServer());
+        } else {
+            circuitBreakers.release(request);
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completion) {
+        Response<ServiceInstance> lbResponse = completion.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            // No instance (DISCARD) - onStartRequest never ran
+            circuitBreakers.release(completion.getLoadBalancerRequest());
+            return;
+        }
+        if (!serviceId.equalsIgnoreCase(lbResponse.getServer().getServiceId())) {
+            return;
+        }
+        ServiceInstance instance = lbResponse.getServer();
+        long duration = durationNanos(completion.getLoadBalancerRequest());
+
+        switch (completion.status()) {
+            case SUCCESS -> {
+                HttpStatusCode status = completion.getClientResponse() != null
+                    ? completion.getClientResponse().getHttpStatus() : null;
+                if (status != null && status.is5xxServerError()) {
+                    circuitBreakers.onFailure(instance, duration,
+                        HttpServerErrorException.create(status, "App B instance answered " + status.value(),
+                            null, null, null));
+                } else {
+                    circuitBreakers.onSuccess(instance, duration);
+                }
+            }
+            case FAILED -> circuitBreakers.onFailure(instance, duration, completion.getThrowable());
+            case DISCARD -> { }
+        }
+    }
+
+    private static long durationNanos(Request<?> request) {
+        if (request != null && request.getContext() instanceof TimedRequestContext timed
+                && timed.getRequestStartTime() != 0) {
+            return System.nanoTime() - timed.getRequestStartTime();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,173 @@
+package com.masterclass.appa.resilience;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * ============================================================
+ * ONE CIRCUIT BREAKER PER APP B INSTANCE
+ * ============================================================
+ *
+ * THE PROBLEM:
+ * ------------
+ * The operation breakers (appB.status, appB.product, appB.greeting - see
+ * AppBPartitions) cover ALL App B instances together:
+ *
+ *   3 instances, 1 broken → ~33% failures → below 50% → never opens,
+ *                           the broken one keeps getting 1/3 of the calls
+ *   2 instances, 1 broken → ~50% failures → opens for BOTH,
+ *                           the healthy one is cut off too
+ *
+ * THE FIX:
+ * --------
+ * A breaker per instance, named appB@host:port, configured by
+ * resilience4j.circuitbreaker.configs.appBInstance:
+ *
+ *   - created the first time the instance shows up in Eureka
+ *   - removed from the registry when the instance leaves Eureka
+ *   - OPEN → the load balancer doesn't pick that instance
+ *     (CircuitBreakerAwareServiceInstanceListSupplier)
+ *   - HALF_OPEN → trial calls only: the instance is offered to the load
+ *     balancer only while it holds a free permit (at most
+ *     permittedNumberOfCallsInHalfOpenState at once). A permit taken for a
+ *     call that then went elsewhere (or nowhere) is given back
+ *   - fed with every load-balanced call's outcome
+ *     (InstanceCircuitBreakerLifecycle) and every hedged call's
+ *
+ * The operation breakers stay where they are: they trip when App B AS A
+ * WHOLE is failing that operation (or every instance is isolated).
+ *
+ * What counts as an instance failure: no answer (connect error, timeout)
+ * or a 5xx. A 4xx is the caller's problem - the instance is fine.
+ */
+public class InstanceCircuitBreakers {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstanceCircuitBreakers.class);
+
+    private final CircuitBreakerRegistry registry;
+    private final String configName;
+    private final Set<String> known = ConcurrentHashMap.newKeySet();
+    // Load balancer request → HALF_OPEN permits taken for it, until an instance is picked
+    private final Map<Object, List<CircuitBreaker>> trialPermits = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    public InstanceCircuitBreakers(CircuitBreakerRegistry registry, String configName) {
+        this.registry = registry;
+        this.configName = configName;
+    }
+
+    /**
+     * The instances that take full traffic: breaker CLOSED. Nothing is
+     * reserved - for callers that pick an instance without the load balancer
+     * (hedging). Breakers of instances no longer listed are dropped.
+     */
+    public List<ServiceInstance> available(List<ServiceInstance> instances) {
+        retainOnly(instances);
+        return instances.stream()
+            .filter(instance -> isClosed(circuitBreaker(instance)))
+            .toList();
+    }
+
+    /**
+     * The instances one load-balanced call may go to: CLOSED ones, plus
+     * HALF_OPEN ones (or OPEN ones whose wait is over) that granted a trial
+     * permit. The permits are held for this request until picked() or
+     * release() - the lifecycle calls one of them.
+     */
+    public List<ServiceInstance> available(List<ServiceInstance> instances, Object request) {
+        retainOnly(instances);
+        // Asked again for the same request (a retry) - start over
+        release(request);
+        List<ServiceInstance> available = new ArrayList<>(instances.size());
+        List<CircuitBreaker> permits = new ArrayList<>();
+        for (ServiceInstance instance : instances) {
+            CircuitBreaker circuitBreaker = circuitBreaker(instance);
+            if (isClosed(circuitBreaker)) {
+                available.add(instance);
+            } else if (circuitBreaker.tryAcquirePermission()) {
+                available.add(instance);
+                permits.add(circuitBreaker);
+            }
+        }
+        if (!permits.isEmpty()) {
+            trialPermits.put(request, permits);
+        }
+        return available;
+    }
+
+    /**
+     * The load balancer picked this instance: it keeps its permit (the call's
+     * outcome settles it), the others get theirs back.
+     */
+    public void picked(Object request, ServiceInstance instance) {
+        List<CircuitBreaker> permits = trialPermits.remove(request);
+        if (permits != null) {
+            String picked = name(instance);
+            permits.stream()
+                .filter(circuitBreaker -> !circuitBreaker.getName().equals(picked))
+                .forEach(CircuitBreaker::releasePermission);
+        }
+    }
+
+    /**
+     * Nothing was sent for this request - every permit goes back.
+     */
+    public void release(Object request) {
+        List<CircuitBreaker> permits = trialPermits.remove(request);
+        if (permits != null) {
+            permits.forEach(CircuitBreaker::releasePermission);
+        }
+    }
+
+    public void onSuccess(ServiceInstance instance, long durationNanos) {
+        circuitBreaker(instance).onSuccess(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void onFailure(ServiceInstance instance, long durationNanos, Throwable failure) {
+        circuitBreaker(instance).onError(durationNanos, TimeUnit.NANOSECONDS, failure);
+    }
+
+    private static boolean isClosed(CircuitBreaker circuitBreaker) {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        return state == CircuitBreaker.State.CLOSED
+            || state == CircuitBreaker.State.DISABLED
+            || state == CircuitBreaker.State.METRICS_ONLY;
+    }
+
+    public static String name(ServiceInstance instance) {
+        return "appB@" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    private CircuitBreaker circuitBreaker(ServiceInstance instance) {
+        String name = name(instance);
+        // State transitions are logged by ResilienceEventConfig, like every breaker's
+        known.add(name);
+        return registry.circuitBreaker(name, configName);
+    }
+
+    private void retainOnly(List<ServiceInstance> instances) {
+        Set<String> current = instances.stream()
+            .map(InstanceCircuitBreakers::name)
+            .collect(Collectors.toSet());
+        known.removeIf(name -> {
+            if (current.contains(name)) {
+                return false;
+            }
+            registry.remove(name);
+            logger.info("🧹 App B instance {} left the registry - circuit breaker removed", name);
+            return true;
+        });
+    }
+}
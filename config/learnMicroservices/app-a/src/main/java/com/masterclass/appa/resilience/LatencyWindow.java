@@ -0,0 +1,52 @@
+package com.masterclass.appa.resilience;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of the last N calls, for "how slow is unusually slow?".
+ *
+ * A fixed ring buffer (no allocation per sample). The percentile is
+ * recomputed from a sorted copy only every RECOMPUTE_EVERY samples, so
+ * reading it on every call stays cheap.
+ */
+public class LatencyWindow {
+
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples;
+    private final double percentile;
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private long cachedNanos = -1;
+
+    public LatencyWindow(int size, double percentile) {
+        this.samples = new long[size];
+        this.percentile = percentile;
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        if (++sinceRecompute >= RECOMPUTE_EVERY || cachedNanos < 0) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            cachedNanos = sorted[(int) Math.min(count - 1, Math.floor(percentile * count))];
+        }
+    }
+
+    /**
+     * The configured percentile of recent latencies, -1 until the first sample.
+     */
+    public synchronized long percentileNanos() {
+        return cachedNanos;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+}
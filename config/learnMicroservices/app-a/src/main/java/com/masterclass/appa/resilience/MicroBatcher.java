@@ -0,0 +1,205 @@
+package com.masterclass.appa.resilience;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Tracer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * ============================================================
+ * MICRO-BATCHING (DataLoader-style)
+ * ============================================================
+ *
+ * THE PROBLEM:
+ * ------------
+ * A list page needs 30 products → 30 concurrent getProduct(id) calls →
+ * 30 HTTP round trips to App B, each paying Retry, CircuitBreaker,
+ * RateLimiter and Bulkhead on its own.
+ *
+ * THE IDEA:
+ * ---------
+ * Don't send a call right away - wait a few milliseconds for others:
+ *
+ *   t=0ms   load("1")  → opens a batch, starts the window timer
+ *   t=1ms   load("2")  → joins
+ *   t=2ms   load("1")  → same key, gets the SAME future
+ *   t=5ms   window over → ONE call: batchCall(["1", "2"])
+ *           → each caller's future completes with its own value
+ *
+ * A batch that reaches maxBatchSize is sent at once, without waiting.
+ *
+ * THREADS:
+ * --------
+ * - The window is a timer on the shared scheduler - nobody sleeps
+ * - The batch call runs on the executor (appBCallExecutor), NEVER on the
+ *   thread that dispatches it: with a caller-runs rejection policy the
+ *   blocking bulk call would otherwise run on the scheduler thread (and
+ *   stall every timer) or inside load(). A batch the executor won't take
+ *   fails with RejectedExecutionException instead.
+ * - load() never blocks; blocking callers join() the future themselves
+ *
+ * TRACE CONTEXT:
+ * --------------
+ * load() captures each caller's MDC and span (CallerContext). The batch
+ * call runs in the first caller's context, and each key's future is
+ * completed in ITS caller's context - whatever a caller chained onto the
+ * future (a fallback, a log line) lands in that caller's trace.
+ * A key loaded twice in one window shares the first caller's future.
+ *
+ * FAILURES:
+ * ---------
+ * batchCall failing → every future of the batch fails with that error.
+ * A key missing from the answer → only that future fails
+ * (NoSuchElementException). Resilience (and fallbacks) belong INSIDE
+ * batchCall - one pipeline run per batch, not per key.
+ *
+ * METRICS:
+ * --------
+ * appb.batch.size{operation}   keys per batch (count = calls sent,
+ *                              total = keys loaded)
+ */
+public final class MicroBatcher<K, V> {
+
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Function<List<K>, Map<K, V>> batchCall;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService executor;
+    private final Tracer tracer;
+    private final DistributionSummary batchSizes;
+
+    private final Object lock = new Object();
+    private Map<K, Load<V>> pending;    // guarded by lock, null = no open batch
+
+    /**
+     * One key of a batch: the future its callers wait on, and the context of
+     * the caller that asked first.
+     */
+    private record Load<V>(CompletableFuture<V> future, CallerContext context) {
+    }
+
+    public MicroBatcher(String operation, Duration window, int maxBatchSize,
+                        Function<List<K>, Map<K, V>> batchCall,
+                        ScheduledExecutorService scheduler, ExecutorService executor,
+                        Tracer tracer, MeterRegistry meterRegistry) {
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.batchCall = batchCall;
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.tracer = tracer;
+        this.batchSizes = DistributionSummary.builder("appb.batch.size")
+            .description("Keys sent to App B in one bulk call")
+            .tag("operation", operation)
+            .register(meterRegistry);
+    }
+
+    /**
+     * The value for this key, from the next batch sent.
+     */
+    public CompletableFuture<V> load(K key) {
+        Load<V> load;
+        Map<K, Load<V>> opened = null;
+        Map<K, Load<V>> full = null;
+        synchronized (lock) {
+            if (pending == null) {
+                pending = new LinkedHashMap<>();
+                opened = pending;
+            }
+            Load<V> existing = pending.get(key);
+            if (existing != null) {
+                return existing.future();
+            }
+            load = new Load<>(new CompletableFuture<>(), CallerContext.capture(tracer));
+            pending.put(key, load);
+            if (pending.size() >= maxBatchSize) {
+                full = pending;
+                pending = null;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        } else if (opened != null) {
+            Map<K, Load<V>> batch = opened;
+            scheduler.schedule(() -> windowClosed(batch), windowNanos, TimeUnit.NANOSECONDS);
+        }
+        return load.future();
+    }
+
+    /**
+     * Only sends the batch the timer was started for - it may already
+     * have gone out full.
+     */
+    private void windowClosed(Map<K, Load<V>> batch) {
+        synchronized (lock) {
+            if (pending != batch) {
+                return;
+            }
+            pending = null;
+        }
+        dispatch(batch);
+    }
+
+    /**
+     * Hands the batch to the executor. If the executor runs it right here
+     * (caller-runs when full), the batch is refused instead of blocking
+     * the scheduler thread or load().
+     */
+    private void dispatch(Map<K, Load<V>> batch) {
+        batchSizes.record(batch.size());
+        Thread dispatcher = Thread.currentThread();
+        AtomicBoolean dispatching = new AtomicBoolean(true);
+        try {
+            executor.execute(() -> {
+                if (dispatching.get() && Thread.currentThread() == dispatcher) {
+                    throw new RejectedExecutionException("appBCallExecutor is full - batch not run on the dispatching thread");
+                }
+                run(batch);
+            });
+        } catch (RejectedExecutionException ex) {
+            failAll(batch, ex);
+        } finally {
+            dispatching.set(false);
+        }
+    }
+
+    private void run(Map<K, Load<V>> batch) {
+        Load<V> first = batch.values().iterator().next();
+        first.context().run(() -> {
+            Map<K, V> values;
+            try {
+                values = batchCall.apply(new ArrayList<>(batch.keySet()));
+            } catch (Throwable failure) {
+                failAll(batch, failure);
+                return;
+            }
+            batch.forEach((key, load) -> {
+                V value = values.get(key);
+                load.context().run(() -> {
+                    if (value != null) {
+                        load.future().complete(value);
+                    } else {
+                        load.future().completeExceptionally(new NoSuchElementException("No value for " + key + " in batch"));
+                    }
+                });
+            });
+        });
+    }
+
+    private void failAll(Map<K, Load<V>> batch, Throwable failure) {
+        batch.values().forEach(load -> load.context().run(() -> load.future().completeExceptionally(failure)));
+    }
+}
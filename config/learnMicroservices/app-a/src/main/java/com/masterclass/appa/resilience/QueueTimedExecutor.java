@@ -0,0 +1,61 @@
+package com.masterclass.appa.resilience;
+
+import org.apache.tomcat.util.threads.TaskQueue;
+import org.apache.tomcat.util.threads.TaskThreadFactory;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tomcat's request thread pool - exactly what Tomcat would create itself
+ * (same TaskQueue, same "http-nio-8080-exec-N" threads) - except that each
+ * task remembers when it was queued.
+ *
+ *   poller: request readable → execute(task)       ← queued at
+ *   ... all threads busy, task waits in the queue ...
+ *   worker: task runs → filter asks queueDelayNanos() = now - queued at
+ *
+ * Tomcat's own request start time is taken on the worker thread, AFTER
+ * the wait - it can't see this queue.
+ */
+public class QueueTimedExecutor extends ThreadPoolExecutor {
+
+    private static final long MAX_IDLE_MILLIS = 60_000;
+
+    // [0] = when the task running on this thread was queued (0 = consumed / unknown)
+    private static final ThreadLocal<long[]> QUEUED_AT = ThreadLocal.withInitial(() -> new long[1]);
+
+    public static QueueTimedExecutor create(String namePrefix, int minSpareThreads, int maxThreads,
+                                            int threadPriority) {
+        TaskQueue queue = new TaskQueue();
+        QueueTimedExecutor executor = new QueueTimedExecutor(minSpareThreads, maxThreads, queue,
+            new TaskThreadFactory(namePrefix, true, threadPriority));
+        queue.setParent(executor);
+        return executor;
+    }
+
+    private QueueTimedExecutor(int minSpareThreads, int maxThreads, TaskQueue queue, TaskThreadFactory threadFactory) {
+        super(minSpareThreads, maxThreads, MAX_IDLE_MILLIS, TimeUnit.MILLISECONDS, queue, threadFactory);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        long queuedAt = System.nanoTime();
+        super.execute(() -> {
+            QUEUED_AT.get()[0] = queuedAt;
+            command.run();
+        });
+    }
+
+    /**
+     * How long the current request waited for a thread - once per task
+     * (a second request handled by the same task didn't wait), 0 when
+     * unknown (not a Tomcat request thread, virtual threads).
+     */
+    public static long queueDelayNanos() {
+        long[] queuedAt = QUEUED_AT.get();
+        long delay = queuedAt[0] == 0 ? 0 : System.nanoTime() - queuedAt[0];
+        queuedAt[0] = 0;
+        return delay;
+    }
+}
@@ -0,0 +1,196 @@
+package com.masterclass.appa.resilience;
+
+import com.masterclass.appa.config.ResilienceEventProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ============================================================
+ * ASYNC RESILIENCE EVENT PIPELINE
+ * ============================================================
+ *
+ * THE PROBLEM:
+ * ------------
+ * Every circuit breaker error, retry and bulkhead rejection used to log a
+ * multi-line WARN - formatted, with metric reads - on the thread of the
+ * failing call. During an incident that is thousands of lines per second,
+ * written exactly when the calls are already slow.
+ *
+ * THE FIX:
+ * --------
+ *   failing call → publish(source, kind) → EventRingBuffer     (one CAS, no allocation)
+ *                                              ↓
+ *   resilience-events thread, every second → drain, count per source/kind
+ *                                           → ONE summary line + metrics
+ *
+ *   📊 RESILIENCE EVENTS (last 1000ms): circuitbreaker appB.product error=12 notPermitted=40
+ *      | retry appBRetry retry=8 exhausted=3 | bulkhead appBBulkhead rejected=5
+ *
+ * Nothing happened → no line. Buffer full → the event is dropped
+ * (resilience.events.dropped), the call is never slowed down.
+ *
+ * State transitions are NOT aggregated - they are rare and matter one by
+ * one, so ResilienceEventConfig still logs them immediately.
+ *
+ * METRICS:
+ * --------
+ * resilience.events{type,name,kind}   events per source and kind
+ * resilience.events.dropped           events lost to a full buffer
+ */
+@Component
+public class ResilienceEventAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilienceEventAggregator.class);
+
+    /**
+     * What happened. The name is the metric tag and the summary label.
+     */
+    public enum Kind {
+        ERROR("error"),
+        NOT_PERMITTED("notPermitted"),
+        FAILURE_RATE_EXCEEDED("failureRateExceeded"),
+        SLOW_CALL_RATE_EXCEEDED("slowCallRateExceeded"),
+        RETRY("retry"),
+        RECOVERED("recovered"),
+        EXHAUSTED("exhausted"),
+        REJECTED("rejected");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private record Source(String type, String name) {
+    }
+
+    private final EventRingBuffer buffer;
+    private final long intervalMillis;
+    private final MeterRegistry meterRegistry;
+    private final Counter dropped;
+
+    // Registration (any thread)
+    private final Map<Source, Integer> sourceIds = new ConcurrentHashMap<>();
+    private final List<Source> sources = new CopyOnWriteArrayList<>();
+
+    // Aggregator thread only
+    private long[] counts = new long[0];
+    private final Map<Integer, Counter> counters = new HashMap<>();
+
+    private final ScheduledExecutorService aggregator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "resilience-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ResilienceEventAggregator(ResilienceEventProperties properties, MeterRegistry meterRegistry) {
+        this.buffer = new EventRingBuffer(properties.getBufferSize());
+        this.intervalMillis = properties.getSummaryInterval().toMillis();
+        this.meterRegistry = meterRegistry;
+        this.dropped = Counter.builder("resilience.events.dropped")
+            .description("Resilience events dropped because the event buffer was full")
+            .register(meterRegistry);
+        aggregator.scheduleAtFixedRate(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Id of an event source (e.g. "circuitbreaker", "appB.product") - look
+     * it up once when registering a listener, not per event.
+     */
+    public int source(String type, String name) {
+        return sourceIds.computeIfAbsent(new Source(type, name), source -> {
+            synchronized (sources) {
+                sources.add(source);
+                return sources.size() - 1;
+            }
+        });
+    }
+
+    /**
+     * Hot path - called by the thread of the call itself.
+     */
+    public void publish(int source, Kind kind) {
+        if (!buffer.offer(source * KINDS.length + kind.ordinal())) {
+            dropped.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        aggregator.shutdownNow();
+    }
+
+    private void flush() {
+        try {
+            if (drain() > 0) {
+                report();
+            }
+        } catch (RuntimeException ex) {
+            // A failing run would cancel the schedule - keep aggregating
+            logger.warn("Resilience event summary failed: {}", ex.toString());
+        }
+    }
+
+    /**
+     * At most one buffer's worth per run, so busy producers can't keep
+     * this thread in here forever.
+     */
+    private int drain() {
+        int drained = 0;
+        int code;
+        while (drained < buffer.capacity() && (code = buffer.poll()) >= 0) {
+            if (code >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(code + 1, counts.length * 2));
+            }
+            counts[code]++;
+            drained++;
+        }
+        return drained;
+    }
+
+    private void report() {
+        StringBuilder summary = new StringBuilder();
+        int lastSource = -1;
+        for (int code = 0; code < counts.length; code++) {
+            long count = counts[code];
+            if (count == 0) {
+                continue;
+            }
+            counts[code] = 0;
+            int sourceId = code / KINDS.length;
+            Kind kind = KINDS[code % KINDS.length];
+            Source source = sources.get(sourceId);
+            if (sourceId != lastSource) {
+                summary.append(summary.isEmpty() ? "" : " | ")
+                    .append(source.type()).append(' ').append(source.name());
+                lastSource = sourceId;
+            }
+            summary.append(' ').append(kind.label).append('=').append(count);
+            counters.computeIfAbsent(code, key -> Counter.builder("resilience.events")
+                .description("Resilience4j events (circuit breaker errors, retries, rejections)")
+                .tag("type", source.type())
+                .tag("name", source.name())
+                .tag("kind", kind.label)
+                .register(meterRegistry))
+                .increment(count);
+        }
+        logger.warn("📊 RESILIENCE EVENTS (last {}ms): {}", intervalMillis, summary);
+    }
+}
@@ -0,0 +1,220 @@
+package com.masterclass.appa.resilience;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.masterclass.appa.config.ResilienceTelemetryProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * ============================================================
+ * LIVE RESILIENCE TELEMETRY (server-sent events)
+ * ============================================================
+ *
+ * THE PROBLEM:
+ * ------------
+ * Dashboards poll /api/resilience/circuit-breaker/status: every viewer,
+ * every poll builds the maps and formats the strings again - and still
+ * only sees appBCircuitBreaker, at poll resolution.
+ *
+ * THE FIX:
+ * --------
+ * ONE snapshot of every circuit breaker, bulkhead, rate limiter and retry
+ * per interval (resilience-telemetry.interval), serialized to JSON ONCE
+ * and pushed to all subscribers:
+ *
+ *   Flux.interval ──► snapshot + delta (JSON, once) ──► share() ──► viewer 1
+ *                                                                ├─► viewer 2
+ *                                                                └─► viewer N
+ *
+ * Nobody subscribed → the interval isn't running, nothing is computed.
+ *
+ * DELTA ENCODING:
+ * ---------------
+ *   event: snapshot   first event of a subscriber - everything
+ *   event: delta      afterwards - only the fields that changed;
+ *                     an instance that disappeared is null
+ *   (no event when nothing changed)
+ *
+ *   event: delta
+ *   id: 42
+ *   data: {"circuitBreakers":{"appB.product":{"state":"OPEN","failureRate":60.0}}}
+ *
+ * A viewer too slow to take every tick skips to the latest one - and gets
+ * a full snapshot instead of the delta, since it missed the ones before.
+ * The event id is the tick number, so a gap is visible client-side too.
+ */
+@Component
+public class ResilienceTelemetry {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** One interval, serialized once: delta == null → nothing changed */
+    private record Tick(long sequence, String snapshot, String delta) {
+    }
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final RateLimiterRegistry rateLimiterRegistry;
+    private final RetryRegistry retryRegistry;
+    private final Flux<Tick> ticks;
+
+    // type → name → field → value; only touched by the interval - ticks are serial
+    private Map<String, Map<String, Map<String, Object>>> previous = Map.of();
+
+    public ResilienceTelemetry(CircuitBreakerRegistry circuitBreakerRegistry,
+                               BulkheadRegistry bulkheadRegistry,
+                               RateLimiterRegistry rateLimiterRegistry,
+                               RetryRegistry retryRegistry,
+                               ResilienceTelemetryProperties properties) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.rateLimiterRegistry = rateLimiterRegistry;
+        this.retryRegistry = retryRegistry;
+        this.ticks = Flux.interval(properties.getInterval())
+            .onBackpressureDrop()
+            .map(this::tick)
+            .share();
+    }
+
+    /**
+     * The stream of one subscriber: a snapshot, then deltas.
+     */
+    public Flux<ServerSentEvent<String>> stream() {
+        return Flux.defer(() -> {
+            long[] lastSeen = {Long.MIN_VALUE};
+            return ticks
+                .onBackpressureLatest()
+                .handle((tick, sink) -> {
+                    boolean gap = tick.sequence() != lastSeen[0] + 1;
+                    lastSeen[0] = tick.sequence();
+                    if (gap) {
+                        sink.next(event("snapshot", tick.sequence(), tick.snapshot()));
+                    } else if (tick.delta() != null) {
+                        sink.next(event("delta", tick.sequence(), tick.delta()));
+                    }
+                });
+        });
+    }
+
+    private Tick tick(long sequence) {
+        Map<String, Map<String, Map<String, Object>>> current = snapshot();
+        Map<String, Map<String, Map<String, Object>>> delta = delta(previous, current);
+        previous = current;
+        return new Tick(sequence, json(current), delta.isEmpty() ? null : json(delta));
+    }
+
+    private Map<String, Map<String, Map<String, Object>>> snapshot() {
+        Map<String, Map<String, Map<String, Object>>> snapshot = new LinkedHashMap<>();
+
+        Map<String, Map<String, Object>> circuitBreakers = new TreeMap<>();
+        for (CircuitBreaker circuitBreaker : circuitBreakerRegistry.getAllCircuitBreakers()) {
+            CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("state", circuitBreaker.getState().name());
+            fields.put("failureRate", metrics.getFailureRate());
+            fields.put("slowCallRate", metrics.getSlowCallRate());
+            fields.put("bufferedCalls", metrics.getNumberOfBufferedCalls());
+            fields.put("failedCalls", metrics.getNumberOfFailedCalls());
+            fields.put("notPermittedCalls", metrics.getNumberOfNotPermittedCalls());
+            circuitBreakers.put(circuitBreaker.getName(), fields);
+        }
+        snapshot.put("circuitBreakers", circuitBreakers);
+
+        Map<String, Map<String, Object>> bulkheads = new TreeMap<>();
+        for (Bulkhead bulkhead : bulkheadRegistry.getAllBulkheads()) {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("available", bulkhead.getMetrics().getAvailableConcurrentCalls());
+            fields.put("max", bulkhead.getMetrics().getMaxAllowedConcurrentCalls());
+            bulkheads.put(bulkhead.getName(), fields);
+        }
+        snapshot.put("bulkheads", bulkheads);
+
+        Map<String, Map<String, Object>> rateLimiters = new TreeMap<>();
+        for (RateLimiter rateLimiter : rateLimiterRegistry.getAllRateLimiters()) {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("available", rateLimiter.getMetrics().getAvailablePermissions());
+            fields.put("limitForPeriod", rateLimiter.getRateLimiterConfig().getLimitForPeriod());
+            fields.put("waiting", rateLimiter.getMetrics().getNumberOfWaitingThreads());
+            rateLimiters.put(rateLimiter.getName(), fields);
+        }
+        snapshot.put("rateLimiters", rateLimiters);
+
+        Map<String, Map<String, Object>> retries = new TreeMap<>();
+        for (Retry retry : retryRegistry.getAllRetries()) {
+            Retry.Metrics metrics = retry.getMetrics();
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("successWithoutRetry", metrics.getNumberOfSuccessfulCallsWithoutRetryAttempt());
+            fields.put("successWithRetry", metrics.getNumberOfSuccessfulCallsWithRetryAttempt());
+            fields.put("failedWithoutRetry", metrics.getNumberOfFailedCallsWithoutRetryAttempt());
+            fields.put("failedWithRetry", metrics.getNumberOfFailedCallsWithRetryAttempt());
+            retries.put(retry.getName(), fields);
+        }
+        snapshot.put("retries", retries);
+
+        return snapshot;
+    }
+
+    /**
+     * Changed fields only; an instance no longer there → null.
+     */
+    private static Map<String, Map<String, Map<String, Object>>> delta(
+            Map<String, Map<String, Map<String, Object>>> before,
+            Map<String, Map<String, Map<String, Object>>> after) {
+        Map<String, Map<String, Map<String, Object>>> delta = new LinkedHashMap<>();
+        after.forEach((type, instances) -> {
+            Map<String, Map<String, Object>> old = before.getOrDefault(type, Map.of());
+            Map<String, Map<String, Object>> changes = new TreeMap<>();
+            instances.forEach((name, fields) -> {
+                Map<String, Object> oldFields = old.getOrDefault(name, Map.of());
+                Map<String, Object> changed = new LinkedHashMap<>();
+                fields.forEach((field, value) -> {
+                    if (!Objects.equals(oldFields.get(field), value)) {
+                        changed.put(field, value);
+                    }
+                });
+                if (!changed.isEmpty()) {
+                    changes.put(name, changed);
+                }
+            });
+            old.keySet().forEach(name -> {
+                if (!instances.containsKey(name)) {
+                    changes.put(name, null);
+                }
+            });
+            if (!changes.isEmpty()) {
+                delta.put(type, changes);
+            }
+        });
+        return delta;
+    }
+
+    private static String json(Object value) {
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Telemetry snapshot not serializable", ex);
+        }
+    }
+
+    private static ServerSentEvent<String> event(String name, long sequence, String data) {
+        return ServerSentEvent.builder(data)
+            .event(name)
+            .id(Long.toString(sequence))
+            .build();
+    }
+}
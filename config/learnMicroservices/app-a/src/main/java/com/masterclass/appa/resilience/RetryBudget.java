@@ -0,0 +1,190 @@
+package com.masterclass.appa.resilience;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.IntervalBiFunction;
+import io.github.resilience4j.core.functions.Either;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * ============================================================
+ * RETRY BUDGET (instead of "always retry up to maxAttempts")
+ * ============================================================
+ *
+ * THE PROBLEM WITH FIXED RETRIES:
+ * -------------------------------
+ * maxAttempts: 3 means EVERY failing call is sent 3 times. When App B is
+ * browning out, almost every call fails → App B gets 3x the load exactly
+ * when it can handle the least (a retry storm), and each request holds a
+ * servlet thread through all the backoff waits.
+ *
+ * THE BUDGET:
+ * -----------
+ * Retries are paid from a token bucket that only SUCCESSES refill:
+ *
+ *   success            → +ratio token   (0.1 = one retry per 10 successes)
+ *   retry              → -1 token       (no token → no retry, fail now)
+ *
+ * A success is an answer that really came from App B - the caller reports
+ * it with onSuccess() where the App B call returned. NOT "the pipeline
+ * returned a value": a fallback answer is a failure in disguise and must
+ * not pay for more retries. Where the fallback sits inside the retry
+ * (AppBResilientService), the retry never sees a failure to pay for; the
+ * budget only matters for the pipelines without one.
+ *
+ * Healthy App B: plenty of successes, occasional blips are retried.
+ * Brownout: successes stop, the bucket drains, retries stop. The extra
+ * load retries can add is capped at ~ratio of the successful traffic.
+ * The budget is shared by ALL calls to App B (the whole cluster), not
+ * per request.
+ *
+ * ALSO:
+ * -----
+ * - Never retry while the circuit is HALF_OPEN - the few trial calls
+ *   should tell the truth about App B, not be multiplied. The circuit is
+ *   the one the retried call goes through (each pipeline's own partition
+ *   breaker), handed in with the call
+ * - FULL JITTER: wait a random time in [0, backoff] so clients that
+ *   failed together don't come back together
+ * - Which exceptions are retried, maxAttempts (now an upper bound) and the
+ *   backoff come from the appBRetry instance in application.yml
+ *
+ * METRICS:
+ * --------
+ * appb.retry.budget.tokens                 tokens available
+ * appb.retry.decisions{decision=retried|budget_exhausted|half_open|max_attempts}
+ */
+public class RetryBudget {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryBudget.class);
+
+    private final TokenBucketBudget budget;
+    private final int maxAttempts;
+    private final Predicate<Throwable> retryable;
+    private final IntervalBiFunction<Object> backoff;
+
+    private final Counter retried;
+    private final Counter budgetExhausted;
+    private final Counter halfOpen;
+    private final Counter maxAttemptsReached;
+
+    public RetryBudget(Retry retry, double ratio, double maxTokens, MeterRegistry meterRegistry) {
+        RetryConfig config = retry.getRetryConfig();
+        this.budget = new TokenBucketBudget(ratio, maxTokens);
+        this.maxAttempts = config.getMaxAttempts();
+        this.retryable = config.getExceptionPredicate();
+        this.backoff = config.getIntervalBiFunction();
+
+        this.retried = decision(meterRegistry, "retried");
+        this.budgetExhausted = decision(meterRegistry, "budget_exhausted");
+        this.halfOpen = decision(meterRegistry, "half_open");
+        this.maxAttemptsReached = decision(meterRegistry, "max_attempts");
+        Gauge.builder("appb.retry.budget.tokens", budget, TokenBucketBudget::available)
+            .description("Retries the App B retry budget can currently pay for")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Wrap a call so failures are retried only while the budget allows.
+     * Does NOT refill the budget - see onSuccess().
+     * circuitBreaker: the one the call goes through (null = none).
+     */
+    public <T, R> Function<T, R> decorate(Function<T, R> call, CircuitBreaker circuitBreaker) {
+        return input -> {
+            int attempt = 1;
+            while (true) {
+                try {
+                    return call.apply(input);
+                } catch (RuntimeException ex) {
+                    if (!shouldRetry(ex, attempt, circuitBreaker)) {
+                        throw ex;
+                    }
+                    sleep(jitteredBackoff(attempt, ex));
+                    attempt++;
+                }
+            }
+        };
+    }
+
+    /**
+     * Same check as decorate(), for callers that schedule the retry themselves.
+     */
+    public boolean shouldRetry(Throwable ex, int attempt, CircuitBreaker circuitBreaker) {
+        if (!retryable.test(ex)) {
+            return false;
+        }
+        if (attempt >= maxAttempts) {
+            maxAttemptsReached.increment();
+            return false;
+        }
+        if (circuitBreaker != null && circuitBreaker.getState() == CircuitBreaker.State.HALF_OPEN) {
+            halfOpen.increment();
+            return false;
+        }
+        if (!budget.tryWithdraw()) {
+            budgetExhausted.increment();
+            logger.warn("Retry budget exhausted - not retrying {}", ex.getClass().getSimpleName());
+            return false;
+        }
+        retried.increment();
+        return true;
+    }
+
+    /**
+     * Same decisions for Reactor: mono.retryWhen(reactorRetry(circuitBreaker)).
+     * The App B call itself reports its successes (doOnNext(v -> onSuccess())).
+     * The backoff is a Mono.delay timer, not a sleeping thread.
+     */
+    public reactor.util.retry.Retry reactorRetry(CircuitBreaker circuitBreaker) {
+        return reactor.util.retry.Retry.from(signals -> signals.concatMap(signal -> {
+            int attempt = (int) signal.totalRetries() + 1;
+            Throwable failure = signal.failure();
+            return shouldRetry(failure, attempt, circuitBreaker)
+                ? Mono.delay(Duration.ofMillis(jitteredBackoff(attempt, failure)))
+                : Mono.error(failure);
+        }));
+    }
+
+    /**
+     * An App B call succeeded (refills the budget). Called where the answer
+     * from App B arrives - never for a fallback or cached answer.
+     */
+    public void onSuccess() {
+        budget.deposit();
+    }
+
+    /**
+     * Full jitter: random wait in [0, configured backoff for this attempt].
+     */
+    public long jitteredBackoff(int attempt, Throwable ex) {
+        long max = backoff.apply(attempt, Either.left(ex));
+        return max <= 0 ? 0 : ThreadLocalRandom.current().nextLong(max + 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during retry backoff", ex);
+        }
+    }
+
+    private static Counter decision(MeterRegistry meterRegistry, String decision) {
+        return Counter.builder("appb.retry.decisions")
+            .description("What the retry budget decided after a failed App B call")
+            .tag("decision", decision)
+            .register(meterRegistry);
+    }
+}
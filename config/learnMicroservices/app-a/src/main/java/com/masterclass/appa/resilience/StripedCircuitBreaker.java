@@ -0,0 +1,837 @@
+package com.masterclass.appa.resilience;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.ResultRecordedAsFailureException;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerEvent;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnCallNotPermittedEvent;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnErrorEvent;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnFailureRateExceededEvent;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnIgnoredErrorEvent;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnResetEvent;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnSlowCallRateExceededEvent;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnSuccessEvent;
+import io.github.resilience4j.core.EventConsumer;
+import io.github.resilience4j.core.EventProcessor;
+import io.github.resilience4j.core.functions.Either;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * ============================================================
+ * LOCK-FREE CIRCUIT BREAKER (striped counters, epoch window)
+ * ============================================================
+ *
+ * A drop-in CircuitBreaker - same states, same transitions, same events,
+ * same CircuitBreakerConfig - whose CLOSED-state bookkeeping doesn't
+ * serialize the calls (see EpochWindow):
+ *
+ *                       resilience4j (COUNT_BASED)     this one
+ *   record an outcome   lock, ring of the last N       LongAdder.increment()
+ *   check thresholds    on every call                  only after a failure or
+ *                                                      a slow call - a fast
+ *                                                      success can't push a
+ *                                                      rate over its threshold
+ *                                                      (unless it is the call
+ *                                                      that reaches
+ *                                                      minimumNumberOfCalls)
+ *
+ * SAME STATE MACHINE:
+ * -------------------
+ *   CLOSED ──(failure or slow call rate ≥ threshold,
+ *             with ≥ minimumNumberOfCalls in the window)──► OPEN
+ *   OPEN ──(waitDurationInOpenState, by the next call or automatically)──► HALF_OPEN
+ *   HALF_OPEN ──(permittedNumberOfCallsInHalfOpenState calls: rates ≥ threshold)──► OPEN
+ *             └──(below threshold)──► CLOSED
+ *   + DISABLED, METRICS_ONLY, FORCED_OPEN, reset(), transitionOnResult,
+ *     record/ignore exception predicates, recordResult predicate
+ *
+ * THE ONE DIFFERENCE - THE WINDOW:
+ * --------------------------------
+ * A window of TIME (window, split into `buckets` epochs), not of the last
+ * N calls - a TIME_BASED config keeps its own size (slidingWindowSize
+ * seconds, one bucket per second). HALF_OPEN counts its few probe calls
+ * exactly, like resilience4j. The window reads a clock ticked every 10ms,
+ * not System.nanoTime() per call.
+ *
+ * Plugged into the CircuitBreakerRegistry by StripedCircuitBreakerRegistry.
+ */
+public final class StripedCircuitBreaker implements CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripedCircuitBreaker.class);
+
+    /** Automatic OPEN → HALF_OPEN (and HALF_OPEN → OPEN) transitions of all instances */
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "striped-circuit-breaker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Coarse clock of the windows: System.nanoTime() can cost as much as the
+     * whole bookkeeping of a call (~45ns on a VM) - epochs of a second don't
+     * need it. Keep epochs (window / buckets) well above the tick.
+     */
+    private static final long CLOCK_TICK_MILLIS = 10;
+    private static volatile long clockNanos = System.nanoTime();
+
+    static {
+        SCHEDULER.scheduleAtFixedRate(() -> clockNanos = System.nanoTime(),
+            CLOCK_TICK_MILLIS, CLOCK_TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private final String name;
+    private final CircuitBreakerConfig config;
+    private final Map<String, String> tags;
+    private final long windowNanos;
+    private final int buckets;
+    private final long slowCallNanos;
+    private final Clock clock = Clock.systemUTC();
+    private final Events events = new Events();
+    private final AtomicReference<Phase> phase;
+
+    public StripedCircuitBreaker(String name, CircuitBreakerConfig config, Map<String, String> tags,
+                                 Duration window, int buckets) {
+        this.name = name;
+        this.config = config;
+        this.tags = tags;
+        if (config.getSlidingWindowType() == CircuitBreakerConfig.SlidingWindowType.TIME_BASED) {
+            this.windowNanos = TimeUnit.SECONDS.toNanos(config.getSlidingWindowSize());
+            this.buckets = config.getSlidingWindowSize();
+        } else {
+            this.windowNanos = window.toNanos();
+            this.buckets = buckets;
+        }
+        this.slowCallNanos = config.getSlowCallDurationThreshold().toNanos();
+        this.phase = new AtomicReference<>(new Closed());
+    }
+
+    // ------------------------------------------------------------
+    // Calls
+    // ------------------------------------------------------------
+
+    @Override
+    public boolean tryAcquirePermission() {
+        boolean permitted = phase.get().tryAcquirePermission();
+        if (!permitted && events.hasConsumers()) {
+            publish(new CircuitBreakerOnCallNotPermittedEvent(name));
+        }
+        return permitted;
+    }
+
+    @Override
+    public void acquirePermission() {
+        if (!tryAcquirePermission()) {
+            throw CallNotPermittedException.createCallNotPermittedException(this);
+        }
+    }
+
+    @Override
+    public void releasePermission() {
+        phase.get().releasePermission();
+    }
+
+    @Override
+    public void onError(long duration, TimeUnit durationUnit, Throwable throwable) {
+        Throwable failure = (throwable instanceof CompletionException || throwable instanceof ExecutionException)
+            && throwable.getCause() != null ? throwable.getCause() : throwable;
+        long nanos = durationUnit.toNanos(duration);
+        if (config.getIgnoreExceptionPredicate().test(failure)) {
+            releasePermission();
+            if (events.hasConsumers()) {
+                publish(new CircuitBreakerOnIgnoredErrorEvent(name, Duration.ofNanos(nanos), failure));
+            }
+            return;
+        }
+        if (config.getRecordExceptionPredicate().test(failure)) {
+            if (events.hasConsumers()) {
+                publish(new CircuitBreakerOnErrorEvent(name, Duration.ofNanos(nanos), failure));
+            }
+            phase.get().record(true, nanos > slowCallNanos);
+        } else {
+            recordSuccess(nanos);
+        }
+        handlePossibleTransition(Either.right(failure));
+    }
+
+    @Override
+    public void onSuccess(long duration, TimeUnit durationUnit) {
+        recordSuccess(durationUnit.toNanos(duration));
+    }
+
+    @Override
+    public void onResult(long duration, TimeUnit durationUnit, Object result) {
+        long nanos = durationUnit.toNanos(duration);
+        if (result != null && config.getRecordResultPredicate().test(result)) {
+            if (events.hasConsumers()) {
+                publish(new CircuitBreakerOnErrorEvent(name, Duration.ofNanos(nanos),
+                    new ResultRecordedAsFailureException(name, result)));
+            }
+            phase.get().record(true, nanos > slowCallNanos);
+        } else {
+            recordSuccess(nanos);
+            if (result != null) {
+                handlePossibleTransition(Either.left(result));
+            }
+        }
+    }
+
+    private void recordSuccess(long nanos) {
+        if (events.hasConsumers()) {
+            publish(new CircuitBreakerOnSuccessEvent(name, Duration.ofNanos(nanos)));
+        }
+        phase.get().record(false, nanos > slowCallNanos);
+    }
+
+    private void handlePossibleTransition(Either<Object, Throwable> result) {
+        phase.get().handlePossibleTransition(config.getTransitionOnResult().apply(result));
+    }
+
+    // ------------------------------------------------------------
+    // Transitions
+    // ------------------------------------------------------------
+
+    @Override
+    public void reset() {
+        Phase previous = phase.getAndSet(new Closed());
+        previous.leave();
+        if (previous.state() != State.CLOSED) {
+            publish(new CircuitBreakerOnStateTransitionEvent(name,
+                StateTransition.transitionBetween(name, previous.state(), State.CLOSED)));
+        }
+        publish(new CircuitBreakerOnResetEvent(name));
+    }
+
+    @Override
+    public void transitionToClosedState() {
+        transition(State.CLOSED, current -> new Closed());
+    }
+
+    @Override
+    public void transitionToOpenState() {
+        transition(State.OPEN, current -> new Open(current.attempts + 1, current.tally, waitMillis(current.attempts + 1)));
+    }
+
+    @Override
+    public void transitionToOpenStateFor(Duration waitDuration) {
+        transition(State.OPEN, current -> new Open(current.attempts + 1, current.tally, waitDuration.toMillis()));
+    }
+
+    @Override
+    public void transitionToOpenStateUntil(Instant waitUntil) {
+        transition(State.OPEN, current -> new Open(current.attempts + 1, current.tally,
+            Duration.between(clock.instant(), waitUntil).toMillis()));
+    }
+
+    @Override
+    public void transitionToHalfOpenState() {
+        transition(State.HALF_OPEN, current -> new HalfOpen(current.attempts));
+    }
+
+    @Override
+    public void transitionToDisabledState() {
+        transition(State.DISABLED, current -> new Disabled());
+    }
+
+    @Override
+    public void transitionToMetricsOnlyState() {
+        transition(State.METRICS_ONLY, current -> new MetricsOnly());
+    }
+
+    @Override
+    public void transitionToForcedOpenState() {
+        transition(State.FORCED_OPEN, current -> new ForcedOpen(current.attempts));
+    }
+
+    /**
+     * Manual transition: from whatever the state is now (invalid ones
+     * throw, like resilience4j's).
+     */
+    private void transition(State target, UnaryOperator<Phase> next) {
+        while (true) {
+            Phase current = phase.get();
+            StateTransition.transitionBetween(name, current.state(), target);
+            if (replace(current, next.apply(current))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Automatic transition: only if `from` is still the current phase -
+     * a concurrent (manual) transition wins.
+     */
+    private boolean replace(Phase from, Phase to) {
+        if (!phase.compareAndSet(from, to)) {
+            return false;
+        }
+        from.leave();
+        to.enter();
+        StateTransition transition = StateTransition.transitionBetween(name, from.state(), to.state());
+        if (!StateTransition.isInternalTransition(transition)) {
+            publish(new CircuitBreakerOnStateTransitionEvent(name, transition));
+        }
+        return true;
+    }
+
+    private long waitMillis(int attempts) {
+        return config.getWaitIntervalFunctionInOpenState().apply(attempts);
+    }
+
+    // ------------------------------------------------------------
+    // Events
+    // ------------------------------------------------------------
+
+    /**
+     * DISABLED and FORCED_OPEN only publish transitions and resets - same
+     * rule as resilience4j.
+     */
+    private void publish(CircuitBreakerEvent event) {
+        if (!events.hasConsumers()) {
+            return;
+        }
+        if (!event.getEventType().forcePublish && !phase.get().state().allowPublish) {
+            return;
+        }
+        try {
+            events.consumeEvent(event);
+        } catch (Throwable t) {
+            logger.warn("Failed to handle event {}", event.getEventType(), t);
+        }
+    }
+
+    private static final class Events extends EventProcessor<CircuitBreakerEvent>
+            implements EventConsumer<CircuitBreakerEvent>, CircuitBreaker.EventPublisher {
+
+        @Override
+        public EventPublisher onSuccess(EventConsumer<CircuitBreakerOnSuccessEvent> consumer) {
+            registerConsumer(CircuitBreakerOnSuccessEvent.class.getName(), consumer);
+            return this;
+        }
+
+        @Override
+        public EventPublisher onError(EventConsumer<CircuitBreakerOnErrorEvent> consumer) {
+            registerConsumer(CircuitBreakerOnErrorEvent.class.getName(), consumer);
+            return this;
+        }
+
+        @Override
+        public EventPublisher onStateTransition(EventConsumer<CircuitBreakerOnStateTransitionEvent> consumer) {
+            registerConsumer(CircuitBreakerOnStateTransitionEvent.class.getName(), consumer);
+            return this;
+        }
+
+        @Override
+        public EventPublisher onReset(EventConsumer<CircuitBreakerOnResetEvent> consumer) {
+            registerConsumer(CircuitBreakerOnResetEvent.class.getName(), consumer);
+            return this;
+        }
+
+        @Override
+        public EventPublisher onIgnoredError(EventConsumer<CircuitBreakerOnIgnoredErrorEvent> consumer) {
+            registerConsumer(CircuitBreakerOnIgnoredErrorEvent.class.getName(), consumer);
+            return this;
+        }
+
+        @Override
+        public EventPublisher onCallNotPermitted(EventConsumer<CircuitBreakerOnCallNotPermittedEvent> consumer) {
+            registerConsumer(CircuitBreakerOnCallNotPermittedEvent.class.getName(), consumer);
+            return this;
+        }
+
+        @Override
+        public EventPublisher onFailureRateExceeded(EventConsumer<CircuitBreakerOnFailureRateExceededEvent> consumer) {
+            registerConsumer(CircuitBreakerOnFailureRateExceededEvent.class.getName(), consumer);
+            return this;
+        }
+
+        @Override
+        public EventPublisher onSlowCallRateExceeded(EventConsumer<CircuitBreakerOnSlowCallRateExceededEvent> consumer) {
+            registerConsumer(CircuitBreakerOnSlowCallRateExceededEvent.class.getName(), consumer);
+            return this;
+        }
+
+        @Override
+        public void consumeEvent(CircuitBreakerEvent event) {
+            processEvent(event);
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Metrics
+    // ------------------------------------------------------------
+
+    /**
+     * Outcome counters of one state; what getMetrics() shows.
+     */
+    private abstract static class Tally implements Metrics {
+
+        final int minimumCalls;
+        final LongAdder notPermitted = new LongAdder();
+
+        Tally(int minimumCalls) {
+            this.minimumCalls = Math.max(1, minimumCalls);
+        }
+
+        abstract void record(boolean failed, boolean slow);
+
+        abstract EpochWindow.Totals totals();
+
+        @Override
+        public float getFailureRate() {
+            EpochWindow.Totals totals = totals();
+            return totals.calls() < minimumCalls ? -1.0f : totals.failureRate();
+        }
+
+        @Override
+        public float getSlowCallRate() {
+            EpochWindow.Totals totals = totals();
+            return totals.calls() < minimumCalls ? -1.0f : totals.slowCallRate();
+        }
+
+        @Override
+        public int getNumberOfSlowCalls() {
+            return (int) totals().slowCalls();
+        }
+
+        @Override
+        public int getNumberOfSlowSuccessfulCalls() {
+            EpochWindow.Totals totals = totals();
+            return (int) (totals.slowCalls() - totals.slowFailedCalls());
+        }
+
+        @Override
+        public int getNumberOfSlowFailedCalls() {
+            return (int) totals().slowFailedCalls();
+        }
+
+        @Override
+        public int getNumberOfBufferedCalls() {
+            return (int) totals().calls();
+        }
+
+        @Override
+        public int getNumberOfFailedCalls() {
+            return (int) totals().failedCalls();
+        }
+
+        @Override
+        public long getNumberOfNotPermittedCalls() {
+            return notPermitted.sum();
+        }
+
+        @Override
+        public int getNumberOfSuccessfulCalls() {
+            EpochWindow.Totals totals = totals();
+            return (int) (totals.calls() - totals.failedCalls());
+        }
+    }
+
+    /** CLOSED / METRICS_ONLY: the striped time window */
+    private final class WindowTally extends Tally {
+
+        private final EpochWindow window = new EpochWindow(windowNanos, buckets);
+
+        WindowTally() {
+            super(config.getMinimumNumberOfCalls());
+        }
+
+        @Override
+        void record(boolean failed, boolean slow) {
+            window.record(clockNanos, failed, slow);
+        }
+
+        @Override
+        EpochWindow.Totals totals() {
+            return window.totals(clockNanos);
+        }
+    }
+
+    /** HALF_OPEN: just the probe calls, all of them */
+    private static final class ProbeTally extends Tally {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failedCalls = new AtomicInteger();
+        private final AtomicInteger slowCalls = new AtomicInteger();
+        private final AtomicInteger slowFailedCalls = new AtomicInteger();
+
+        ProbeTally(int permittedCalls) {
+            super(permittedCalls);
+        }
+
+        @Override
+        void record(boolean failed, boolean slow) {
+            if (failed) {
+                failedCalls.incrementAndGet();
+            }
+            if (slow) {
+                slowCalls.incrementAndGet();
+                if (failed) {
+                    slowFailedCalls.incrementAndGet();
+                }
+            }
+            calls.incrementAndGet();
+        }
+
+        @Override
+        EpochWindow.Totals totals() {
+            return new EpochWindow.Totals(calls.get(), failedCalls.get(), slowCalls.get(), slowFailedCalls.get());
+        }
+    }
+
+    private boolean failureRateExceeded(EpochWindow.Totals totals) {
+        return totals.failureRate() >= config.getFailureRateThreshold();
+    }
+
+    private boolean slowCallRateExceeded(EpochWindow.Totals totals) {
+        return totals.slowCallRate() >= config.getSlowCallRateThreshold();
+    }
+
+    // ------------------------------------------------------------
+    // States
+    // ------------------------------------------------------------
+
+    private abstract class Phase {
+
+        final int attempts;
+        final Tally tally;
+
+        Phase(int attempts, Tally tally) {
+            this.attempts = attempts;
+            this.tally = tally;
+        }
+
+        abstract State state();
+
+        boolean tryAcquirePermission() {
+            return true;
+        }
+
+        void releasePermission() {
+        }
+
+        void record(boolean failed, boolean slow) {
+        }
+
+        void handlePossibleTransition(CircuitBreakerConfig.TransitionCheckResult result) {
+        }
+
+        /** Now the current phase - start timers */
+        void enter() {
+        }
+
+        /** No longer the current phase - stop timers */
+        void leave() {
+        }
+    }
+
+    private final class Closed extends Phase {
+
+        private final AtomicBoolean closed = new AtomicBoolean(true);
+        /** A failure or slow call came before minimumCalls - the call reaching it checks, fast or not */
+        private volatile boolean ratesPending;
+
+        Closed() {
+            super(0, new WindowTally());
+        }
+
+        @Override
+        State state() {
+            return State.CLOSED;
+        }
+
+        @Override
+        boolean tryAcquirePermission() {
+            return closed.get();
+        }
+
+        @Override
+        void record(boolean failed, boolean slow) {
+            tally.record(failed, slow);
+            if (!failed && !slow && !ratesPending) {
+                return;
+            }
+            EpochWindow.Totals totals = tally.totals();
+            if (totals.calls() < tally.minimumCalls) {
+                ratesPending = true;
+                return;
+            }
+            ratesPending = false;
+            boolean failureRateExceeded = failureRateExceeded(totals);
+            boolean slowCallRateExceeded = slowCallRateExceeded(totals);
+            if ((failureRateExceeded || slowCallRateExceeded) && closed.compareAndSet(true, false)) {
+                if (failureRateExceeded) {
+                    publish(new CircuitBreakerOnFailureRateExceededEvent(name, totals.failureRate()));
+                }
+                if (slowCallRateExceeded) {
+                    publish(new CircuitBreakerOnSlowCallRateExceededEvent(name, totals.slowCallRate()));
+                }
+                replace(this, new Open(1, tally, waitMillis(1)));
+            }
+        }
+
+        @Override
+        void handlePossibleTransition(CircuitBreakerConfig.TransitionCheckResult result) {
+            if (!result.isTransitionToOpen() || !closed.compareAndSet(true, false)) {
+                return;
+            }
+            long waitMillis = result.getWaitDuration() != null
+                ? result.getWaitDuration().toMillis()
+                : Duration.between(clock.instant(), result.getWaitUntil()).toMillis();
+            replace(this, new Open(1, tally, waitMillis));
+        }
+    }
+
+    private final class Open extends Phase {
+
+        private final long waitMillis;
+        private final long retryAtNanos;
+        private final AtomicBoolean open = new AtomicBoolean(true);
+        private volatile ScheduledFuture<?> automaticTransition;
+
+        Open(int attempts, Tally tally, long waitMillis) {
+            super(attempts, tally);
+            this.waitMillis = Math.max(0, waitMillis);
+            this.retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.waitMillis);
+        }
+
+        @Override
+        State state() {
+            return State.OPEN;
+        }
+
+        @Override
+        boolean tryAcquirePermission() {
+            if (System.nanoTime() - retryAtNanos >= 0) {
+                toHalfOpen();
+                return phase.get().tryAcquirePermission();
+            }
+            tally.notPermitted.increment();
+            return false;
+        }
+
+        /** Calls that were already running when the breaker opened */
+        @Override
+        void record(boolean failed, boolean slow) {
+            tally.record(failed, slow);
+        }
+
+        @Override
+        void enter() {
+            if (config.isAutomaticTransitionFromOpenToHalfOpenEnabled()) {
+                automaticTransition = SCHEDULER.schedule(this::toHalfOpen, waitMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        void leave() {
+            ScheduledFuture<?> scheduled = automaticTransition;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+
+        private void toHalfOpen() {
+            if (open.compareAndSet(true, false)) {
+                replace(this, new HalfOpen(attempts));
+            }
+        }
+    }
+
+    private final class HalfOpen extends Phase {
+
+        private final int permittedCalls = config.getPermittedNumberOfCallsInHalfOpenState();
+        private final AtomicInteger permits = new AtomicInteger(permittedCalls);
+        private final AtomicBoolean halfOpen = new AtomicBoolean(true);
+        private volatile ScheduledFuture<?> automaticTransition;
+
+        HalfOpen(int attempts) {
+            super(attempts, new ProbeTally(config.getPermittedNumberOfCallsInHalfOpenState()));
+        }
+
+        @Override
+        State state() {
+            return State.HALF_OPEN;
+        }
+
+        @Override
+        boolean tryAcquirePermission() {
+            if (permits.getAndUpdate(current -> current == 0 ? 0 : current - 1) > 0) {
+                return true;
+            }
+            tally.notPermitted.increment();
+            return false;
+        }
+
+        @Override
+        void releasePermission() {
+            permits.incrementAndGet();
+        }
+
+        @Override
+        void record(boolean failed, boolean slow) {
+            tally.record(failed, slow);
+            EpochWindow.Totals totals = tally.totals();
+            if (totals.calls() < tally.minimumCalls) {
+                return;
+            }
+            boolean exceeded = failureRateExceeded(totals) || slowCallRateExceeded(totals);
+            if (halfOpen.compareAndSet(true, false)) {
+                replace(this, exceeded ? new Open(attempts + 1, tally, waitMillis(attempts + 1)) : new Closed());
+            }
+        }
+
+        @Override
+        void enter() {
+            long maxWait = config.getMaxWaitDurationInHalfOpenState().toMillis();
+            if (maxWait >= 1) {
+                automaticTransition = SCHEDULER.schedule(() -> {
+                    if (halfOpen.compareAndSet(true, false)) {
+                        replace(this, new Open(attempts + 1, tally, waitMillis(attempts + 1)));
+                    }
+                }, maxWait, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        void leave() {
+            ScheduledFuture<?> scheduled = automaticTransition;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+
+    private final class Disabled extends Phase {
+
+        Disabled() {
+            super(0, new WindowTally());
+        }
+
+        @Override
+        State state() {
+            return State.DISABLED;
+        }
+    }
+
+    private final class ForcedOpen extends Phase {
+
+        ForcedOpen(int attempts) {
+            super(attempts, new WindowTally());
+        }
+
+        @Override
+        State state() {
+            return State.FORCED_OPEN;
+        }
+
+        @Override
+        boolean tryAcquirePermission() {
+            tally.notPermitted.increment();
+            return false;
+        }
+    }
+
+    private final class MetricsOnly extends Phase {
+
+        private final AtomicBoolean failureRateReported = new AtomicBoolean();
+        private final AtomicBoolean slowCallRateReported = new AtomicBoolean();
+        private volatile boolean ratesPending;
+
+        MetricsOnly() {
+            super(0, new WindowTally());
+        }
+
+        @Override
+        State state() {
+            return State.METRICS_ONLY;
+        }
+
+        @Override
+        void record(boolean failed, boolean slow) {
+            tally.record(failed, slow);
+            if (!failed && !slow && !ratesPending) {
+                return;
+            }
+            EpochWindow.Totals totals = tally.totals();
+            if (totals.calls() < tally.minimumCalls) {
+                ratesPending = true;
+                return;
+            }
+            ratesPending = false;
+            if (failureRateExceeded(totals) && failureRateReported.compareAndSet(false, true)) {
+                publish(new CircuitBreakerOnFailureRateExceededEvent(name, totals.failureRate()));
+            }
+            if (slowCallRateExceeded(totals) && slowCallRateReported.compareAndSet(false, true)) {
+                publish(new CircuitBreakerOnSlowCallRateExceededEvent(name, totals.slowCallRate()));
+            }
+        }
+    }
+
+    // ------------------------------------------------------------
+    // The rest of CircuitBreaker
+    // ------------------------------------------------------------
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public State getState() {
+        return phase.get().state();
+    }
+
+    @Override
+    public CircuitBreakerConfig getCircuitBreakerConfig() {
+        return config;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return phase.get().tally;
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return events;
+    }
+
+    @Override
+    public long getCurrentTimestamp() {
+        return config.getCurrentTimestampFunction().apply(clock);
+    }
+
+    @Override
+    public TimeUnit getTimestampUnit() {
+        return config.getTimestampUnit();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CircuitBreaker '%s'", name);
+    }
+}
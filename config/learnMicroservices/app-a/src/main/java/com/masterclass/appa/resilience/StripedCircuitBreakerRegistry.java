@@ -0,0 +1,163 @@
+package com.masterclass.appa.resilience;
+
+import com.masterclass.appa.config.StripedCircuitBreakerProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.Registry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * ============================================================
+ * CIRCUIT BREAKER REGISTRY WITH STRIPED INSTANCES
+ * ============================================================
+ *
+ * Everything is resilience4j's registry (configs, tags, events, the
+ * instances themselves) - except that a listed circuit breaker is swapped
+ * for a StripedCircuitBreaker with the same config and tags the first time
+ * it is asked for:
+ *
+ *   circuitBreaker("appB.product", "appBOperation")
+ *     → resilience4j creates it (entry added)
+ *     → listed? → replace(name, StripedCircuitBreaker)   (entry replaced)
+ *     → every later lookup finds the striped one
+ *
+ * Listeners on the registry (micrometer metrics, ResilienceEventConfig)
+ * follow the replacement through onEntryReplaced.
+ */
+public class StripedCircuitBreakerRegistry implements CircuitBreakerRegistry {
+
+    private final CircuitBreakerRegistry delegate;
+    private final List<String> instances;
+    private final Duration window;
+    private final int buckets;
+
+    public StripedCircuitBreakerRegistry(CircuitBreakerRegistry delegate, StripedCircuitBreakerProperties properties) {
+        this.delegate = delegate;
+        this.instances = List.copyOf(properties.getInstances());
+        this.window = properties.getWindow();
+        this.buckets = properties.getBuckets();
+        // Instances created from resilience4j.circuitbreaker.instances at startup
+        delegate.getAllCircuitBreakers().forEach(this::striped);
+    }
+
+    private boolean listed(String name) {
+        for (String instance : instances) {
+            if (instance.endsWith("*")
+                ? name.startsWith(instance.substring(0, instance.length() - 1))
+                : name.equals(instance)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CircuitBreaker striped(CircuitBreaker circuitBreaker) {
+        if (circuitBreaker instanceof StripedCircuitBreaker || !listed(circuitBreaker.getName())) {
+            return circuitBreaker;
+        }
+        synchronized (this) {
+            String name = circuitBreaker.getName();
+            CircuitBreaker current = delegate.find(name).orElse(circuitBreaker);
+            if (current instanceof StripedCircuitBreaker) {
+                return current;
+            }
+            StripedCircuitBreaker striped = new StripedCircuitBreaker(
+                name, current.getCircuitBreakerConfig(), current.getTags(), window, buckets);
+            delegate.replace(name, striped);
+            return striped;
+        }
+    }
+
+    @Override
+    public Set<CircuitBreaker> getAllCircuitBreakers() {
+        return delegate.getAllCircuitBreakers();
+    }
+
+    @Override
+    public CircuitBreaker circuitBreaker(String name) {
+        return striped(delegate.circuitBreaker(name));
+    }
+
+    @Override
+    public CircuitBreaker circuitBreaker(String name, Map<String, String> tags) {
+        return striped(delegate.circuitBreaker(name, tags));
+    }
+
+    @Override
+    public CircuitBreaker circuitBreaker(String name, CircuitBreakerConfig config) {
+        return striped(delegate.circuitBreaker(name, config));
+    }
+
+    @Override
+    public CircuitBreaker circuitBreaker(String name, CircuitBreakerConfig config, Map<String, String> tags) {
+        return striped(delegate.circuitBreaker(name, config, tags));
+    }
+
+    @Override
+    public CircuitBreaker circuitBreaker(String name, String configName) {
+        return striped(delegate.circuitBreaker(name, configName));
+    }
+
+    @Override
+    public CircuitBreaker circuitBreaker(String name, String configName, Map<String, String> tags) {
+        return striped(delegate.circuitBreaker(name, configName, tags));
+    }
+
+    @Override
+    public CircuitBreaker circuitBreaker(String name, Supplier<CircuitBreakerConfig> configSupplier) {
+        return striped(delegate.circuitBreaker(name, configSupplier));
+    }
+
+    @Override
+    public CircuitBreaker circuitBreaker(String name, Supplier<CircuitBreakerConfig> configSupplier,
+                                         Map<String, String> tags) {
+        return striped(delegate.circuitBreaker(name, configSupplier, tags));
+    }
+
+    @Override
+    public void addConfiguration(String configName, CircuitBreakerConfig configuration) {
+        delegate.addConfiguration(configName, configuration);
+    }
+
+    @Override
+    public Optional<CircuitBreaker> find(String name) {
+        return delegate.find(name);
+    }
+
+    @Override
+    public Optional<CircuitBreaker> remove(String name) {
+        return delegate.remove(name);
+    }
+
+    @Override
+    public Optional<CircuitBreaker> replace(String name, CircuitBreaker newCircuitBreaker) {
+        return delegate.replace(name, newCircuitBreaker);
+    }
+
+    @Override
+    public Optional<CircuitBreakerConfig> getConfiguration(String configName) {
+        return delegate.getConfiguration(configName);
+    }
+
+    @Override
+    public CircuitBreakerConfig getDefaultConfig() {
+        return delegate.getDefaultConfig();
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return delegate.getTags();
+    }
+
+    @Override
+    public Registry.EventPublisher<CircuitBreaker> getEventPublisher() {
+        return delegate.getEventPublisher();
+    }
+}
@@ -0,0 +1,40 @@
+package com.masterclass.appa.resilience;
+
+/**
+ * A budget for EXTRA work (hedges, retries) as a token bucket.
+ *
+ * Every ordinary event deposits a fraction of a token (the ratio), every
+ * extra attempt withdraws a whole one. With ratio 0.1 extra attempts can't
+ * exceed ~10% of the ordinary ones over time; maxTokens bounds the burst.
+ *
+ *   deposit()      ordinary call / success → +ratio
+ *   tryWithdraw()  extra attempt allowed?  → -1 (or false when empty)
+ */
+public class TokenBucketBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens;
+
+    public TokenBucketBudget(double ratio, double maxTokens) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    public synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    public synchronized boolean tryWithdraw() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    public synchronized double available() {
+        return tokens;
+    }
+}
@@ -1,18 +1,44 @@
 package com.masterclass.appa.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.masterclass.appa.cache.LastKnownGoodCache;
 import com.masterclass.appa.clients.AppBClient;
 import com.masterclass.appa.clients.AppBClientFallback;
-import io.github.resilience4j.bulkhead.annotation.Bulkhead;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
-import io.github.resilience4j.retry.annotation.Retry;
-import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
+import com.masterclass.appa.config.AppBBatchingProperties;
+import com.masterclass.appa.resilience.AppBPartitions;
+import com.masterclass.appa.resilience.AsyncResiliencePipeline;
+import com.masterclass.appa.resilience.HedgedAppBCaller;
+import com.masterclass.appa.resilience.MicroBatcher;
+import com.masterclass.appa.resilience.ResiliencePipeline;
+import com.masterclass.appa.resilience.RetryBudget;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
 
 /**
  * ============================================================
@@ -25,11 +51,11 @@ import java.util.concurrent.CompletableFuture;
  * Instead of calling AppBClient directly from controllers,
  * we call this service which adds:
  * 
- * 1. @CircuitBreaker - Stops calling if service is down
- * 2. @Retry - Retries transient failures
- * 3. @TimeLimiter - Sets timeout deadline
- * 4. @Bulkhead - Isolates thread pool
- * 5. @RateLimiter - Controls request rate
+ * 1. CircuitBreaker - Stops calling if service is down
+ * 2. Retry - Retries transient failures
+ * 3. TimeLimiter - Sets timeout deadline
+ * 4. Bulkhead - Isolates thread pool
+ * 5. RateLimiter - Controls request rate
  * 
  * WHY A SEPARATE SERVICE LAYER?
  * -----------------------------
@@ -38,36 +64,235 @@ import java.util.concurrent.CompletableFuture;
  * 3. Reusability: Multiple controllers can use same resilient calls
  * 4. Clarity: Easy to see which patterns are applied
  * 
- * ANNOTATION ORDER MATTERS!
- * -------------------------
- * The annotations are applied as decorators (outermost to innermost):
+ * PRECOMPOSED PIPELINES (no annotations, no AOP proxy):
+ * -----------------------------------------------------
+ * Every operation is wrapped ONCE, in the constructor, in a ResiliencePipeline
+ * built from the SAME resilience4j instances application.yml configures
+ * (appBRetry, appBCircuitBreaker, appBRateLimiter, appBBulkhead,
+ * appBTimeLimiter, and the per-operation appB.* partitions). A call is then
+ * a direct walk through prebuilt decorators:
+ * no proxy, no per-call registry lookup by name, no reflective
+ * fallbackMethod resolution.
  * 
- * Request → @Bulkhead → @TimeLimiter → @RateLimiter → @CircuitBreaker → @Retry → Actual Call
- *                                                                                    ↓
- * Response ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ← ←
+ * DECORATOR ORDER (same as the annotations used, outermost → innermost):
  * 
- * So if Bulkhead is full → request rejected immediately (doesn't even try others)
- * If Circuit is OPEN → fails fast without retry
- * If all retries fail → fallback triggered
+ * Retry ( CircuitBreaker ( RateLimiter ( TimeLimiter ( Bulkhead ( Function ) ) ) ) )
+ * 
+ * So if Circuit is OPEN → fails fast, never reaches the call
+ * If Bulkhead is full → rejected before the call
+ * The fallback sits where the annotation put it (see each pipeline)
+ * 
+ * MICRO-BATCHED PRODUCTS (app-b.batching.enabled):
+ * ------------------------------------------------
+ * getProduct calls arriving within app-b.batching.window (5ms) of each
+ * other are sent to App B as ONE GET /products?ids=... call (MicroBatcher).
+ * The resilience pipeline then runs once per BATCH, not once per product:
+ * 
+ *   30 getProduct calls → 1 HTTP round trip, 1 Retry/CB/RateLimiter/Bulkhead pass
+ * 
+ * Cost: a product call waits up to one window before it is sent - also
+ * when it is the only one. That is why batching is opt-in: it pays off
+ * for list pages, not for a service answering one product at a time.
+ * The bulk call is not hedged (its latency says nothing about single calls).
+ * 
+ * PARTITIONED PER OPERATION (AppBPartitions):
+ * -------------------------------------------
+ * status, product and greeting each have their OWN circuit breaker and
+ * bulkhead (appB.status / appB.product / appB.greeting), inside the shared
+ * parent bulkhead appBBulkhead:
+ * 
+ *   Retry ( CB appB.product ( RateLimiter ( Fallback ( Bulkhead appB.product ( Bulkhead appBBulkhead ( call ) ) ) ) ) )
+ * 
+ * A slow or failing product endpoint fills/opens only appB.product; status
+ * and greeting keep their permits and their closed breakers.
+ * appBCircuitBreaker is left to the circuit breaker TEST calls, so the
+ * test endpoints open it without taking the real operations down with it.
  */
 @Service
 public class AppBResilientService {
     
     private static final Logger logger = LoggerFactory.getLogger(AppBResilientService.class);
+    private static final ObjectMapper JSON = new ObjectMapper();
     
     private final AppBClient appBClient;
     private final AppBClientFallback fallback;
+    private final LastKnownGoodCache cache;
+    private final HedgedAppBCaller hedging;
     
     // Circuit breaker and other pattern names (match application.yml)
     private static final String CIRCUIT_BREAKER_NAME = "appBCircuitBreaker";
     private static final String RETRY_NAME = "appBRetry";
-    private static final String BULKHEAD_NAME = "appBBulkhead";
     private static final String RATE_LIMITER_NAME = "appBRateLimiter";
     private static final String TIME_LIMITER_NAME = "appBTimeLimiter";
     
-    public AppBResilientService(AppBClient appBClient, AppBClientFallback fallback) {
+    // Plain appBRetry, or the shared retry budget when app-b.retry-budget.enabled
+    private final Retry retry;
+    private final RetryBudget retryBudget;
+    
+    // One prebuilt pipeline per operation
+    private final ResiliencePipeline<Void, String> statusPipeline;
+    private final ResiliencePipeline<String, String> productPipeline;
+    private final ResiliencePipeline<String, String> greetingPipeline;
+    private final ResiliencePipeline<Void, String> circuitBreakerTestPipeline;
+    private final ResiliencePipeline<List<String>, Map<String, String>> productsPipeline;
+    private final Supplier<CompletionStage<String>> statusAsyncPipeline;
+    
+    // Non-blocking twins: backoff/rate-limit waits are timers, not sleeping threads
+    private final ExecutorService appBCallExecutor;
+    private final AsyncResiliencePipeline<String, String> productAsyncPipeline;
+    private final AsyncResiliencePipeline<String, String> greetingAsyncPipeline;
+    private final AsyncResiliencePipeline<Void, String> circuitBreakerTestAsyncPipeline;
+    
+    // Collects concurrent getProduct calls into one bulk call; null when disabled
+    private final MicroBatcher<String, String> productBatcher;
+    
+    public AppBResilientService(
+            AppBClient appBClient,
+            AppBClientFallback fallback,
+            LastKnownGoodCache cache,
+            HedgedAppBCaller hedging,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            RetryRegistry retryRegistry,
+            AppBPartitions partitions,
+            RateLimiterRegistry rateLimiterRegistry,
+            TimeLimiterRegistry timeLimiterRegistry,
+            ScheduledExecutorService resilienceScheduler,
+            @Qualifier("appBCallExecutor") ExecutorService appBCallExecutor,
+            ObjectProvider<RetryBudget> retryBudget,
+            AppBBatchingProperties batching,
+            ObjectProvider<Tracer> tracer,
+            MeterRegistry meterRegistry) {
         this.appBClient = appBClient;
         this.fallback = fallback;
+        this.cache = cache;
+        this.hedging = hedging;
+        this.appBCallExecutor = appBCallExecutor;
+        
+        // Looked up ONCE - the registries hand back the instances configured
+        // under resilience4j.*.instances.<name> in application.yml
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME);
+        this.retry = retryRegistry.retry(RETRY_NAME);
+        RateLimiter rateLimiter = rateLimiterRegistry.rateLimiter(RATE_LIMITER_NAME);
+        TimeLimiter timeLimiter = timeLimiterRegistry.timeLimiter(TIME_LIMITER_NAME);
+        
+        // RETRY BUDGET: retries only while they stay under ratio x recent
+        // successes (shared by all App B calls), never while HALF_OPEN, with
+        // jittered backoff. appBRetry still decides WHAT is retryable, the
+        // backoff and the maximum attempts. Absent when disabled.
+        // Refilled by succeeded() - real App B answers only, never fallbacks.
+        this.retryBudget = retryBudget.getIfAvailable();
+        
+        // PARTITIONS: own breaker + bulkhead per operation, shared parent bulkhead
+        Bulkhead parentBulkhead = partitions.parentBulkhead();
+        AppBPartitions.Partition status = partitions.partition(AppBPartitions.STATUS);
+        AppBPartitions.Partition product = partitions.partition(AppBPartitions.PRODUCT);
+        AppBPartitions.Partition greeting = partitions.partition(AppBPartitions.GREETING);
+        
+        // WITH FALLBACK: the fallback wraps the Bulkhead only (it was declared on
+        // @Bulkhead), so Retry and CircuitBreaker see the fallback's success
+        this.statusPipeline = withRetry(ResiliencePipeline.<Void, String>of("getAppBStatus", ignored -> callStatus())
+            .bulkhead(parentBulkhead)
+            .bulkhead(status.bulkhead())
+            .fallback((ignored, ex) -> getStatusFallback(ex))
+            .rateLimiter(rateLimiter)
+            .circuitBreaker(status.circuitBreaker()));
+        
+        this.productPipeline = withRetry(ResiliencePipeline.of("getProduct", this::callProduct)
+            .bulkhead(parentBulkhead)
+            .bulkhead(product.bulkhead())
+            .fallback(this::getProductFallback)
+            .rateLimiter(rateLimiter)
+            .circuitBreaker(product.circuitBreaker()));
+        
+        this.greetingPipeline = withRetry(ResiliencePipeline.of("getGreeting", this::callGreeting)
+            .bulkhead(parentBulkhead)
+            .bulkhead(greeting.bulkhead())
+            .fallback(this::getGreetingFallback)
+            .rateLimiter(rateLimiter)
+            .circuitBreaker(greeting.circuitBreaker()));
+        
+        // BATCHED PRODUCTS: one pipeline run per bulk call, fallback in the
+        // same place as getProduct's. A failed batch answers NO products, so
+        // every product's future fails and loadProduct answers each with
+        // getProductFallback in ITS caller's trace
+        this.productsPipeline = withRetry(ResiliencePipeline.of("getProducts", this::callProducts)
+            .bulkhead(parentBulkhead)
+            .bulkhead(product.bulkhead())
+            .fallback(this::getProductsFallback)
+            .rateLimiter(rateLimiter)
+            .circuitBreaker(product.circuitBreaker()));
+        this.productBatcher = batching.isEnabled()
+            ? new MicroBatcher<>("getProduct", batching.getWindow(), batching.getMaxBatchSize(),
+                productsPipeline::execute, resilienceScheduler, appBCallExecutor,
+                tracer.getIfAvailable(() -> Tracer.NOOP), meterRegistry)
+            : null;
+        
+        // NO FALLBACK: failures reach CircuitBreaker and Retry.
+        // appBCircuitBreaker (not appB.status) - the breaker the test endpoints show
+        this.circuitBreakerTestPipeline = withRetry(ResiliencePipeline.<Void, String>of("getAppBStatusForCircuitBreakerTest",
+                ignored -> callStatusForCircuitBreakerTest())
+            .bulkhead(parentBulkhead)
+            .bulkhead(status.bulkhead())
+            .rateLimiter(rateLimiter)
+            .circuitBreaker(circuitBreaker));
+        
+        // ASYNC: Fallback ( CircuitBreaker ( Fallback ( TimeLimiter ( call ) ) ) )
+        // - both annotations declared getStatusAsyncFallback
+        Supplier<CompletionStage<String>> timed =
+            timeLimiter.decorateCompletionStage(resilienceScheduler, this::callStatusAsync);
+        this.statusAsyncPipeline = withAsyncFallback(
+            CircuitBreaker.decorateCompletionStage(status.circuitBreaker(), withAsyncFallback(timed)));
+        
+        // NON-BLOCKING VARIANTS: same instances, same order, same fallbacks.
+        // The App B call runs on appBCallExecutor; everything else is timers.
+        this.productAsyncPipeline = withAsyncRetry(AsyncResiliencePipeline.<String, String>of("getProductAsync",
+                productId -> onCallExecutor(() -> callProduct(productId)), resilienceScheduler)
+            .bulkhead(parentBulkhead)
+            .bulkhead(product.bulkhead())
+            .fallback(this::getProductFallback)
+            .rateLimiter(rateLimiter)
+            .circuitBreaker(product.circuitBreaker()));
+        
+        this.greetingAsyncPipeline = withAsyncRetry(AsyncResiliencePipeline.<String, String>of("getGreetingAsync",
+                name -> onCallExecutor(() -> callGreeting(name)), resilienceScheduler)
+            .bulkhead(parentBulkhead)
+            .bulkhead(greeting.bulkhead())
+            .fallback(this::getGreetingFallback)
+            .rateLimiter(rateLimiter)
+            .circuitBreaker(greeting.circuitBreaker()));
+        
+        this.circuitBreakerTestAsyncPipeline = withAsyncRetry(AsyncResiliencePipeline.<Void, String>of(
+                "getAppBStatusForCircuitBreakerTestAsync",
+                ignored -> onCallExecutor(this::callStatusForCircuitBreakerTest), resilienceScheduler)
+            .bulkhead(parentBulkhead)
+            .bulkhead(status.bulkhead())
+            .rateLimiter(rateLimiter)
+            .circuitBreaker(circuitBreaker));
+    }
+    
+    private <T, R> ResiliencePipeline<T, R> withRetry(ResiliencePipeline.Builder<T, R> builder) {
+        return (retryBudget != null ? builder.retry(retryBudget) : builder.retry(retry)).build();
+    }
+    
+    private <T, R> AsyncResiliencePipeline<T, R> withAsyncRetry(AsyncResiliencePipeline.Builder<T, R> builder) {
+        return (retryBudget != null ? builder.retry(retryBudget) : builder.retry(retry)).build();
+    }
+    
+    /**
+     * App B really answered - the only thing that refills the retry budget.
+     */
+    private void succeeded() {
+        if (retryBudget != null) {
+            retryBudget.onSuccess();
+        }
+    }
+    
+    /**
+     * Run a blocking App B call on appBCallExecutor (which carries the
+     * caller's MDC and trace span over to its threads).
+     */
+    private CompletableFuture<String> onCallExecutor(Supplier<String> call) {
+        return CompletableFuture.supplyAsync(call, appBCallExecutor);
     }
     
     /**
@@ -101,8 +326,8 @@ public class AppBResilientService {
      * - Outer annotations execute FIRST (in AOP advice)
      * - Inner annotations execute LAST (closest to actual call)
      * 
-     * Resilience4j Aspect Order (from official docs):
-     * Retry ( CircuitBreaker ( RateLimiter ( TimeLimiter ( Bulkhead ( Function ) ) ) ) )
+     * Pipeline order (same as the Resilience4j aspect order):
+     * Retry ( CircuitBreaker ( RateLimiter ( Fallback ( Bulkhead ( Function ) ) ) ) )
      * 
      * THIS METHOD: WITH FALLBACK (Graceful Degradation Pattern)
      * -----------------------------------------------------------
@@ -117,27 +342,25 @@ public class AppBResilientService {
      * 
      * Compare with: getAppBStatusForCircuitBreakerTest() - NO fallback, DOES retry
      */
-    @Retry(name = RETRY_NAME)  // Won't retry (fallback prevents it)
-    @CircuitBreaker(name = CIRCUIT_BREAKER_NAME)  // Won't open (fallback succeeds)
-    @RateLimiter(name = RATE_LIMITER_NAME)
-    @Bulkhead(name = BULKHEAD_NAME, fallbackMethod = "getStatusFallback")  // FALLBACK - Prevents retry!
     public String getAppBStatus() {
-        String traceId = MDC.get("traceId");
-        logger.info("[TRACE: {}] Calling App B status endpoint with resilience patterns", 
-            traceId != null ? traceId : "NO_TRACE");
+        return statusPipeline.execute();
+    }
+    
+    private String callStatus() {
+        logger.debug("Calling App B status endpoint with resilience patterns");
         
         // This call is now protected by:
         // - Circuit Breaker (fails fast if App B is down)
         // - Retry (retries transient failures)
         // - Bulkhead (limited concurrent calls)
         // - Rate Limiter (controlled request rate)
-        return appBClient.getAppBStatus();
+        return fetchStatus();
     }
     
     /**
      * Fallback method for getAppBStatus()
      * 
-     * IMPORTANT: Fallback method signature must match:
+     * Same shape the annotations required:
      * - Same return type
      * - Same parameters + Exception parameter
      * 
@@ -147,10 +370,8 @@ public class AppBResilientService {
      * - BulkheadFullException: Too many concurrent requests
      * - RequestNotPermitted: Rate limit exceeded
      */
-    public String getStatusFallback(Exception ex) {
-        String traceId = MDC.get("traceId");
-        logger.warn("[FALLBACK] [TRACE: {}] getAppBStatus failed: {}. Using fallback.", 
-            traceId != null ? traceId : "NO_TRACE",
+    private String getStatusFallback(Exception ex) {
+        logger.warn("[FALLBACK] getAppBStatus failed: {}. Using fallback.", 
             ex.getClass().getSimpleName() + ": " + ex.getMessage());
         
         return fallback.getAppBStatus();
@@ -159,23 +380,100 @@ public class AppBResilientService {
     /**
      * Get product from App B with resilience.
      * WITH FALLBACK - Demonstrates graceful degradation for product catalog
+     * 
+     * CACHED: a product fetched less than app-b.cache.ttl ago is answered
+     * from LastKnownGoodCache without calling App B (refreshed in the
+     * background when close to expiry). When App B fails, the fallback
+     * serves the last known good product with its age.
      */
-    @Retry(name = RETRY_NAME)  // Won't retry (fallback prevents it)
-    @CircuitBreaker(name = CIRCUIT_BREAKER_NAME)  // Won't open (fallback succeeds)
-    @RateLimiter(name = RATE_LIMITER_NAME)
-    @Bulkhead(name = BULKHEAD_NAME, fallbackMethod = "getProductFallback")  // FALLBACK
     public String getProduct(String productId) {
-        String traceId = MDC.get("traceId");
-        logger.info("[TRACE: {}] Calling App B product endpoint for product: {}", 
-            traceId != null ? traceId : "NO_TRACE", productId);
+        return cache.getFresh(LastKnownGoodCache.key("getProduct", productId),
+                () -> fetchProduct(productId))
+            .orElseGet(() -> fetchProduct(productId));
+    }
+    
+    /**
+     * Batched when enabled: waits (at most one window + the bulk call) for
+     * the batch this product joined.
+     */
+    private String fetchProduct(String productId) {
+        if (productBatcher == null) {
+            return productPipeline.execute(productId);
+        }
+        return loadProduct(productId).join();
+    }
+    
+    /**
+     * A product of a failed batch (getProductsFallback answers none), a
+     * product App B left out of its bulk answer, or a batch that could not
+     * even be started gets the same
+     * fallback as a failed single call. MicroBatcher completes the future in
+     * this caller's context, so the fallback is tagged in the right trace.
+     */
+    private CompletableFuture<String> loadProduct(String productId) {
+        return productBatcher.load(productId).exceptionally(failure -> {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+            if (cause instanceof Exception ex) {
+                return getProductFallback(productId, ex);
+            }
+            throw new CompletionException(cause);
+        });
+    }
+    
+    private String callProduct(String productId) {
+        logger.debug("Calling App B product endpoint for product: {}", productId);
+        
+        // Idempotent GET - hedged to a second instance when unusually slow
+        String product = hedging.call("getProduct", client -> client.getProduct(productId));
+        succeeded();
+        cache.put(LastKnownGoodCache.key("getProduct", productId), product);
+        return product;
+    }
+    
+    /**
+     * ONE App B call for the whole batch. App B answers a JSON object
+     * (product id → product); each product is cached on its own, exactly
+     * as if it had been fetched with callProduct().
+     */
+    private Map<String, String> callProducts(List<String> productIds) {
+        logger.debug("Calling App B bulk product endpoint for {} products: {}", 
+            productIds.size(), productIds);
         
-        return appBClient.getProduct(productId);
+        Map<String, String> products = parseProducts(appBClient.getProducts(productIds));
+        succeeded();
+        products.forEach((productId, product) ->
+            cache.put(LastKnownGoodCache.key("getProduct", productId), product));
+        return products;
+    }
+    
+    private static Map<String, String> parseProducts(String body) {
+        Map<String, String> products = new LinkedHashMap<>();
+        try {
+            JSON.readTree(body).fields().forEachRemaining(entry -> {
+                JsonNode product = entry.getValue();
+                products.put(entry.getKey(), product.isTextual() ? product.asText() : product.toString());
+            });
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("App B bulk product answer is not a JSON object", ex);
+        }
+        return products;
     }
     
-    public String getProductFallback(String productId, Exception ex) {
-        String traceId = MDC.get("traceId");
-        logger.warn("[FALLBACK] [TRACE: {}] getProduct({}) failed: {}. Using fallback.", 
-            traceId != null ? traceId : "NO_TRACE",
+    /**
+     * A failed batch answers no product at all: MicroBatcher then fails each
+     * product's future, and loadProduct falls back per product, in its
+     * caller's trace.
+     */
+    private Map<String, String> getProductsFallback(List<String> productIds, Exception ex) {
+        logger.warn("[FALLBACK] getProducts({} products) failed: {}. Falling back per product.", 
+            productIds.size(),
+            ex.getClass().getSimpleName());
+        return Map.of();
+    }
+    
+    private String getProductFallback(String productId, Exception ex) {
+        logger.warn("[FALLBACK] getProduct({}) failed: {}. Using fallback.", 
             productId,
             ex.getClass().getSimpleName());
         
@@ -185,29 +483,73 @@ public class AppBResilientService {
     /**
      * Get greeting from App B with resilience.
      * WITH FALLBACK - Demonstrates graceful degradation for greeting service
+     * CACHED - same as getProduct()
      */
-    @Retry(name = RETRY_NAME)  // Won't retry (fallback prevents it)
-    @CircuitBreaker(name = CIRCUIT_BREAKER_NAME)  // Won't open (fallback succeeds)
-    @RateLimiter(name = RATE_LIMITER_NAME)
-    @Bulkhead(name = BULKHEAD_NAME, fallbackMethod = "getGreetingFallback")  // FALLBACK
     public String getGreeting(String name) {
-        String traceId = MDC.get("traceId");
-        logger.info("[TRACE: {}] Calling App B greeting endpoint for: {}", 
-            traceId != null ? traceId : "NO_TRACE", name);
+        return cache.getFresh(LastKnownGoodCache.key("getGreeting", name),
+                () -> greetingPipeline.execute(name))
+            .orElseGet(() -> greetingPipeline.execute(name));
+    }
+    
+    private String callGreeting(String name) {
+        logger.debug("Calling App B greeting endpoint for: {}", name);
         
-        return appBClient.getGreeting(name);
+        // Idempotent GET - hedged to a second instance when unusually slow
+        String greeting = hedging.call("getGreeting", client -> client.getGreeting(name));
+        succeeded();
+        cache.put(LastKnownGoodCache.key("getGreeting", name), greeting);
+        return greeting;
     }
     
-    public String getGreetingFallback(String name, Exception ex) {
-        String traceId = MDC.get("traceId");
-        logger.warn("[FALLBACK] [TRACE: {}] getGreeting({}) failed: {}. Using fallback.", 
-            traceId != null ? traceId : "NO_TRACE",
+    private String getGreetingFallback(String name, Exception ex) {
+        logger.warn("[FALLBACK] getGreeting({}) failed: {}. Using fallback.", 
             name,
             ex.getClass().getSimpleName());
         
         return fallback.getGreeting(name);
     }
     
+    /**
+     * ============================================================
+     * NON-BLOCKING VARIANTS (CompletableFuture)
+     * ============================================================
+     * 
+     * Same patterns, same config, same fallbacks as getProduct() /
+     * getGreeting() / getAppBStatusForCircuitBreakerTest() - but nothing
+     * waits on the calling (Tomcat) thread:
+     * 
+     *   - the App B call runs on appBCallExecutor (bounded I/O pool)
+     *   - retry backoff and rate-limiter waits are timers on resilienceScheduler
+     *   - the controller returns the CompletableFuture, so Spring MVC frees the
+     *     Tomcat thread until the answer (or the final failure) arrives
+     * 
+     * During an outage, a request that retries 3 times with 5s backoff holds
+     * a thread for the 3 calls only - not for the 10s of waiting in between.
+     */
+    public CompletableFuture<String> getProductAsync(String productId) {
+        return cache.getFresh(LastKnownGoodCache.key("getProduct", productId),
+                () -> fetchProduct(productId))
+            .map(CompletableFuture::completedFuture)
+            .orElseGet(() -> productBatcher != null
+                ? loadProduct(productId)
+                : productAsyncPipeline.execute(productId));
+    }
+    
+    public CompletableFuture<String> getGreetingAsync(String name) {
+        return cache.getFresh(LastKnownGoodCache.key("getGreeting", name),
+                () -> greetingPipeline.execute(name))
+            .map(CompletableFuture::completedFuture)
+            .orElseGet(() -> greetingAsyncPipeline.execute(name));
+    }
+    
+    /**
+     * NO FALLBACK, like getAppBStatusForCircuitBreakerTest(): the future
+     * fails with the last error (or CallNotPermittedException when OPEN).
+     */
+    public CompletableFuture<String> getAppBStatusForCircuitBreakerTestAsync() {
+        return circuitBreakerTestAsyncPipeline.execute();
+    }
+    
     /**
      * Async version with TimeLimiter
      * 
@@ -219,20 +561,40 @@ public class AppBResilientService {
      * This allows the timeout to actually INTERRUPT the call
      * rather than just timing out after the fact.
      */
-    @TimeLimiter(name = TIME_LIMITER_NAME, fallbackMethod = "getStatusAsyncFallback")
-    @CircuitBreaker(name = CIRCUIT_BREAKER_NAME, fallbackMethod = "getStatusAsyncFallback")
     public CompletableFuture<String> getAppBStatusAsync() {
-        String traceId = MDC.get("traceId");
-        logger.info("[TRACE: {}] Calling App B status (async with timeout)", 
-            traceId != null ? traceId : "NO_TRACE");
+        return statusAsyncPipeline.get().toCompletableFuture();
+    }
+    
+    private CompletableFuture<String> callStatusAsync() {
+        logger.debug("Calling App B status (async with timeout)");
         
-        return CompletableFuture.supplyAsync(() -> appBClient.getAppBStatus());
+        return onCallExecutor(this::fetchStatus);
     }
     
-    public CompletableFuture<String> getStatusAsyncFallback(Exception ex) {
-        String traceId = MDC.get("traceId");
-        logger.warn("[FALLBACK] [TRACE: {}] Async getAppBStatus failed: {}. Using fallback.", 
-            traceId != null ? traceId : "NO_TRACE",
+    /**
+     * Async equivalent of fallbackMethod: a call that throws OR completes
+     * exceptionally is answered with getStatusAsyncFallback.
+     */
+    private Supplier<CompletionStage<String>> withAsyncFallback(Supplier<CompletionStage<String>> inner) {
+        return () -> {
+            CompletionStage<String> stage;
+            try {
+                stage = inner.get();
+            } catch (Exception ex) {
+                return getStatusAsyncFallback(ex);
+            }
+            return stage.exceptionallyCompose(failure -> {
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+                return cause instanceof Exception ex
+                    ? getStatusAsyncFallback(ex)
+                    : CompletableFuture.failedFuture(cause);
+            });
+        };
+    }
+    
+    private CompletableFuture<String> getStatusAsyncFallback(Exception ex) {
+        logger.warn("[FALLBACK] Async getAppBStatus failed: {}. Using fallback.", 
             ex.getClass().getSimpleName());
         
         return CompletableFuture.completedFuture(fallback.getAppBStatus());
@@ -277,6 +639,10 @@ public class AppBResilientService {
      *   6. Circuit breaker records: FAILURE ❌
      *   7. After 5 failures at 50%+ rate → Circuit OPENS! 🔴
      * 
+     *   With app-b.retry-budget.enabled, steps 3-4 only happen while the
+     *   shared retry budget has tokens (and never while HALF_OPEN), and the
+     *   5s wait becomes a random wait in [0, 5s] - see RetryBudget.
+     * 
      * HOW TO TEST BOTH PATTERNS:
      * --------------------------
      * 1. Stop App B
@@ -289,28 +655,37 @@ public class AppBResilientService {
      *    curl http://localhost:8084/api/resilience/app-b/status/cb/test
      *    Result: 500 Error, ~15s, DOES retry, Circuit OPENS after 5 calls
      * 
-     * ANNOTATION ORDER (Official Resilience4j):
-     * -----------------------------------------
-     * @Retry - OUTERMOST (catches exceptions after all inner patterns)
-     * @CircuitBreaker - Records result after retries
-     * @RateLimiter - Controls rate
-     * @Bulkhead - INNERMOST (closest to actual call)
+     * PIPELINE ORDER (Official Resilience4j):
+     * ---------------------------------------
+     * Retry - OUTERMOST (catches exceptions after all inner patterns)
+     * CircuitBreaker - Records result after retries
+     * RateLimiter - Controls rate
+     * Bulkhead - INNERMOST (closest to actual call)
      * 
      * NO FALLBACK = Retry works, Circuit opens, Failures visible
      */
-    @Retry(name = RETRY_NAME)  // No fallback - RETRY WORKS!
-    @CircuitBreaker(name = CIRCUIT_BREAKER_NAME)  // NO FALLBACK - Circuit opens!
-    @RateLimiter(name = RATE_LIMITER_NAME)  // No fallback
-    @Bulkhead(name = BULKHEAD_NAME)  // No fallback - Critical!
     public String getAppBStatusForCircuitBreakerTest() {
-        String traceId = MDC.get("traceId");
-        logger.info("[TRACE: {}] [CB_TEST] Calling App B status WITHOUT FALLBACK for circuit breaker testing", 
-            traceId != null ? traceId : "NO_TRACE");
+        return circuitBreakerTestPipeline.execute();
+    }
+    
+    private String callStatusForCircuitBreakerTest() {
+        logger.info("[CB_TEST] Calling App B status WITHOUT FALLBACK for circuit breaker testing");
         
         // This call has NO fallback, so:
         // - If App B is down → Exception propagates → Circuit breaker counts FAILURE
         // - After 5 failures at 50%+ rate → Circuit OPENS
         // - When circuit is OPEN → CallNotPermittedException thrown immediately
-        return appBClient.getAppBStatus();
+        return fetchStatus();
+    }
+    
+    /**
+     * Status is a live health check, so it is never answered from the cache -
+     * but every good answer is remembered for the fallback.
+     */
+    private String fetchStatus() {
+        String status = appBClient.getAppBStatus();
+        succeeded();
+        cache.put(LastKnownGoodCache.key("getAppBStatus", null), status);
+        return status;
     }
 }
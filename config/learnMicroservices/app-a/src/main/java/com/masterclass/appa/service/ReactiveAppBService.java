@@ -0,0 +1,213 @@
+package com.masterclass.appa.service;
+
+import com.masterclass.appa.cache.LastKnownGoodCache;
+import com.masterclass.appa.clients.AppBClientFallback;
+import com.masterclass.appa.clients.ReactiveAppBClient;
+import com.masterclass.appa.resilience.AppBPartitions;
+import com.masterclass.appa.resilience.RetryBudget;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.ratelimiter.operator.RateLimiterOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * ============================================================
+ * REACTIVE RESILIENT SERVICE (ReactiveAppBClient + Reactor operators)
+ * ============================================================
+ *
+ * Reactive twin of AppBResilientService. Same resilience4j instances
+ * (appBRetry, the appB.* partitions, appBBulkhead, appBRateLimiter,
+ * appBTimeLimiter; appBCircuitBreaker for the test call), same order, same
+ * fallbacks - applied with the resilience4j Reactor operators instead of
+ * decorating functions:
+ *
+ *   client.getProduct(id)                      // Mono, nothing sent yet
+ *       .transformDeferred(Bulkhead appBBulkhead)      // innermost
+ *       .transformDeferred(Bulkhead appB.product)
+ *       .onErrorResume(fallback)
+ *       .transformDeferred(RateLimiter)
+ *       .transformDeferred(CircuitBreaker appB.product)
+ *       .transformDeferred(Retry)               // outermost
+ *
+ * NO THREAD IS HELD:
+ * ------------------
+ * - The call itself: Netty event loop, woken when App B answers
+ * - Retry backoff, rate-limiter waits, timeouts: Reactor timers
+ * - Bulkhead: permit taken on subscribe, released on completion
+ *
+ * DIFFERENCES FROM THE BLOCKING SERVICE:
+ * --------------------------------------
+ * - TimeLimiter on status only, like getAppBStatusAsync; the other calls
+ *   are bounded by the WebClient response timeout (ReactiveAppBClientConfig)
+ * - No hedging (HedgedAppBCaller races Feign calls on threads)
+ * - The last-known-good cache and the retry budget are the SAME ones the
+ *   blocking service uses
+ */
+@Service
+public class ReactiveAppBService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveAppBService.class);
+
+    private final ReactiveAppBClient client;
+    private final AppBClientFallback fallback;
+    private final LastKnownGoodCache cache;
+
+    private final CircuitBreaker circuitBreaker;
+    private final Retry retry;
+    private final RetryBudget retryBudget;
+    private final Bulkhead parentBulkhead;
+    private final AppBPartitions.Partition status;
+    private final AppBPartitions.Partition product;
+    private final AppBPartitions.Partition greeting;
+    private final RateLimiter rateLimiter;
+    private final TimeLimiter timeLimiter;
+
+    public ReactiveAppBService(
+            ReactiveAppBClient client,
+            AppBClientFallback fallback,
+            LastKnownGoodCache cache,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            RetryRegistry retryRegistry,
+            AppBPartitions partitions,
+            RateLimiterRegistry rateLimiterRegistry,
+            TimeLimiterRegistry timeLimiterRegistry,
+            ObjectProvider<RetryBudget> retryBudget) {
+        this.client = client;
+        this.fallback = fallback;
+        this.cache = cache;
+
+        // Same instances (and metrics, and state) as AppBResilientService
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("appBCircuitBreaker");
+        this.retry = retryRegistry.retry("appBRetry");
+        this.parentBulkhead = partitions.parentBulkhead();
+        this.status = partitions.partition(AppBPartitions.STATUS);
+        this.product = partitions.partition(AppBPartitions.PRODUCT);
+        this.greeting = partitions.partition(AppBPartitions.GREETING);
+        this.rateLimiter = rateLimiterRegistry.rateLimiter("appBRateLimiter");
+        this.timeLimiter = timeLimiterRegistry.timeLimiter("appBTimeLimiter");
+        this.retryBudget = retryBudget.getIfAvailable();
+    }
+
+    /**
+     * App B status - live health check, never served from the cache.
+     */
+    public Mono<String> getAppBStatus() {
+        return resilient(status, status.circuitBreaker(),
+                () -> fetchStatus().transformDeferred(TimeLimiterOperator.of(timeLimiter)), ex -> {
+            logFallback("getAppBStatus", null, ex);
+            return fallback.getAppBStatus();
+        });
+    }
+
+    public Mono<String> getProduct(String productId) {
+        String key = LastKnownGoodCache.key("getProduct", productId);
+        return Mono.defer(() -> cache.getFresh(key, () -> product(productId).block())
+            .map(Mono::just)
+            .orElseGet(() -> product(productId)));
+    }
+
+    public Mono<String> getGreeting(String name) {
+        String key = LastKnownGoodCache.key("getGreeting", name);
+        return Mono.defer(() -> cache.getFresh(key, () -> greeting(name).block())
+            .map(Mono::just)
+            .orElseGet(() -> greeting(name)));
+    }
+
+    /**
+     * NO FALLBACK - failures reach CircuitBreaker and Retry
+     * (see AppBResilientService.getAppBStatusForCircuitBreakerTest).
+     */
+    public Mono<String> getAppBStatusForCircuitBreakerTest() {
+        return resilient(status, circuitBreaker, this::fetchStatus, null);
+    }
+
+    private Mono<String> product(String productId) {
+        return resilient(product, product.circuitBreaker(), () -> {
+            logCall("product endpoint for product: " + productId);
+            return client.getProduct(productId)
+                .doOnNext(this::succeeded)
+                .doOnNext(product -> cache.put(LastKnownGoodCache.key("getProduct", productId), product));
+        }, ex -> {
+            logFallback("getProduct", productId, ex);
+            return fallback.getProduct(productId);
+        });
+    }
+
+    private Mono<String> greeting(String name) {
+        return resilient(greeting, greeting.circuitBreaker(), () -> {
+            logCall("greeting endpoint for: " + name);
+            return client.getGreeting(name)
+                .doOnNext(this::succeeded)
+                .doOnNext(greeting -> cache.put(LastKnownGoodCache.key("getGreeting", name), greeting));
+        }, ex -> {
+            logFallback("getGreeting", name, ex);
+            return fallback.getGreeting(name);
+        });
+    }
+
+    private Mono<String> fetchStatus() {
+        logCall("status");
+        return client.getAppBStatus()
+            .doOnNext(this::succeeded)
+            .doOnNext(status -> cache.put(LastKnownGoodCache.key("getAppBStatus", null), status));
+    }
+
+    /**
+     * Retry ( CircuitBreaker ( RateLimiter ( Fallback ( partition Bulkhead ( appBBulkhead ( call ) ) ) ) ) )
+     *
+     * The call is deferred, so every retry sends a NEW request.
+     * fallback == null → no fallback.
+     */
+    private Mono<String> resilient(AppBPartitions.Partition partition, CircuitBreaker circuitBreaker,
+                                   Supplier<Mono<String>> call, Function<Exception, String> fallback) {
+        Mono<String> mono = Mono.defer(call)
+            .transformDeferred(BulkheadOperator.of(parentBulkhead))
+            .transformDeferred(BulkheadOperator.of(partition.bulkhead()));
+        if (fallback != null) {
+            mono = mono.onErrorResume(Exception.class, ex -> Mono.fromSupplier(() -> fallback.apply(ex)));
+        }
+        mono = mono
+            .transformDeferred(RateLimiterOperator.of(rateLimiter))
+            .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+        return retryBudget != null
+            ? mono.retryWhen(retryBudget.reactorRetry(circuitBreaker))
+            : mono.transformDeferred(RetryOperator.of(retry));
+    }
+
+    /**
+     * App B really answered - refills the shared retry budget (fallbacks never do).
+     */
+    private void succeeded(String answer) {
+        if (retryBudget != null) {
+            retryBudget.onSuccess();
+        }
+    }
+
+    private void logCall(String what) {
+        logger.debug("Calling App B {} (reactive)", what);
+    }
+
+    private void logFallback(String operation, String argument, Exception ex) {
+        logger.warn("[FALLBACK] Reactive {}({}) failed: {}. Using fallback.",
+            operation, argument != null ? argument : "",
+            ex.getClass().getSimpleName());
+    }
+}
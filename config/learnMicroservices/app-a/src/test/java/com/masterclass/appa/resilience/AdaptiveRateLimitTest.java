@@ -0,0 +1,151 @@
+package com.masterclass.appa.resilience;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * One refresh period per interval, so "fully used" means at least
+ * limit calls in the interval. Limits 2..20, +1 / x0.5, 5 calls minimum.
+ */
+class AdaptiveRateLimitTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofMillis(500).toNanos();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RateLimiter rateLimiter = RateLimiter.of("appBRateLimiter", RateLimiterConfig.custom()
+        .limitForPeriod(10)
+        .limitRefreshPeriod(Duration.ofSeconds(1))
+        .timeoutDuration(Duration.ZERO)
+        .build());
+    private final AdaptiveRateLimit limit = new AdaptiveRateLimit(rateLimiter, 2, 20, 1, 0.5,
+        Duration.ofMillis(100), 0.5, 0.5, 5, Duration.ofSeconds(1), meterRegistry);
+
+    @Test
+    void startsFromTheConfiguredLimit() {
+        assertThat(limit.limit()).isEqualTo(10);
+        assertThat(meterRegistry.get("appb.ratelimiter.limit").gauge().value()).isEqualTo(10);
+    }
+
+    @Test
+    void fullyUsedLimitGrowsByOne() {
+        successes(10, FAST);
+
+        limit.adjust();
+
+        assertThat(limit.limit()).isEqualTo(11);
+        assertThat(rateLimiter.getRateLimiterConfig().getLimitForPeriod()).isEqualTo(11);
+        assertThat(adjustments("increase")).isEqualTo(1);
+    }
+
+    @Test
+    void underusedLimitIsLeftAlone() {
+        successes(9, FAST);
+
+        limit.adjust();
+
+        assertThat(limit.limit()).isEqualTo(10);
+        assertThat(adjustments("increase")).isZero();
+    }
+
+    @Test
+    void congestionHalvesTheLimit() {
+        successes(4, FAST);
+        limit.onCongestion();
+
+        limit.adjust();
+
+        assertThat(limit.limit()).isEqualTo(5);
+        assertThat(rateLimiter.getRateLimiterConfig().getLimitForPeriod()).isEqualTo(5);
+        assertThat(adjustments("decrease")).isEqualTo(1);
+    }
+
+    @Test
+    void congestionBelowMinimumCallsIsNotActedOn() {
+        successes(3, FAST);
+        limit.onCongestion();
+
+        limit.adjust();
+
+        assertThat(limit.limit()).isEqualTo(10);
+        assertThat(adjustments("decrease")).isZero();
+    }
+
+    @Test
+    void slowCallRateAboveTargetHalvesTheLimit() {
+        successes(3, SLOW);
+        successes(2, FAST);
+
+        limit.adjust();
+
+        assertThat(limit.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void errorRateAboveTargetHalvesTheLimit() {
+        successes(2, FAST);
+        for (int i = 0; i < 3; i++) {
+            limit.onError();
+        }
+
+        limit.adjust();
+
+        assertThat(limit.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void ratesAtTheTargetAreHealthy() {
+        successes(5, FAST);
+        successes(5, SLOW);
+
+        limit.adjust();
+
+        assertThat(limit.limit()).isEqualTo(11);
+    }
+
+    @Test
+    void eachIntervalStartsFromZero() {
+        successes(10, FAST);
+        limit.adjust();
+
+        limit.adjust();
+
+        assertThat(limit.limit()).isEqualTo(11);
+    }
+
+    @Test
+    void limitStaysWithinMinAndMax() {
+        for (int i = 0; i < 10; i++) {
+            successes(5, FAST);
+            limit.onCongestion();
+            limit.adjust();
+        }
+        assertThat(limit.limit()).isEqualTo(2);
+
+        for (int i = 0; i < 30; i++) {
+            successes(limit.limit(), FAST);
+            limit.adjust();
+        }
+        assertThat(limit.limit()).isEqualTo(20);
+    }
+
+    // ------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------
+
+    private void successes(int count, long durationNanos) {
+        for (int i = 0; i < count; i++) {
+            limit.onSuccess(durationNanos);
+        }
+    }
+
+    private double adjustments(String direction) {
+        return meterRegistry.get("appb.ratelimiter.adjustments").tag("direction", direction).counter().count();
+    }
+}
@@ -0,0 +1,59 @@
+package com.masterclass.appa.resilience;
+
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CallerContextTest {
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void shutdown() {
+        MDC.clear();
+        worker.shutdownNow();
+    }
+
+    @Test
+    void taskRunsWithTheCallersMdcAndTheWorkerGetsItsOwnBack() throws Exception {
+        worker.submit(() -> MDC.put("traceId", "worker")).get(1, TimeUnit.SECONDS);
+        MDC.put("traceId", "caller");
+        CallerContext context = CallerContext.capture(Tracer.NOOP);
+
+        Map<String, String> seen = worker.submit(() -> context.call(MDC::getCopyOfContextMap))
+            .get(1, TimeUnit.SECONDS);
+
+        assertThat(seen).containsEntry("traceId", "caller");
+        assertThat(worker.submit(() -> MDC.get("traceId")).get(1, TimeUnit.SECONDS)).isEqualTo("worker");
+    }
+
+    @Test
+    void callerWithoutMdcDoesNotInheritTheWorkersLeftovers() throws Exception {
+        worker.submit(() -> MDC.put("traceId", "someone-else")).get(1, TimeUnit.SECONDS);
+        MDC.clear();
+        CallerContext context = CallerContext.capture(Tracer.NOOP);
+
+        Map<String, String> seen = worker.submit(() -> {
+            Map<String, String> mdc = new HashMap<>();
+            context.run(() -> {
+                Map<String, String> current = MDC.getCopyOfContextMap();
+                if (current != null) {
+                    mdc.putAll(current);
+                }
+            });
+            return mdc;
+        }).get(1, TimeUnit.SECONDS);
+
+        assertThat(seen).isEmpty();
+        assertThat(worker.submit(() -> MDC.get("traceId")).get(1, TimeUnit.SECONDS)).isEqualTo("someone-else");
+    }
+}
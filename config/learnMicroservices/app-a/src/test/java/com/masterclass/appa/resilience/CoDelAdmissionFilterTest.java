@@ -0,0 +1,149 @@
+package com.masterclass.appa.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Requests run on a one-thread QueueTimedExecutor, like Tomcat's: a
+ * request queued behind a task that sleeps N ms really waited N ms for
+ * its thread. Waits are far from the 5ms target either way (0 or 40ms).
+ */
+class CoDelAdmissionFilterTest {
+
+    private static final Duration TARGET = Duration.ofMillis(5);
+    private static final Duration INTERVAL = Duration.ofMillis(100);
+    private static final long QUEUED_MILLIS = 40;
+    private static final String API = "/api/resilience/app-b/status";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CoDelAdmissionFilter filter = new CoDelAdmissionFilter(TARGET, INTERVAL, meterRegistry);
+    private final QueueTimedExecutor tomcat = QueueTimedExecutor.create("codel-test-exec-", 1, 1, Thread.NORM_PRIORITY);
+
+    @AfterEach
+    void shutdown() {
+        tomcat.shutdownNow();
+    }
+
+    @Test
+    void queueThatDrainsWithinTheIntervalIsNotShed() throws Exception {
+        // A burst: one queued request, the next ones get a thread at once
+        assertThat(serve(API, QUEUED_MILLIS).getStatus()).isEqualTo(200);
+        for (int i = 0; i < 5; i++) {
+            assertThat(serve(API, 0).getStatus()).isEqualTo(200);
+            sleep(INTERVAL.toMillis() / 4);
+        }
+
+        assertThat(dropping()).isZero();
+        assertThat(rejected()).isZero();
+    }
+
+    @Test
+    void standingQueueForAWholeIntervalEntersDropping() throws Exception {
+        List<MockHttpServletResponse> responses = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            responses.add(serve(API, QUEUED_MILLIS));
+        }
+
+        MockHttpServletResponse last = responses.get(responses.size() - 1);
+        assertThat(last.getStatus()).isEqualTo(503);
+        assertThat(last.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(last.getContentAsString()).contains("Overloaded");
+        assertThat(dropping()).isEqualTo(1);
+        assertThat(rejected()).isPositive();
+    }
+
+    @Test
+    void requestsThatDidNotWaitAreServedWhileDropping() throws Exception {
+        enterDropping();
+
+        MockHttpServletResponse response = serve(API, 0);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(dropping()).isEqualTo(1);
+    }
+
+    @Test
+    void leavesDroppingOnceTheQueueDrains() throws Exception {
+        enterDropping();
+
+        long until = System.nanoTime() + INTERVAL.toNanos() * 3;
+        while (System.nanoTime() < until) {
+            serve(API, 0);
+            sleep(INTERVAL.toMillis() / 4);
+        }
+
+        assertThat(dropping()).isZero();
+        assertThat(serve(API, QUEUED_MILLIS).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void actuatorIsNeverShed() throws Exception {
+        enterDropping();
+
+        MockHttpServletResponse response = serve("/actuator/health", QUEUED_MILLIS);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    // ------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------
+
+    private void enterDropping() throws Exception {
+        for (int i = 0; i < 20 && dropping() == 0; i++) {
+            serve(API, QUEUED_MILLIS);
+        }
+        assertThat(dropping()).isEqualTo(1);
+    }
+
+    /**
+     * One request through the filter on the executor's thread, after
+     * waiting queuedMillis for it (0 = the thread is free).
+     */
+    private MockHttpServletResponse serve(String uri, long queuedMillis) throws Exception {
+        if (queuedMillis > 0) {
+            tomcat.execute(() -> sleep(queuedMillis));
+        }
+        CompletableFuture<MockHttpServletResponse> result = new CompletableFuture<>();
+        tomcat.execute(() -> {
+            try {
+                MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+                MockHttpServletResponse response = new MockHttpServletResponse();
+                filter.doFilter(request, response, new MockFilterChain());
+                result.complete(response);
+            } catch (Exception ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+        return result.get(5, TimeUnit.SECONDS);
+    }
+
+    private double dropping() {
+        return meterRegistry.get("appa.admission.dropping").gauge().value();
+    }
+
+    private double rejected() {
+        return meterRegistry.get("appa.admission.rejected").counter().count();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
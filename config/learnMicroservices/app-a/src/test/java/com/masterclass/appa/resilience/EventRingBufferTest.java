@@ -0,0 +1,137 @@
+package com.masterclass.appa.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertThat(new EventRingBuffer(5).capacity()).isEqualTo(8);
+        assertThat(new EventRingBuffer(8).capacity()).isEqualTo(8);
+        assertThat(new EventRingBuffer(8192).capacity()).isEqualTo(8192);
+    }
+
+    @Test
+    void emptyBufferPollsMinusOne() {
+        assertThat(new EventRingBuffer(4).poll()).isEqualTo(-1);
+    }
+
+    @Test
+    void codesComeOutInOrder() {
+        EventRingBuffer buffer = new EventRingBuffer(4);
+        buffer.offer(0);
+        buffer.offer(7);
+        buffer.offer(3);
+
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.poll()).isEqualTo(7);
+        assertThat(buffer.poll()).isEqualTo(3);
+        assertThat(buffer.poll()).isEqualTo(-1);
+    }
+
+    @Test
+    void fullBufferRefusesWithoutOverwriting() {
+        EventRingBuffer buffer = new EventRingBuffer(4);
+        for (int code = 0; code < 4; code++) {
+            assertThat(buffer.offer(code)).isTrue();
+        }
+
+        assertThat(buffer.offer(99)).isFalse();
+
+        for (int code = 0; code < 4; code++) {
+            assertThat(buffer.poll()).isEqualTo(code);
+        }
+        assertThat(buffer.poll()).isEqualTo(-1);
+    }
+
+    @Test
+    void pollingFreesSlotsForNewCodes() {
+        EventRingBuffer buffer = new EventRingBuffer(4);
+        for (int code = 0; code < 4; code++) {
+            buffer.offer(code);
+        }
+        buffer.poll();
+
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(buffer.offer(5)).isFalse();
+    }
+
+    @Test
+    void wrapsAroundManyTimes() {
+        EventRingBuffer buffer = new EventRingBuffer(4);
+        for (int round = 0; round < 1_000; round++) {
+            assertThat(buffer.offer(round)).isTrue();
+            assertThat(buffer.offer(round + 1)).isTrue();
+            assertThat(buffer.offer(round + 2)).isTrue();
+            assertThat(buffer.poll()).isEqualTo(round);
+            assertThat(buffer.poll()).isEqualTo(round + 1);
+            assertThat(buffer.poll()).isEqualTo(round + 2);
+        }
+        assertThat(buffer.poll()).isEqualTo(-1);
+    }
+
+    /**
+     * Producers racing one consumer: every accepted code comes out exactly
+     * once, refused ones never do.
+     */
+    @Test
+    void concurrentProducersLoseNothingTheyWereToldWasAccepted() throws InterruptedException {
+        EventRingBuffer buffer = new EventRingBuffer(64);
+        int producers = 4;
+        int codesPerProducer = 50_000;
+        AtomicLong acceptedSum = new AtomicLong();
+        AtomicLong acceptedCount = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            Thread thread = new Thread(() -> {
+                awaitQuietly(start);
+                for (int code = 1; code <= codesPerProducer; code++) {
+                    if (buffer.offer(code)) {
+                        acceptedSum.addAndGet(code);
+                        acceptedCount.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long polledSum = 0;
+        long polledCount = 0;
+        start.countDown();
+        while (threads.stream().anyMatch(Thread::isAlive)) {
+            int code = buffer.poll();
+            if (code >= 0) {
+                polledSum += code;
+                polledCount++;
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int code = buffer.poll(); code >= 0; code = buffer.poll()) {
+            polledSum += code;
+            polledCount++;
+        }
+
+        assertThat(polledCount).isEqualTo(acceptedCount.get());
+        assertThat(polledSum).isEqualTo(acceptedSum.get());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.masterclass.appa.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MicroBatcherTest {
+
+    private static final Duration WINDOW = Duration.ofMillis(20);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<ExecutorService> saturatedPools = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        saturatedPools.forEach(ExecutorService::shutdown);
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void loadsInOneWindowGoOutAsOneBatch() throws Exception {
+        MicroBatcher<String, String> batcher = batcher(10, echo(), executor);
+
+        CompletableFuture<String> one = batcher.load("1");
+        CompletableFuture<String> two = batcher.load("2");
+
+        assertThat(one.get(1, TimeUnit.SECONDS)).isEqualTo("product-1");
+        assertThat(two.get(1, TimeUnit.SECONDS)).isEqualTo("product-2");
+        assertThat(batches).containsExactly(List.of("1", "2"));
+        assertThat(meterRegistry.get("appb.batch.size").summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sameKeyInOneWindowSharesTheFuture() throws Exception {
+        MicroBatcher<String, String> batcher = batcher(10, echo(), executor);
+
+        CompletableFuture<String> first = batcher.load("1");
+        CompletableFuture<String> second = batcher.load("1");
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("product-1");
+        assertThat(batches).containsExactly(List.of("1"));
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForTheWindow() throws Exception {
+        MicroBatcher<String, String> batcher = new MicroBatcher<>("getProduct", Duration.ofMinutes(1), 2,
+            record(echo()), scheduler, executor, Tracer.NOOP, meterRegistry);
+
+        CompletableFuture<String> one = batcher.load("1");
+        CompletableFuture<String> two = batcher.load("2");
+
+        assertThat(one.get(1, TimeUnit.SECONDS)).isEqualTo("product-1");
+        assertThat(two.get(1, TimeUnit.SECONDS)).isEqualTo("product-2");
+        assertThat(batches).containsExactly(List.of("1", "2"));
+    }
+
+    @Test
+    void keyMissingFromTheAnswerFailsOnlyItsOwnFuture() throws Exception {
+        MicroBatcher<String, String> batcher = batcher(10,
+            keys -> Map.of("1", "product-1"), executor);
+
+        CompletableFuture<String> found = batcher.load("1");
+        CompletableFuture<String> missing = batcher.load("2");
+
+        assertThat(found.get(1, TimeUnit.SECONDS)).isEqualTo("product-1");
+        assertThatThrownBy(() -> missing.get(1, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void failedBatchCallFailsEveryFuture() {
+        IllegalStateException down = new IllegalStateException("App B down");
+        MicroBatcher<String, String> batcher = batcher(10, keys -> {
+            throw down;
+        }, executor);
+
+        CompletableFuture<String> one = batcher.load("1");
+        CompletableFuture<String> two = batcher.load("2");
+
+        for (CompletableFuture<String> future : List.of(one, two)) {
+            assertThatThrownBy(() -> future.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCause(down);
+        }
+    }
+
+    @Test
+    void batchTheExecutorRefusesFailsWithRejectedExecution() {
+        ExecutorService full = saturated(new ThreadPoolExecutor.AbortPolicy());
+        MicroBatcher<String, String> batcher = batcher(1, echo(), full);
+
+        CompletableFuture<String> load = batcher.load("1");
+
+        assertThat(load).isCompletedExceptionally();
+        assertThatThrownBy(load::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(batches).isEmpty();
+    }
+
+    /**
+     * Caller-runs would run the blocking bulk call inside load() (or on
+     * the scheduler thread) - the batch is refused instead.
+     */
+    @Test
+    void batchIsNeverRunOnTheDispatchingThread() {
+        ExecutorService callerRuns = saturated(new ThreadPoolExecutor.CallerRunsPolicy());
+        MicroBatcher<String, String> batcher = batcher(1, echo(), callerRuns);
+
+        CompletableFuture<String> load = batcher.load("1");
+
+        assertThat(load).isCompletedExceptionally();
+        assertThatThrownBy(load::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(batches).isEmpty();
+    }
+
+    // ------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------
+
+    private MicroBatcher<String, String> batcher(int maxBatchSize, Function<List<String>, Map<String, String>> batchCall,
+                                                 ExecutorService executor) {
+        return new MicroBatcher<>("getProduct", WINDOW, maxBatchSize, record(batchCall),
+            scheduler, executor, Tracer.NOOP, meterRegistry);
+    }
+
+    private Function<List<String>, Map<String, String>> record(Function<List<String>, Map<String, String>> batchCall) {
+        return keys -> {
+            batches.add(List.copyOf(keys));
+            return batchCall.apply(keys);
+        };
+    }
+
+    /** One thread, busy until the test ends, and no queue - every new task hits the policy */
+    private ExecutorService saturated(RejectedExecutionHandler policy) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new SynchronousQueue<>(), policy);
+        pool.execute(() -> awaitQuietly(release));
+        saturatedPools.add(pool);
+        return pool;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Function<List<String>, Map<String, String>> echo() {
+        return keys -> keys.stream().collect(Collectors.toMap(Function.identity(), key -> "product-" + key));
+    }
+}
@@ -0,0 +1,170 @@
+package com.masterclass.appa.resilience;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RetryBudgetTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void startsWithAFullBucket() {
+        budget(5, 0.5, 2);
+
+        assertThat(tokens()).isEqualTo(2.0);
+    }
+
+    @Test
+    void everyRetryWithdrawsOneTokenUntilTheBucketIsEmpty() {
+        RetryBudget budget = budget(10, 0.5, 2);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> budget.decorate(alwaysFailing(calls), null).apply("1"))
+            .isInstanceOf(UncheckedIOException.class);
+
+        // 1 call + 2 retries paid by the 2 tokens, then budget_exhausted
+        assertThat(calls).hasValue(3);
+        assertThat(tokens()).isZero();
+        assertThat(decisions("retried")).isEqualTo(2);
+        assertThat(decisions("budget_exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    void onlyReportedSuccessesRefillTheBucket() {
+        RetryBudget budget = budget(10, 0.5, 2);
+        drain(budget);
+
+        // A successful call through decorate() is not a deposit - the caller reports App B answers
+        budget.decorate(Function.identity(), null).apply("1");
+        assertThat(tokens()).isZero();
+
+        budget.onSuccess();
+        budget.onSuccess();
+        assertThat(tokens()).isEqualTo(1.0);
+
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(() -> budget.decorate(alwaysFailing(calls), null).apply("1"))
+            .isInstanceOf(UncheckedIOException.class);
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void depositsStopAtMaxTokens() {
+        RetryBudget budget = budget(10, 0.5, 2);
+
+        for (int i = 0; i < 100; i++) {
+            budget.onSuccess();
+        }
+
+        assertThat(tokens()).isEqualTo(2.0);
+    }
+
+    @Test
+    void maxAttemptsStillCapsACallWithBudgetToSpare() {
+        RetryBudget budget = budget(3, 0.1, 100);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> budget.decorate(alwaysFailing(calls), null).apply("1"))
+            .isInstanceOf(UncheckedIOException.class);
+
+        assertThat(calls).hasValue(3);
+        assertThat(tokens()).isEqualTo(98.0);
+        assertThat(decisions("max_attempts")).isEqualTo(1);
+    }
+
+    @Test
+    void neverRetriesWhileTheCircuitIsHalfOpen() {
+        RetryBudget budget = budget(5, 0.5, 2);
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("appB.product");
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+
+        assertThat(budget.shouldRetry(ioFailure(), 1, circuitBreaker)).isFalse();
+        assertThat(tokens()).isEqualTo(2.0);
+        assertThat(decisions("half_open")).isEqualTo(1);
+    }
+
+    @Test
+    void nonRetryableFailuresCostNothing() {
+        RetryBudget budget = budget(5, 0.5, 2);
+
+        assertThat(budget.shouldRetry(new IllegalArgumentException("bad id"), 1, null)).isFalse();
+        assertThat(tokens()).isEqualTo(2.0);
+    }
+
+    @Test
+    void reactorRetryPaysFromTheSameBucket() {
+        RetryBudget budget = budget(10, 0.5, 2);
+        AtomicInteger subscriptions = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> {
+            subscriptions.incrementAndGet();
+            return Mono.<String>error(ioFailure());
+        });
+
+        assertThatThrownBy(() -> call.retryWhen(budget.reactorRetry(null)).block(Duration.ofSeconds(5)))
+            .hasCauseInstanceOf(IOException.class);
+
+        assertThat(subscriptions).hasValue(3);
+        assertThat(tokens()).isZero();
+    }
+
+    @Test
+    void jitteredBackoffStaysWithinTheConfiguredWait() {
+        RetryBudget budget = budget(5, 0.5, 2);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(budget.jitteredBackoff(1, ioFailure())).isBetween(0L, 1L);
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------
+
+    private RetryBudget budget(int maxAttempts, double ratio, double maxTokens) {
+        RetryConfig config = RetryConfig.custom()
+            .maxAttempts(maxAttempts)
+            .waitDuration(Duration.ofMillis(1))
+            .retryExceptions(IOException.class, UncheckedIOException.class)
+            .build();
+        return new RetryBudget(Retry.of("appBRetry", config), ratio, maxTokens, meterRegistry);
+    }
+
+    private static void drain(RetryBudget budget) {
+        while (budget.shouldRetry(ioFailure(), 1, null)) {
+            // withdraw
+        }
+    }
+
+    private static Function<String, String> alwaysFailing(AtomicInteger calls) {
+        return id -> {
+            calls.incrementAndGet();
+            throw new UncheckedIOException(ioFailure());
+        };
+    }
+
+    private static IOException ioFailure() {
+        return new IOException("App B down");
+    }
+
+    private double tokens() {
+        return meterRegistry.get("appb.retry.budget.tokens").gauge().value();
+    }
+
+    private double decisions(String decision) {
+        return meterRegistry.get("appb.retry.decisions").tag("decision", decision).counter().count();
+    }
+}
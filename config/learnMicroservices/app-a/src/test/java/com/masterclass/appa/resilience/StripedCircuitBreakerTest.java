@@ -0,0 +1,249 @@
+package com.masterclass.appa.resilience;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker.State;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker.StateTransition;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * StripedCircuitBreaker must walk the same state machine as resilience4j's
+ * own breaker for the same CircuitBreakerConfig: every scenario drives both
+ * with the same calls and compares states, metrics and transition events
+ * after each step.
+ *
+ * The scenarios stay below slidingWindowSize calls and well inside the
+ * striped window - there "the last N calls" and "the last 10s" hold the
+ * same calls.
+ */
+class StripedCircuitBreakerTest {
+
+    private static final long WAIT_IN_OPEN_MILLIS = 50;
+
+    private static final CircuitBreakerConfig CONFIG = CircuitBreakerConfig.custom()
+        .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+        .slidingWindowSize(10)
+        .minimumNumberOfCalls(4)
+        .failureRateThreshold(50)
+        .slowCallDurationThreshold(Duration.ofMillis(100))
+        .slowCallRateThreshold(50)
+        .waitDurationInOpenState(Duration.ofMillis(WAIT_IN_OPEN_MILLIS))
+        .permittedNumberOfCallsInHalfOpenState(2)
+        .ignoreExceptions(IllegalArgumentException.class)
+        .build();
+
+    // ------------------------------------------------------------
+    // Steps of a scenario - each runs against both breakers
+    // ------------------------------------------------------------
+
+    private interface Step {
+        void apply(CircuitBreaker breaker);
+    }
+
+    private static final Step SUCCESS = breaker -> {
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.onSuccess(1, TimeUnit.MILLISECONDS);
+    };
+
+    private static final Step SLOW_SUCCESS = breaker -> {
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.onSuccess(200, TimeUnit.MILLISECONDS);
+    };
+
+    private static final Step FAILURE = breaker -> {
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.onError(1, TimeUnit.MILLISECONDS, new IOException("App B down"));
+    };
+
+    private static final Step IGNORED = breaker -> {
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.onError(1, TimeUnit.MILLISECONDS, new IllegalArgumentException("bad request"));
+    };
+
+    private static final Step REJECTED = breaker -> assertThat(breaker.tryAcquirePermission()).isFalse();
+
+    /** Sleeps past waitDurationInOpenState - once, for both breakers */
+    private static final Step WAIT_IN_OPEN = breaker -> {
+    };
+
+    // ------------------------------------------------------------
+    // CLOSED
+    // ------------------------------------------------------------
+
+    @Test
+    void staysClosedBelowMinimumNumberOfCalls() {
+        Pair pair = assertSameBehaviour(FAILURE, FAILURE, FAILURE);
+
+        assertThat(pair.striped.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void staysClosedBelowFailureRateThreshold() {
+        Pair pair = assertSameBehaviour(SUCCESS, SUCCESS, FAILURE, SUCCESS, SUCCESS);
+
+        assertThat(pair.striped.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        Pair pair = assertSameBehaviour(SUCCESS, FAILURE, SUCCESS, FAILURE);
+
+        assertThat(pair.striped.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void opensWhenSlowCallRateReachesThreshold() {
+        Pair pair = assertSameBehaviour(SLOW_SUCCESS, SUCCESS, SLOW_SUCCESS, SUCCESS);
+
+        assertThat(pair.striped.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void ignoredExceptionsDontCount() {
+        Pair pair = assertSameBehaviour(IGNORED, IGNORED, IGNORED, SUCCESS, IGNORED);
+
+        assertThat(pair.striped.getState()).isEqualTo(State.CLOSED);
+        assertThat(pair.striped.getMetrics().getNumberOfBufferedCalls()).isEqualTo(1);
+    }
+
+    // ------------------------------------------------------------
+    // OPEN / HALF_OPEN
+    // ------------------------------------------------------------
+
+    @Test
+    void openRejectsCallsUntilTheWaitIsOver() {
+        Pair pair = assertSameBehaviour(FAILURE, FAILURE, FAILURE, FAILURE, REJECTED, REJECTED);
+
+        assertThat(pair.striped.getMetrics().getNumberOfNotPermittedCalls())
+            .isEqualTo(pair.reference.getMetrics().getNumberOfNotPermittedCalls())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void halfOpenClosesWhenProbesSucceed() {
+        Pair pair = assertSameBehaviour(FAILURE, FAILURE, FAILURE, FAILURE, WAIT_IN_OPEN, SUCCESS, SUCCESS);
+
+        assertThat(pair.striped.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void halfOpenReopensWhenProbesFail() {
+        Pair pair = assertSameBehaviour(FAILURE, FAILURE, FAILURE, FAILURE, WAIT_IN_OPEN, SUCCESS, FAILURE);
+
+        assertThat(pair.striped.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void halfOpenPermitsOnlyItsProbeCalls() {
+        Pair pair = new Pair();
+        for (CircuitBreaker breaker : pair.both()) {
+            breaker.transitionToOpenState();
+            breaker.transitionToHalfOpenState();
+            assertThat(breaker.tryAcquirePermission()).isTrue();
+            assertThat(breaker.tryAcquirePermission()).isTrue();
+            assertThat(breaker.tryAcquirePermission()).isFalse();
+            assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        }
+        assertThat(pair.stripedTransitions).isEqualTo(pair.referenceTransitions);
+    }
+
+    // ------------------------------------------------------------
+    // Manual transitions
+    // ------------------------------------------------------------
+
+    @Test
+    void forcedOpenRejectsAndDisabledIgnoresOutcomes() {
+        Pair pair = new Pair();
+        for (CircuitBreaker breaker : pair.both()) {
+            breaker.transitionToForcedOpenState();
+            assertThatThrownBy(breaker::acquirePermission).isInstanceOf(CallNotPermittedException.class);
+
+            breaker.transitionToDisabledState();
+            for (int i = 0; i < 5; i++) {
+                FAILURE.apply(breaker);
+            }
+            assertThat(breaker.getState()).isEqualTo(State.DISABLED);
+        }
+        assertThat(pair.stripedTransitions).isEqualTo(pair.referenceTransitions);
+    }
+
+    @Test
+    void resetClosesAndEmptiesTheWindow() {
+        Pair pair = assertSameBehaviour(FAILURE, FAILURE, FAILURE, FAILURE);
+        for (CircuitBreaker breaker : pair.both()) {
+            breaker.reset();
+            assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+            assertThat(breaker.getMetrics().getNumberOfBufferedCalls()).isZero();
+        }
+        assertThat(pair.stripedTransitions).isEqualTo(pair.referenceTransitions);
+    }
+
+    // ------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------
+
+    private static Pair assertSameBehaviour(Step... steps) {
+        Pair pair = new Pair();
+        for (Step step : steps) {
+            if (step == WAIT_IN_OPEN) {
+                sleep(WAIT_IN_OPEN_MILLIS * 2);
+                continue;
+            }
+            step.apply(pair.reference);
+            step.apply(pair.striped);
+
+            CircuitBreaker.Metrics expected = pair.reference.getMetrics();
+            CircuitBreaker.Metrics actual = pair.striped.getMetrics();
+            assertThat(pair.striped.getState()).isEqualTo(pair.reference.getState());
+            assertThat(actual.getNumberOfBufferedCalls()).isEqualTo(expected.getNumberOfBufferedCalls());
+            assertThat(actual.getNumberOfFailedCalls()).isEqualTo(expected.getNumberOfFailedCalls());
+            assertThat(actual.getNumberOfSlowCalls()).isEqualTo(expected.getNumberOfSlowCalls());
+            assertThat(actual.getFailureRate()).isEqualTo(expected.getFailureRate());
+            assertThat(actual.getSlowCallRate()).isEqualTo(expected.getSlowCallRate());
+        }
+        assertThat(pair.stripedTransitions).isEqualTo(pair.referenceTransitions);
+        return pair;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * resilience4j's breaker and the striped one, same config, each with
+     * the transitions it published.
+     */
+    private static final class Pair {
+
+        final CircuitBreaker reference = CircuitBreaker.of("reference", CONFIG);
+        final CircuitBreaker striped = new StripedCircuitBreaker("striped", CONFIG, Map.of(),
+            Duration.ofSeconds(10), 10);
+        final List<StateTransition> referenceTransitions = new ArrayList<>();
+        final List<StateTransition> stripedTransitions = new ArrayList<>();
+
+        Pair() {
+            reference.getEventPublisher().onStateTransition(event -> referenceTransitions.add(event.getStateTransition()));
+            striped.getEventPublisher().onStateTransition(event -> stripedTransitions.add(event.getStateTransition()));
+        }
+
+        List<CircuitBreaker> both() {
+            return List.of(reference, striped);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.masterclass.appb.config;
 
+import com.masterclass.tracing.TailSamplingSpanHandler;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
 import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,6 +15,12 @@ import org.springframework.context.annotation.Configuration;
  * This config adds a Feign interceptor to propagate trace IDs in HTTP headers.
  * 
  * Uses tracer.currentSpan() which is reliable across thread boundaries.
+ * 
+ * The header also carries the SAMPLING DECISION (b3=traceId-spanId-1|0),
+ * so the next service knows whether to report its part of the trace:
+ * 1 = baseline-sampled, or already kept by the tail sampler (a previous
+ * attempt failed, a fallback was served...); 0 = undecided, the next
+ * service tail-samples on its own. See TailSamplingSpanHandler.
  */
 @Configuration
 public class BraveTracingConfig {
@@ -25,7 +33,9 @@ public class BraveTracingConfig {
      * thread context propagation in async/threaded environments.
      */
     @Bean
-    public RequestInterceptor feignTracingInterceptor(Tracer tracer) {
+    public RequestInterceptor feignTracingInterceptor(Tracer tracer,
+                                                      ObjectProvider<TailSamplingSpanHandler> tailSamplingProvider) {
+        TailSamplingSpanHandler tailSampling = tailSamplingProvider.getIfAvailable();
         return template -> {
             // Get current span using Micrometer's recommended method
             // currentSpan() is reliable across thread boundaries
@@ -36,9 +46,11 @@ public class BraveTracingConfig {
                 String traceId = context.traceId();
                 String spanId = context.spanId();
                 
-                // Add B3 single header format: b3=traceId-spanId
+                // Add B3 single header format: b3=traceId-spanId-sampled
                 if (traceId != null && spanId != null) {
-                    template.header("b3", traceId + "-" + spanId);
+                    boolean sampled = Boolean.TRUE.equals(context.sampled())
+                        || (tailSampling != null && tailSampling.isKept(traceId));
+                    template.header("b3", traceId + "-" + spanId + (sampled ? "-1" : "-0"));
                 }
             }
         };
@@ -9,10 +9,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -40,8 +43,29 @@ public class AppBController {
     @GetMapping("/product/{id}")
     public ResponseEntity<ProductResponse> getProduct(@PathVariable String id) {
         log.info("Product request for ID: {}", id);
+        return ResponseEntity.ok(product(id));
+    }
+
+    /**
+     * Endpoint 1b: Get many products in ONE call
+     * Used by App A's micro-batching (concurrent getProduct calls are
+     * collected for a few ms and sent here together)
+     *
+     * Endpoint: GET /products?ids=1,2,3
+     * Response: { "1": {product 1}, "2": {product 2}, ... } - same product
+     * body as /product/{id}, in request order, duplicates once
+     */
+    @GetMapping("/products")
+    public ResponseEntity<Map<String, ProductResponse>> getProducts(@RequestParam List<String> ids) {
+        log.info("Bulk product request for {} IDs", ids.size());
 
-        ProductResponse response = ProductResponse.builder()
+        Map<String, ProductResponse> products = new LinkedHashMap<>();
+        ids.forEach(id -> products.computeIfAbsent(id, this::product));
+        return ResponseEntity.ok(products);
+    }
+
+    private ProductResponse product(String id) {
+        return ProductResponse.builder()
             .productId(id)
             .productName("Sample Product - " + id)
             .appName(appProperties.getName())
@@ -49,8 +73,6 @@ public class AppBController {
             .environment(appProperties.getEnvironment())
             .timestamp(LocalDateTime.now())
             .build();
-
-        return ResponseEntity.ok(response);
     }
 
     /**
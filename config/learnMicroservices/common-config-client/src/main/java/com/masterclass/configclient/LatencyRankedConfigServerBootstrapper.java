@@ -0,0 +1,147 @@
+package com.masterclass.configclient;
+
+import org.springframework.boot.BootstrapRegistry;
+import org.springframework.boot.BootstrapRegistryInitializer;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.config.client.ConfigServerInstanceProvider;
+import org.springframework.cloud.netflix.eureka.config.EurekaConfigServerBootstrapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ============================================================
+ * CONFIG SERVER DISCOVERY: LEAST-LATENCY INSTANCE RANKING
+ * ============================================================
+ *
+ * PROBLEM:
+ * --------
+ * With spring.cloud.config.discovery.enabled=true the Config Client asks
+ * Eureka for every "config-server" instance and tries their URLs IN ORDER
+ * (moving on to the next one when a fetch fails). Eureka returns them in
+ * registry order, so every client hammers the same first instance.
+ *
+ * WHAT THIS DOES:
+ * ---------------
+ * Wraps the Eureka lookup used by the Config Client (before the Spring
+ * context even exists - hence a BootstrapRegistryInitializer):
+ *
+ *   Eureka instances → probe /actuator/health on each (in parallel)
+ *                    → sort by measured latency (unreachable = last)
+ *                    → shuffle instances within the tolerance of the fastest
+ *
+ * Result:
+ *   - Fastest healthy config server is tried first (least latency)
+ *   - Near-equal servers share the load (spread across the fleet)
+ *   - Slow/dead servers stay in the list as failover targets
+ *
+ * The ranking runs once per config server lookup, i.e. when the Config
+ * Client bootstraps (startup, or a refresh that reloads the config data).
+ * Nothing re-ranks in between: a config server that slows down or joins
+ * later is only seen by the next lookup. Every lookup of one bootstrap
+ * shares one HttpClient (its connection pool and selector thread are
+ * built once, not per ranking).
+ *
+ * PROPERTIES:
+ * -----------
+ * config-discovery.latency-ranking.enabled   (default true)
+ * config-discovery.latency-ranking.probe-timeout-ms (default 500)
+ * config-discovery.latency-ranking.tolerance-ms     (default 20)
+ *
+ * Shared by every service that depends on common-config-client
+ * (registered in its META-INF/spring.factories).
+ */
+public class LatencyRankedConfigServerBootstrapper implements BootstrapRegistryInitializer {
+
+    private static final String PREFIX = "config-discovery.latency-ranking.";
+
+    @Override
+    public void initialize(BootstrapRegistry registry) {
+        // Make sure the Eureka lookup is registered first (registerIfAbsent - safe to call twice)
+        new EurekaConfigServerBootstrapper().initialize(registry);
+
+        BootstrapRegistry.InstanceSupplier<ConfigServerInstanceProvider.Function> eurekaLookup =
+                registry.getRegisteredInstanceSupplier(ConfigServerInstanceProvider.Function.class);
+        if (eurekaLookup == null) {
+            return;
+        }
+
+        registry.register(ConfigServerInstanceProvider.Function.class, context -> {
+            ConfigServerInstanceProvider.Function delegate = eurekaLookup.get(context);
+            Binder binder = context.getOrElse(Binder.class, null);
+            if (delegate == null || binder == null
+                    || !binder.bind(PREFIX + "enabled", Boolean.class).orElse(true)) {
+                return delegate;
+            }
+
+            long probeTimeoutMs = binder.bind(PREFIX + "probe-timeout-ms", Long.class).orElse(500L);
+            long toleranceMs = binder.bind(PREFIX + "tolerance-ms", Long.class).orElse(20L);
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofMillis(probeTimeoutMs))
+                    .build();
+            return serviceId -> rank(httpClient, delegate.apply(serviceId), probeTimeoutMs, toleranceMs);
+        });
+    }
+
+    /**
+     * Probe every instance once and order them fastest-first.
+     */
+    static List<ServiceInstance> rank(HttpClient httpClient, List<ServiceInstance> instances,
+                                      long probeTimeoutMs, long toleranceMs) {
+        if (instances == null || instances.size() < 2) {
+            return instances;
+        }
+
+        List<CompletableFuture<Probe>> probes = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            probes.add(probe(httpClient, instance, probeTimeoutMs));
+        }
+
+        List<Probe> results = new ArrayList<>(probes.size());
+        for (CompletableFuture<Probe> probe : probes) {
+            results.add(probe.join());
+        }
+        results.sort(Comparator.comparingLong(Probe::latencyNanos));
+
+        // Shuffle the group of instances that are "as fast as" the fastest one
+        long cutoff = results.get(0).latencyNanos() + Duration.ofMillis(toleranceMs).toNanos();
+        int fastGroup = 0;
+        while (fastGroup < results.size() && results.get(fastGroup).latencyNanos() <= cutoff) {
+            fastGroup++;
+        }
+        Collections.shuffle(results.subList(0, fastGroup), ThreadLocalRandom.current());
+
+        List<ServiceInstance> ranked = new ArrayList<>(results.size());
+        for (Probe result : results) {
+            ranked.add(result.instance());
+        }
+        return ranked;
+    }
+
+    private static CompletableFuture<Probe> probe(HttpClient httpClient, ServiceInstance instance, long probeTimeoutMs) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(instance.getUri() + "/actuator/health"))
+                .timeout(Duration.ofMillis(probeTimeoutMs))
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    boolean healthy = error == null && response.statusCode() < 500;
+                    return new Probe(instance, healthy ? System.nanoTime() - start : Long.MAX_VALUE);
+                });
+    }
+
+    private record Probe(ServiceInstance instance, long latencyNanos) {
+    }
+}
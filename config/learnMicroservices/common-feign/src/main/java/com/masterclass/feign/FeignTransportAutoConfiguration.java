@@ -0,0 +1,137 @@
+package com.masterclass.feign;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.openfeign.clientconfig.HttpClient5FeignConfiguration.HttpClientBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ============================================================
+ * FEIGN TRANSPORT: POOLED APACHE HTTPCLIENT 5
+ * ============================================================
+ *
+ * BEFORE:
+ * -------
+ * Feign's default client is HttpURLConnection - the JDK keeps at most 5
+ * idle connections per host, nothing is tunable and nothing is measured.
+ * Under load most calls between the apps paid a fresh TCP handshake.
+ *
+ * NOW:
+ * ----
+ * feign-hc5 is on the classpath, so Spring Cloud OpenFeign builds every
+ * Feign client (App A: AppBClient and the per-instance clients of
+ * HedgedAppBCaller, App B: AppAClient) on ONE pooled Apache HttpClient 5:
+ *
+ *   spring.cloud.openfeign.httpclient.max-connections            200 total
+ *   spring.cloud.openfeign.httpclient.max-connections-per-route   50 per target instance
+ *
+ * SOCKET REUSE:
+ * -------------
+ * A pooled connection is only useful if the server hasn't closed it.
+ * Tomcat sends no Keep-Alive header, so by default HttpClient would keep
+ * an idle connection for 3 minutes while the target's Tomcat closes it
+ * after its keep-alive timeout → the next call gets a dead socket.
+ * So idle connections live at most feign-transport.max-idle (30s), which
+ * is below the keep-alive timeout BOTH apps configure (server.tomcat.*).
+ *
+ * METRICS:
+ * --------
+ * httpcomponents.httpclient.pool.total.connections{name=feign,state=leased|available}
+ * httpcomponents.httpclient.pool.total.pending{name=feign}
+ * feign.pool.route.connections{target=host:port,state=leased|available}
+ * feign.pool.route.pending{target=host:port}
+ *
+ * HTTP/2: profile "http2" switches Feign to the JDK HttpClient instead
+ * (one multiplexed connection per target instance, no pool to measure).
+ *
+ * Auto-configured in every service that has common-feign (and feign-hc5)
+ * on its classpath.
+ */
+@AutoConfiguration
+@ConditionalOnClass({PoolingHttpClientConnectionManager.class, HttpClientBuilderCustomizer.class})
+@EnableConfigurationProperties(FeignTransportProperties.class)
+public class FeignTransportAutoConfiguration {
+
+    private final ScheduledExecutorService metricsRefresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "feign-pool-metrics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Bean
+    public HttpClientBuilderCustomizer feignKeepAliveCustomizer(FeignTransportProperties properties) {
+        TimeValue maxIdle = TimeValue.ofMilliseconds(properties.getMaxIdle().toMillis());
+        return builder -> builder
+            .evictIdleConnections(maxIdle)
+            .setKeepAliveStrategy((response, context) -> {
+                // Server's Keep-Alive header if it sends a shorter one, else maxIdle
+                TimeValue offered = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return TimeValue.isPositive(offered) && offered.compareTo(maxIdle) < 0 ? offered : maxIdle;
+            });
+    }
+
+    @Bean
+    public MeterBinder feignPoolMetrics(ObjectProvider<HttpClientConnectionManager> connectionManager,
+                                        FeignTransportProperties properties) {
+        return registry -> {
+            // No pool with the http2 profile (JDK HttpClient)
+            if (!(connectionManager.getIfAvailable() instanceof PoolingHttpClientConnectionManager pool)) {
+                return;
+            }
+            new PoolingHttpClientConnectionManagerMetricsBinder(pool, "feign").bindTo(registry);
+            bindPerTarget(pool, registry, properties);
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        metricsRefresher.shutdownNow();
+    }
+
+    /**
+     * Targets (instances of the called service) come and go, so the gauges are re-listed periodically.
+     */
+    private void bindPerTarget(PoolingHttpClientConnectionManager pool, MeterRegistry registry,
+                               FeignTransportProperties properties) {
+        MultiGauge connections = MultiGauge.builder("feign.pool.route.connections")
+            .description("Pooled Feign connections per target")
+            .register(registry);
+        MultiGauge pending = MultiGauge.builder("feign.pool.route.pending")
+            .description("Feign calls waiting for a pooled connection per target")
+            .register(registry);
+
+        long refreshMillis = properties.getMetricsRefresh().toMillis();
+        metricsRefresher.scheduleWithFixedDelay(() -> {
+            List<MultiGauge.Row<?>> connectionRows = new ArrayList<>();
+            List<MultiGauge.Row<?>> pendingRows = new ArrayList<>();
+            pool.getRoutes().forEach(route -> {
+                String target = route.getTargetHost().toHostString();
+                PoolStats stats = pool.getStats(route);
+                connectionRows.add(MultiGauge.Row.of(Tags.of("target", target, "state", "leased"), stats.getLeased()));
+                connectionRows.add(MultiGauge.Row.of(Tags.of("target", target, "state", "available"), stats.getAvailable()));
+                pendingRows.add(MultiGauge.Row.of(Tags.of("target", target), stats.getPending()));
+            });
+            connections.register(connectionRows, true);
+            pending.register(pendingRows, true);
+        }, 0, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+}
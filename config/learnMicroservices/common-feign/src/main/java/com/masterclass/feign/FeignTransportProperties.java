@@ -0,0 +1,20 @@
+package com.masterclass.feign;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Pooled Feign transport - connection reuse and pool metrics (feign-transport.*)
+ * Pool SIZES are Spring Cloud's own: spring.cloud.openfeign.httpclient.*
+ * See com.masterclass.feign.FeignTransportAutoConfiguration
+ */
+@ConfigurationProperties(prefix = "feign-transport")
+@Data
+public class FeignTransportProperties {
+    /** Idle pooled connections are closed after this - keep it BELOW the server's keep-alive timeout */
+    private Duration maxIdle = Duration.ofSeconds(30);
+    /** How often the per-target pool gauges pick up new targets */
+    private Duration metricsRefresh = Duration.ofSeconds(10);
+}
@@ -0,0 +1,203 @@
+package com.masterclass.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * ============================================================
+ * STRUCTURED JSON LOG ENCODER (one line per event)
+ * ============================================================
+ *
+ * THE PROBLEM:
+ * ------------
+ * The console pattern "%d [%thread] %-5level %logger{36} - [TRACE: %X{traceId}] %msg%n"
+ * is parsed back out of the text by every log shipper, and the services
+ * spliced "[TRACE: {}]" + MDC.get("traceId") into the message by hand -
+ * on the request thread, on every call.
+ *
+ * THE FIX:
+ * --------
+ * One JSON object per line, every field named:
+ *
+ *   {"@timestamp":"2026-10-19T09:15:02.481Z","level":"INFO","service":"app-a",
+ *    "thread":"http-nio-8084-exec-3","logger":"c.m.appa.service.AppBResilientService",
+ *    "traceId":"64f1c2...","spanId":"9a07...","message":"Calling App B status ..."}
+ *
+ * traceId / spanId are put into the MDC by Micrometer Tracing (Brave) for
+ * every request - the encoder picks them (and any other MDC key) up, so no
+ * log statement has to.
+ *
+ * ALLOCATION-LIGHT:
+ * -----------------
+ * Runs on the ONE worker thread of the async appender, so it can own its
+ * buffers: the JSON is built in a reused StringBuilder, UTF-8 encoded into
+ * a reused byte[], and the only allocation per event is the byte[] the
+ * Encoder contract hands back. The "yyyy-MM-dd" part of the timestamp is
+ * cached per day; the time of day is plain arithmetic.
+ */
+public class JsonLogEncoder extends EncoderBase<ILoggingEvent> {
+
+    private static final String TRACE_ID = "traceId";
+    private static final String SPAN_ID = "spanId";
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final StringBuilder json = new StringBuilder(512);
+    private final BiConsumer<String, String> mdcField = this::mdcField;
+    private byte[] utf8 = new byte[1024];
+
+    private long cachedDay = Long.MIN_VALUE;
+    private String cachedDate;
+
+    /** spring.application.name, set from logback-spring.xml */
+    private String service;
+
+    public void setService(String service) {
+        this.service = service == null || service.isBlank() ? null : service;
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    /**
+     * Synchronized for the rare case of a synchronous appender using it -
+     * behind the async appender there is only one caller and the lock is uncontended.
+     */
+    @Override
+    public synchronized byte[] encode(ILoggingEvent event) {
+        StringBuilder out = json;
+        out.setLength(0);
+
+        out.append("{\"@timestamp\":\"");
+        timestamp(out, event.getTimeStamp());
+        out.append('"');
+        field(out, "level", event.getLevel().levelStr);
+        field(out, "service", service);
+        field(out, "thread", event.getThreadName());
+        field(out, "logger", event.getLoggerName());
+
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        if (!mdc.isEmpty()) {
+            field(out, TRACE_ID, mdc.get(TRACE_ID));
+            field(out, SPAN_ID, mdc.get(SPAN_ID));
+            mdc.forEach(mdcField);
+        }
+
+        field(out, "message", event.getFormattedMessage());
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            // Exceptions are rare - the stack trace is allowed to allocate
+            field(out, "exception", ThrowableProxyUtil.asString(throwable));
+        }
+        out.append("}\n");
+
+        return toUtf8(out);
+    }
+
+    private void mdcField(String key, String value) {
+        if (!TRACE_ID.equals(key) && !SPAN_ID.equals(key)) {
+            field(json, key, value);
+        }
+    }
+
+    private static void field(StringBuilder out, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        out.append(",\"");
+        escape(out, name);
+        out.append("\":\"");
+        escape(out, value);
+        out.append('"');
+    }
+
+    private static void escape(StringBuilder out, String value) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * ISO-8601 UTC, e.g. 2026-10-19T09:15:02.481Z
+     */
+    private void timestamp(StringBuilder out, long epochMillis) {
+        long day = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        if (day != cachedDay) {
+            cachedDate = LocalDate.ofEpochDay(day) + "T";
+            cachedDay = day;
+        }
+        int millisOfDay = (int) Math.floorMod(epochMillis, MILLIS_PER_DAY);
+        out.append(cachedDate);
+        twoDigits(out, millisOfDay / 3_600_000).append(':');
+        twoDigits(out, millisOfDay / 60_000 % 60).append(':');
+        twoDigits(out, millisOfDay / 1_000 % 60).append('.');
+        int millis = millisOfDay % 1_000;
+        out.append((char) ('0' + millis / 100))
+            .append((char) ('0' + millis / 10 % 10))
+            .append((char) ('0' + millis % 10))
+            .append('Z');
+    }
+
+    private static StringBuilder twoDigits(StringBuilder out, int value) {
+        return out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    private byte[] toUtf8(StringBuilder chars) {
+        int length = chars.length();
+        if (utf8.length < length * 3) {
+            utf8 = new byte[Math.max(length * 3, utf8.length * 2)];
+        }
+        byte[] bytes = utf8;
+        int n = 0;
+        for (int i = 0; i < length; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                bytes[n++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[n++] = (byte) (0xC0 | c >> 6);
+                bytes[n++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+                bytes[n++] = (byte) (0xF0 | codePoint >> 18);
+                bytes[n++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                bytes[n++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                bytes[n++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                bytes[n++] = '?';
+            } else {
+                bytes[n++] = (byte) (0xE0 | c >> 12);
+                bytes[n++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[n++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return Arrays.copyOf(bytes, n);
+    }
+}
@@ -0,0 +1,155 @@
+package com.masterclass.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.spi.ThrowableProxy;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonLogEncoderTest {
+
+    private static final DateTimeFormatter ISO_MILLIS =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    private final Logger logger = new LoggerContext().getLogger("com.masterclass.appa.service.AppBResilientService");
+    private final JsonLogEncoder encoder = new JsonLogEncoder();
+
+    @Test
+    void oneJsonObjectPerLineWithNamedFields() {
+        encoder.setService("app-a");
+
+        String line = encode(event("Calling App B status", Map.of()));
+
+        assertThat(line).endsWith("}\n").doesNotContain("\n}");
+        DocumentContext json = JsonPath.parse(line);
+        assertThat(json.read("$.level", String.class)).isEqualTo("INFO");
+        assertThat(json.read("$.service", String.class)).isEqualTo("app-a");
+        assertThat(json.read("$.thread", String.class)).isEqualTo("http-nio-8084-exec-3");
+        assertThat(json.read("$.logger", String.class)).isEqualTo(logger.getName());
+        assertThat(json.read("$.message", String.class)).isEqualTo("Calling App B status");
+    }
+
+    @Test
+    void blankServiceIsLeftOut() {
+        encoder.setService(" ");
+
+        assertThat(encode(event("hello", Map.of()))).doesNotContain("\"service\"");
+    }
+
+    @Test
+    void traceIdsComeFirstAndEveryMdcKeyOnce() {
+        Map<String, String> mdc = new LinkedHashMap<>();
+        mdc.put("userId", "42");
+        mdc.put("spanId", "9a07");
+        mdc.put("traceId", "64f1c2");
+
+        String line = encode(event("hello", mdc));
+
+        assertThat(line.indexOf("\"traceId\"")).isLessThan(line.indexOf("\"spanId\""));
+        assertThat(line.indexOf("\"spanId\"")).isLessThan(line.indexOf("\"userId\""));
+        assertThat(line.split("\"traceId\"", -1)).hasSize(2);
+        assertThat(line.split("\"spanId\"", -1)).hasSize(2);
+        assertThat(JsonPath.parse(line).read("$.userId", String.class)).isEqualTo("42");
+    }
+
+    @Test
+    void quotesBackslashesAndControlCharactersAreEscaped() {
+        String message = "say \"hi\" C:\\temp\nline2\r\tend \u0001\u001f";
+
+        String line = encode(event(message, Map.of("key\"with\\quote", "v\"1")));
+
+        assertThat(line).contains("say \\\"hi\\\" C:\\\\temp\\nline2\\r\\tend \\u0001\\u001f");
+        assertThat(line.chars().filter(c -> c == '\n').count()).isEqualTo(1);
+        DocumentContext json = JsonPath.parse(line);
+        assertThat(json.read("$.message", String.class)).isEqualTo(message);
+        Map<String, Object> fields = json.read("$");
+        assertThat(fields).containsEntry("key\"with\\quote", "v\"1");
+    }
+
+    @Test
+    void nonAsciiAndSurrogatePairsAreValidUtf8() {
+        String message = "café ☕ 日本 🚦📉 done";
+
+        byte[] bytes = encoder.encode(event(message, Map.of()));
+        String line = new String(bytes, StandardCharsets.UTF_8);
+
+        assertThat(JsonPath.parse(line).read("$.message", String.class)).isEqualTo(message);
+        assertThat(bytes).isEqualTo(line.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void loneSurrogatesBecomeQuestionMarks() {
+        String message = "high \uD83D alone, low \uDEA6 alone, reversed \uDEA6\uD83D, trailing \uD83D";
+
+        String line = encode(event(message, Map.of()));
+
+        assertThat(JsonPath.parse(line).read("$.message", String.class))
+            .isEqualTo("high ? alone, low ? alone, reversed ??, trailing ?");
+    }
+
+    @Test
+    void longEventsGrowTheBuffer() {
+        String message = "€".repeat(5_000);
+
+        String line = encode(event(message, Map.of()));
+
+        assertThat(JsonPath.parse(line).read("$.message", String.class)).isEqualTo(message);
+    }
+
+    @Test
+    void timestampIsIsoUtcWithMillisAcrossDays() {
+        long[] instants = {
+            0L,
+            Instant.parse("2026-10-19T09:15:02.481Z").toEpochMilli(),
+            Instant.parse("2026-10-19T23:59:59.999Z").toEpochMilli(),
+            Instant.parse("2026-10-20T00:00:00.007Z").toEpochMilli(),
+            Instant.parse("1969-12-31T23:59:59.500Z").toEpochMilli()
+        };
+
+        for (long millis : instants) {
+            LoggingEvent event = event("tick", Map.of());
+            event.setTimeStamp(millis);
+
+            assertThat(JsonPath.parse(encode(event)).read("$['@timestamp']", String.class))
+                .isEqualTo(ISO_MILLIS.format(Instant.ofEpochMilli(millis)));
+        }
+    }
+
+    @Test
+    void exceptionIsAddedAsOneEscapedField() {
+        LoggingEvent event = event("App B call failed", Map.of());
+        event.setThrowableProxy(new ThrowableProxy(new IllegalStateException("503 from App B")));
+
+        String exception = JsonPath.parse(encode(event)).read("$.exception", String.class);
+
+        assertThat(exception).startsWith("java.lang.IllegalStateException: 503 from App B");
+        assertThat(exception).contains("at com.masterclass.logging.JsonLogEncoderTest");
+    }
+
+    // ------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------
+
+    private LoggingEvent event(String message, Map<String, String> mdc) {
+        LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, Level.INFO, message, null, null);
+        event.setThreadName("http-nio-8084-exec-3");
+        event.setMDCPropertyMap(mdc);
+        return event;
+    }
+
+    private String encode(LoggingEvent event) {
+        return new String(encoder.encode(event), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,60 @@
+package com.masterclass.tracing;
+
+import brave.Tracing;
+import brave.TracingCustomizer;
+import brave.handler.SpanHandler;
+import brave.propagation.CurrentTraceContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tail-based sampling for every service that has common-tracing on its
+ * classpath (and Brave) - see TailSamplingSpanHandler.
+ *
+ * The handler must see a span BEFORE any reporter does, and Spring Boot
+ * already registers Micrometer's CompositeSpanHandler at the highest
+ * precedence. So the customizer doesn't rely on bean order: it puts the
+ * tail sampler first and hands it the rest of the chain to report to.
+ *
+ *   before: [CompositeSpanHandler, zipkin, ...]
+ *   after:  [TailSamplingSpanHandler] ──kept traces──► [CompositeSpanHandler, zipkin, ...]
+ *
+ * Disable: tracing.tail-sampling.enabled=false
+ */
+@AutoConfiguration
+@ConditionalOnClass(Tracing.class)
+@ConditionalOnProperty(prefix = "tracing.tail-sampling", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(TailSamplingProperties.class)
+public class TailSamplingAutoConfiguration {
+
+    @Bean
+    public TailSamplingSpanHandler tailSamplingSpanHandler(CurrentTraceContext currentTraceContext,
+                                                           TailSamplingProperties properties,
+                                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        return new TailSamplingSpanHandler(currentTraceContext, properties,
+            meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    public TracingCustomizer tailSamplingTracingCustomizer(TailSamplingSpanHandler tailSampling) {
+        return builder -> {
+            List<SpanHandler> downstream = new ArrayList<>(builder.spanHandlers());
+            downstream.remove(tailSampling);
+            builder.clearSpanHandlers().addSpanHandler(tailSampling);
+            downstream.forEach(builder::addSpanHandler);
+            tailSampling.downstream(downstream);
+
+            // Record every span locally - the head sampler only decides what is reported right away
+            builder.alwaysSampleLocal();
+        };
+    }
+}
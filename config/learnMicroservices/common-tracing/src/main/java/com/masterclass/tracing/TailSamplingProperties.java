@@ -0,0 +1,28 @@
+package com.masterclass.tracing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Tail-based trace sampling (tracing.tail-sampling.*)
+ * See com.masterclass.tracing.TailSamplingSpanHandler
+ *
+ * The baseline - traces kept no matter what - is Spring Boot's head sampler:
+ * management.tracing.sampling.probability
+ */
+@ConfigurationProperties(prefix = "tracing.tail-sampling")
+@Data
+public class TailSamplingProperties {
+    /** false → every span follows the head sampler only (Spring Boot default behaviour) */
+    private boolean enabled = true;
+    /** A trace whose local root span takes at least this long is kept */
+    private Duration latencyThreshold = Duration.ofMillis(500);
+    /** A trace still buffered after this long is decided anyway (its root span never ended) */
+    private Duration traceTimeout = Duration.ofSeconds(30);
+    /** Traces buffered at once - beyond that, new unsampled traces are dropped unseen */
+    private int maxTraces = 10_000;
+    /** Spans buffered per trace - beyond that, a kept trace is reported truncated */
+    private int maxSpansPerTrace = 128;
+}
@@ -0,0 +1,287 @@
+package com.masterclass.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.CurrentTraceContext;
+import brave.propagation.TraceContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ============================================================
+ * TAIL-BASED TRACE SAMPLING (decide AFTER the request, not before)
+ * ============================================================
+ *
+ * THE PROBLEM:
+ * ------------
+ * A head sampler decides when the trace STARTS - before anybody knows
+ * whether the request will be slow or fail:
+ *
+ *   probability 1.0  → every request pays for every span being reported
+ *   probability 0.01 → cheap, but 99% of the slow/failing requests are gone
+ *
+ * THE FIX:
+ * --------
+ * Every span is still recorded locally (Brave "alwaysSampleLocal"), but a
+ * span that isn't head-sampled is NOT reported - it goes into a small
+ * buffer of its trace:
+ *
+ *   span ends ──► head-sampled? ──yes──► report (baseline)
+ *                     │ no
+ *                     ▼
+ *   trace 6f1c… [client span][client span][...]   ← bounded, per trace
+ *                     │
+ *   local root span ends → interesting? ──yes──► report the whole buffer
+ *                                       └─no───► drop it
+ *
+ * INTERESTING = any of:
+ *   - a span with an error (exception, or outcome SERVER_ERROR)
+ *   - the local root span took >= tracing.tail-sampling.latency-threshold
+ *   - keepCurrentTrace(reason) was called - e.g. a fallback was served or
+ *     a circuit breaker refused the call (both look like 200 OK otherwise)
+ *
+ * Plus the baseline: management.tracing.sampling.probability of all traces
+ * is head-sampled and reported as usual, interesting or not.
+ *
+ * DOWNSTREAM:
+ * -----------
+ * The sampling flag travels in the b3 header (see BraveTracingConfig):
+ *   ...-1  baseline, or this trace is already known to be interesting
+ *          → the next service reports its part unconditionally
+ *   ...-0  undecided → the next service tail-samples its own part
+ *
+ * BOUNDED:
+ * --------
+ * At most max-traces traces and max-spans-per-trace spans each. A trace
+ * whose local root never ends is decided after trace-timeout (checked
+ * while other traces finish - no extra thread).
+ *
+ * Metrics: tracing.tail.traces{decision=kept|dropped, reason}, tracing.tail.buffered
+ */
+public class TailSamplingSpanHandler extends SpanHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TailSamplingSpanHandler.class);
+
+    /**
+     * Spans of one trace, until its local root span ends.
+     */
+    private static final class TraceBuffer {
+        final long createdNanos = System.nanoTime();
+        final TraceContext[] contexts;
+        final MutableSpan[] spans;
+        int size;
+        int truncated;
+        volatile String keepReason;
+        // Guarded by this: kept and reported - later spans of the trace are reported directly
+        boolean reported;
+
+        TraceBuffer(int capacity) {
+            this.contexts = new TraceContext[capacity];
+            this.spans = new MutableSpan[capacity];
+        }
+
+        void keep(String reason) {
+            if (keepReason == null) {
+                keepReason = reason;
+            }
+        }
+
+        void add(TraceContext context, MutableSpan span) {
+            if (size == spans.length) {
+                truncated++;
+                return;
+            }
+            contexts[size] = context;
+            spans[size++] = span;
+        }
+    }
+
+    private final Map<String, TraceBuffer> traces = new ConcurrentHashMap<>();
+    private final Map<String, Counter> decisions = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
+    private final CurrentTraceContext currentTraceContext;
+    private final MeterRegistry meterRegistry;
+    private final long latencyThresholdMicros;
+    private final long traceTimeoutNanos;
+    private final int maxTraces;
+    private final int maxSpansPerTrace;
+
+    // The handlers after this one (reporters) - set when Tracing is built
+    private volatile List<SpanHandler> downstream = List.of();
+
+    public TailSamplingSpanHandler(CurrentTraceContext currentTraceContext,
+                                   TailSamplingProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.currentTraceContext = currentTraceContext;
+        this.meterRegistry = meterRegistry;
+        this.latencyThresholdMicros = properties.getLatencyThreshold().toNanos() / 1_000;
+        this.traceTimeoutNanos = properties.getTraceTimeout().toNanos();
+        this.maxTraces = properties.getMaxTraces();
+        this.maxSpansPerTrace = properties.getMaxSpansPerTrace();
+        meterRegistry.gauge("tracing.tail.buffered", traces, Map::size);
+    }
+
+    void downstream(List<SpanHandler> handlers) {
+        this.downstream = List.copyOf(handlers);
+    }
+
+    /**
+     * Keep the current trace, whatever the rest of it looks like.
+     * No-op outside a trace, or when the trace is head-sampled anyway.
+     */
+    public void keepCurrentTrace(String reason) {
+        TraceContext context = currentTraceContext.get();
+        if (context == null || Boolean.TRUE.equals(context.sampled())) {
+            return;
+        }
+        TraceBuffer trace = buffer(context.traceIdString());
+        if (trace != null) {
+            trace.keep(reason);
+        }
+    }
+
+    /**
+     * true → this trace will be reported (so far only known locally) -
+     * the b3 header tells the next service to report its part too.
+     */
+    public boolean isKept(String traceId) {
+        TraceBuffer trace = traces.get(traceId);
+        return trace != null && trace.keepReason != null;
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause != Cause.FINISHED || Boolean.TRUE.equals(context.sampled())) {
+            // Head-sampled (baseline, or decided upstream) - the usual path to the reporters
+            return true;
+        }
+
+        TraceBuffer trace = buffer(context.traceIdString());
+        if (trace == null) {
+            if (context.isLocalRoot()) {
+                decided("dropped", "buffer-full");
+            }
+            return false;
+        }
+        String reason = reason(span);
+        if (reason != null) {
+            trace.keep(reason);
+        }
+        boolean localRoot = context.isLocalRoot();
+        if (localRoot && span.finishTimestamp() - span.startTimestamp() >= latencyThresholdMicros) {
+            trace.keep("slow");
+        }
+
+        synchronized (trace) {
+            if (trace.reported) {
+                report(context, span);
+                return false;
+            }
+            trace.add(context, span);
+            if (localRoot) {
+                if (trace.keepReason != null) {
+                    // Stays in the map until it expires: late async spans follow it
+                    reportBuffered(trace, span);
+                } else {
+                    traces.remove(context.traceIdString(), trace);
+                    decided("dropped", "uninteresting");
+                }
+            }
+        }
+
+        if (localRoot) {
+            sweepExpired();
+        }
+        return false;
+    }
+
+    private TraceBuffer buffer(String traceId) {
+        TraceBuffer trace = traces.get(traceId);
+        if (trace == null && traces.size() < maxTraces) {
+            trace = traces.computeIfAbsent(traceId, id -> new TraceBuffer(maxSpansPerTrace));
+        }
+        return trace;
+    }
+
+    private static String reason(MutableSpan span) {
+        if (span.error() != null || span.tag("error") != null || "SERVER_ERROR".equals(span.tag("outcome"))) {
+            return "error";
+        }
+        return null;
+    }
+
+    /**
+     * Holding the trace's lock. root == null: decided by timeout, the root never ended.
+     */
+    private void reportBuffered(TraceBuffer trace, MutableSpan root) {
+        for (int i = 0; i < trace.size; i++) {
+            report(trace.contexts[i], trace.spans[i]);
+            trace.contexts[i] = null;
+            trace.spans[i] = null;
+        }
+        trace.reported = true;
+        decided("kept", trace.keepReason);
+        if (root != null) {
+            logger.info("🔍 Kept trace {} ({}): {} spans{}, root '{}' took {}ms",
+                root.traceId(), trace.keepReason, trace.size,
+                trace.truncated > 0 ? " (+" + trace.truncated + " dropped)" : "",
+                root.name(), (root.finishTimestamp() - root.startTimestamp()) / 1_000);
+        } else {
+            logger.info("🔍 Kept trace ({}): {} spans, root span never finished", trace.keepReason, trace.size);
+        }
+    }
+
+    private void report(TraceContext context, MutableSpan span) {
+        // Reporters only take sampled spans - it is, now
+        TraceContext sampled = context.toBuilder().sampled(true).build();
+        for (SpanHandler handler : downstream) {
+            if (!handler.end(sampled, span, Cause.FINISHED)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Traces whose local root never ended (or kept ones done collecting late spans).
+     * At most every trace-timeout / 2, by whoever finishes a trace then.
+     */
+    private void sweepExpired() {
+        long now = System.nanoTime();
+        long next = nextSweepNanos.get();
+        if (now - next < 0 || !nextSweepNanos.compareAndSet(next, now + traceTimeoutNanos / 2)) {
+            return;
+        }
+        traces.forEach((traceId, trace) -> {
+            if (now - trace.createdNanos < traceTimeoutNanos || !traces.remove(traceId, trace)) {
+                return;
+            }
+            synchronized (trace) {
+                if (trace.reported) {
+                    return;
+                }
+                if (trace.keepReason != null && trace.size > 0) {
+                    reportBuffered(trace, null);
+                } else {
+                    decided("dropped", "expired");
+                }
+            }
+        });
+    }
+
+    private void decided(String decision, String reason) {
+        decisions.computeIfAbsent(decision + ':' + reason, key ->
+            Counter.builder("tracing.tail.traces")
+                .description("Traces decided by the tail sampler")
+                .tag("decision", decision)
+                .tag("reason", reason)
+                .register(meterRegistry)
+        ).increment();
+    }
+}
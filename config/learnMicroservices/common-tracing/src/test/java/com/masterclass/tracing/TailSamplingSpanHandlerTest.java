@@ -0,0 +1,232 @@
+package com.masterclass.tracing;
+
+import brave.Span;
+import brave.Tracer;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.CurrentTraceContext;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import brave.propagation.TraceContext;
+import brave.propagation.TraceContextOrSamplingFlags;
+import brave.sampler.Sampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Real Brave Tracing, wired the way TailSamplingAutoConfiguration does it:
+ * head sampler NEVER (no baseline), every span recorded locally, the tail
+ * sampler first and a collecting "reporter" after it.
+ */
+class TailSamplingSpanHandlerTest {
+
+    private static final long SLOW_MICROS = 200_000;     // threshold: 100ms
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CurrentTraceContext currentTraceContext = ThreadLocalCurrentTraceContext.create();
+    private final Reported reported = new Reported();
+
+    private TailSamplingSpanHandler handler;
+    private Tracing tracing;
+    private Tracer tracer;
+
+    @AfterEach
+    void close() {
+        if (tracing != null) {
+            tracing.close();
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Keep / drop when the local root ends
+    // ------------------------------------------------------------
+
+    @Test
+    void uninterestingTraceIsDropped() {
+        start(properties());
+
+        Span root = tracer.newTrace().name("GET /status").start();
+        tracer.newChild(root.context()).name("app-b").start().finish();
+        root.finish();
+
+        assertThat(reported.spans).isEmpty();
+        assertThat(decisions("dropped", "uninteresting")).isEqualTo(1);
+        assertThat(buffered()).isZero();
+    }
+
+    @Test
+    void errorAnywhereKeepsTheWholeTrace() {
+        start(properties());
+
+        Span root = tracer.newTrace().name("GET /status").start();
+        tracer.newChild(root.context()).name("app-b").start().error(new IllegalStateException("503")).finish();
+        tracer.newChild(root.context()).name("cache").start().finish();
+        root.finish();
+
+        assertThat(reported.names()).containsExactly("app-b", "cache", "GET /status");
+        assertThat(reported.contexts).allMatch(context -> Boolean.TRUE.equals(context.sampled()));
+        assertThat(decisions("kept", "error")).isEqualTo(1);
+    }
+
+    @Test
+    void slowLocalRootKeepsTheTrace() {
+        start(properties());
+
+        long startMicros = System.currentTimeMillis() * 1_000;
+        Span root = tracer.newTrace().name("GET /product").start(startMicros);
+        tracer.newChild(root.context()).name("app-b").start().finish();
+        root.finish(startMicros + SLOW_MICROS);
+
+        assertThat(reported.names()).containsExactly("app-b", "GET /product");
+        assertThat(decisions("kept", "slow")).isEqualTo(1);
+    }
+
+    @Test
+    void keepCurrentTraceKeepsAnOtherwiseHealthyTrace() {
+        start(properties());
+
+        Span root = tracer.newTrace().name("GET /product").start();
+        try (Tracer.SpanInScope scope = tracer.withSpanInScope(root)) {
+            handler.keepCurrentTrace("fallback");
+            assertThat(handler.isKept(root.context().traceIdString())).isTrue();
+        }
+        root.finish();
+
+        assertThat(reported.names()).containsExactly("GET /product");
+        assertThat(decisions("kept", "fallback")).isEqualTo(1);
+    }
+
+    @Test
+    void headSampledSpansGoStraightToTheReporters() {
+        start(properties());
+
+        Span root = tracer.nextSpan(TraceContextOrSamplingFlags.SAMPLED).name("GET /status").start();
+        root.finish();
+
+        assertThat(reported.names()).containsExactly("GET /status");
+        assertThat(buffered()).isZero();
+        assertThat(meterRegistry.find("tracing.tail.traces").counters()).isEmpty();
+    }
+
+    @Test
+    void lateSpansOfAKeptTraceAreReportedDirectly() {
+        start(properties());
+
+        Span root = tracer.newTrace().name("GET /status").start();
+        Span late = tracer.newChild(root.context()).name("async-audit").start();
+        root.error(new IllegalStateException("boom")).finish();
+        late.finish();
+
+        assertThat(reported.names()).containsExactly("GET /status", "async-audit");
+    }
+
+    // ------------------------------------------------------------
+    // Bounds
+    // ------------------------------------------------------------
+
+    @Test
+    void traceWhoseRootNeverEndsExpires() throws InterruptedException {
+        TailSamplingProperties properties = properties();
+        properties.setTraceTimeout(Duration.ofMillis(50));
+        start(properties);
+
+        Span orphanRoot = tracer.newTrace().name("GET /stuck").start();
+        tracer.newChild(orphanRoot.context()).name("app-b").start().error(new IllegalStateException("503")).finish();
+        Thread.sleep(100);
+
+        // Another trace finishing runs the sweep
+        tracer.newTrace().name("GET /status").start().finish();
+
+        assertThat(reported.names()).containsExactly("app-b");
+        assertThat(decisions("kept", "error")).isEqualTo(1);
+        assertThat(buffered()).isZero();
+    }
+
+    @Test
+    void newTracesAreDroppedUnseenWhileTheBufferIsFull() {
+        TailSamplingProperties properties = properties();
+        properties.setMaxTraces(1);
+        start(properties);
+
+        Span open = tracer.newTrace().name("GET /slow").start();
+        tracer.newChild(open.context()).name("app-b").start().finish();
+        tracer.newTrace().name("GET /status").start().error(new IllegalStateException("503")).finish();
+
+        assertThat(reported.spans).isEmpty();
+        assertThat(decisions("dropped", "buffer-full")).isEqualTo(1);
+    }
+
+    @Test
+    void keptTraceIsReportedTruncatedAtMaxSpansPerTrace() {
+        TailSamplingProperties properties = properties();
+        properties.setMaxSpansPerTrace(2);
+        start(properties);
+
+        Span root = tracer.newTrace().name("GET /status").start();
+        for (int i = 0; i < 3; i++) {
+            tracer.newChild(root.context()).name("app-b-" + i).start().error(new IllegalStateException("503")).finish();
+        }
+        root.finish();
+
+        assertThat(reported.names()).containsExactly("app-b-0", "app-b-1");
+    }
+
+    // ------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------
+
+    private static TailSamplingProperties properties() {
+        TailSamplingProperties properties = new TailSamplingProperties();
+        properties.setLatencyThreshold(Duration.ofMillis(100));
+        return properties;
+    }
+
+    private void start(TailSamplingProperties properties) {
+        handler = new TailSamplingSpanHandler(currentTraceContext, properties, meterRegistry);
+        handler.downstream(List.of(reported));
+        tracing = Tracing.newBuilder()
+            .currentTraceContext(currentTraceContext)
+            .sampler(Sampler.NEVER_SAMPLE)
+            .alwaysSampleLocal()
+            .addSpanHandler(handler)
+            .addSpanHandler(reported)
+            .build();
+        tracer = tracing.tracer();
+    }
+
+    private double decisions(String decision, String reason) {
+        var counter = meterRegistry.find("tracing.tail.traces").tag("decision", decision).tag("reason", reason).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private double buffered() {
+        return meterRegistry.get("tracing.tail.buffered").gauge().value();
+    }
+
+    /** Stands in for the Zipkin reporter: takes sampled spans only */
+    private static final class Reported extends SpanHandler {
+
+        final List<TraceContext> contexts = new CopyOnWriteArrayList<>();
+        final List<MutableSpan> spans = new CopyOnWriteArrayList<>();
+
+        @Override
+        public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+            if (Boolean.TRUE.equals(context.sampled())) {
+                contexts.add(context);
+                spans.add(span);
+            }
+            return true;
+        }
+
+        List<String> names() {
+            return spans.stream().map(MutableSpan::name).toList();
+        }
+    }
+}
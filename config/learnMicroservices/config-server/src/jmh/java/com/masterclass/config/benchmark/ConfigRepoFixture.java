@@ -0,0 +1,87 @@
+package com.masterclass.config.benchmark;
+
+import org.eclipse.jgit.api.Git;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Generates a local git repository shaped like the real config repo:
+ *
+ *   config/application.yml            (shared keys)
+ *   config/app-a.yml, config/app-b.yml
+ *   config/app-a-development.yml, config/app-a-production.yml
+ *   config/app-a-profile{N}.yml ...   (extra profiles to grow the repo)
+ *
+ * Every file gets {@code keysPerFile} keys, nested 50 per group, so the
+ * YAML parser and property-source merge see realistic structure.
+ */
+final class ConfigRepoFixture {
+
+    static final String SEARCH_PATH = "config";
+    static final String LABEL = "main";
+
+    private static final String[] APPS = {"app-a", "app-b"};
+    private static final int KEYS_PER_GROUP = 50;
+
+    private ConfigRepoFixture() {
+    }
+
+    /**
+     * Create and commit a fixture repository in a new temp directory.
+     */
+    static Path create(int keysPerFile, int extraProfiles) throws Exception {
+        Path root = Files.createTempDirectory("config-bench-repo-");
+        Path config = Files.createDirectories(root.resolve(SEARCH_PATH));
+
+        writeYaml(config.resolve("application.yml"), "shared", keysPerFile);
+        for (String app : APPS) {
+            writeYaml(config.resolve(app + ".yml"), "app", keysPerFile);
+            writeYaml(config.resolve(app + "-development.yml"), "development", keysPerFile);
+            writeYaml(config.resolve(app + "-production.yml"), "production", keysPerFile);
+            for (int p = 0; p < extraProfiles; p++) {
+                writeYaml(config.resolve(app + "-profile" + p + ".yml"), "profile" + p, keysPerFile);
+            }
+        }
+
+        try (Git git = Git.init().setDirectory(root.toFile()).setInitialBranch(LABEL).call()) {
+            git.add().addFilepattern(".").call();
+            git.commit()
+                    .setMessage("Benchmark fixture: " + keysPerFile + " keys/file, " + extraProfiles + " extra profiles")
+                    .setAuthor("bench", "bench@localhost")
+                    .setCommitter("bench", "bench@localhost")
+                    .call();
+        }
+        return root;
+    }
+
+    private static void writeYaml(Path file, String source, int keys) throws IOException {
+        StringBuilder yaml = new StringBuilder(keys * 40);
+        yaml.append("app:\n")
+                .append("  name: \"").append(source).append("\"\n")
+                .append("  environment: \"").append(source).append("\"\n");
+
+        for (int i = 0; i < keys; i++) {
+            if (i % KEYS_PER_GROUP == 0) {
+                yaml.append("group").append(i / KEYS_PER_GROUP).append(":\n");
+            }
+            yaml.append("  key").append(i).append(": \"").append(source).append("-value-").append(i).append("\"\n");
+        }
+        Files.writeString(file, yaml);
+    }
+
+    static void delete(Path dir) {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.masterclass.config.benchmark;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.server.environment.MultipleJGitEnvironmentProperties;
+import org.springframework.cloud.config.server.environment.MultipleJGitEnvironmentRepository;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ============================================================
+ * CONFIG SERVER: ENVIRONMENT RESOLUTION BENCHMARK
+ * ============================================================
+ *
+ * Measures how long the git-backed EnvironmentRepository takes to resolve
+ * "app-a" for a profile, as the config repo grows.
+ *
+ * PATHS:
+ * ------
+ * warm  - Repository already cloned (steady state of a running server).
+ *         refreshRate=0  → git fetch on EVERY request (the default)
+ *         refreshRate=30 → fetch at most every 30s (our application.yml)
+ *
+ * cold  - Brand new repository + empty basedir (first request after a
+ *         config-server instance starts: clone + checkout + parse).
+ *
+ * WHAT IS REPORTED:
+ * -----------------
+ * Throughput (ops/s), latency distribution (SampleTime percentiles) and,
+ * with the default "-prof gc" from the jmh profile, gc.alloc.rate.norm =
+ * bytes allocated per resolution.
+ *
+ * RUN:
+ *   mvn -Pjmh compile exec:exec
+ *   mvn -Pjmh compile exec:exec -Djmh.args="EnvironmentResolution.warm -p keysPerFile=5000 -prof gc"
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EnvironmentResolutionBenchmark {
+
+    private static final String APPLICATION = "app-a";
+
+    @Param({"100", "2000"})
+    public int keysPerFile;
+
+    @Param({"4", "32"})
+    public int extraProfiles;
+
+    @Param({"development", "production"})
+    public String profile;
+
+    @Param({"0", "30"})
+    public int refreshRate;
+
+    private Path fixture;
+    private Path warmBasedir;
+    private MultipleJGitEnvironmentRepository warmRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = ConfigRepoFixture.create(keysPerFile, extraProfiles);
+        warmBasedir = Files.createTempDirectory("config-bench-warm-");
+        warmRepository = newRepository(fixture, warmBasedir, refreshRate);
+
+        // Clone + first resolution happen here, NOT in the measurement
+        warmRepository.findOne(APPLICATION, profile, ConfigRepoFixture.LABEL, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ConfigRepoFixture.delete(warmBasedir);
+        ConfigRepoFixture.delete(fixture);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Environment warm() {
+        return warmRepository.findOne(APPLICATION, profile, ConfigRepoFixture.LABEL, false);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 20, batchSize = 1)
+    public Environment cold(ColdRepository cold) {
+        return cold.repository.findOne(APPLICATION, profile, ConfigRepoFixture.LABEL, false);
+    }
+
+    /**
+     * A fresh repository (empty basedir) for every single cold invocation.
+     */
+    @State(Scope.Thread)
+    public static class ColdRepository {
+
+        MultipleJGitEnvironmentRepository repository;
+        private Path basedir;
+
+        @Setup(Level.Invocation)
+        public void setUp(EnvironmentResolutionBenchmark benchmark) throws Exception {
+            basedir = Files.createTempDirectory("config-bench-cold-");
+            repository = newRepository(benchmark.fixture, basedir, benchmark.refreshRate);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            ConfigRepoFixture.delete(basedir);
+        }
+    }
+
+    static MultipleJGitEnvironmentRepository newRepository(Path fixture, Path basedir, int refreshRate)
+            throws Exception {
+        MultipleJGitEnvironmentProperties properties = new MultipleJGitEnvironmentProperties();
+        properties.setUri(fixture.toUri().toString());
+        properties.setBasedir(basedir.toFile());
+        properties.setSearchPaths(ConfigRepoFixture.SEARCH_PATH);
+        properties.setDefaultLabel(ConfigRepoFixture.LABEL);
+        properties.setCloneOnStart(false);
+        properties.setForcePull(true);
+        properties.setRefreshRate(refreshRate);
+
+        MultipleJGitEnvironmentRepository repository = new MultipleJGitEnvironmentRepository(
+                new StandardEnvironment(), properties, ObservationRegistry.NOOP);
+        repository.afterPropertiesSet();
+        return repository;
+    }
+}
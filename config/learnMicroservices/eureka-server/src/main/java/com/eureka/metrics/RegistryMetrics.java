@@ -0,0 +1,265 @@
+package com.eureka.metrics;
+
+import com.netflix.eureka.registry.AbstractInstanceRegistry;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import com.netflix.eureka.util.EurekaMonitors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRenewedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ============================================================
+ * REGISTRY METRICS: HOT PATHS OF THE EUREKA SERVER ITSELF
+ * ============================================================
+ *
+ * WHAT IS MEASURED (all under /actuator/metrics/eureka.registry.*):
+ * ----------------------------------------------------------------
+ * eureka.registry.heartbeat.latency   Timer    - PUT /eureka/apps/{app}/{id}
+ *                                                 (histogram + p50/p95/p99)
+ * eureka.registry.renewals            Counter  - per app, client vs replicated
+ * eureka.registry.changes             Counter  - register / cancel (= churn)
+ * eureka.registry.evictions           Counter  - leases expired by the evictor
+ *                                                 (not counted as cancels)
+ * eureka.registry.delta.queue.size    Gauge    - changes waiting in the delta
+ *                                                 queue (served to delta fetches)
+ * eureka.registry.instances           Gauge    - registered instances
+ * eureka.registry.fetch.payload       Summary  - bytes per full / delta fetch
+ *
+ * Registrations and renewals come from the events the Spring Cloud
+ * InstanceRegistry publishes. Cancellations, HTTP timings and sizes come
+ * from RegistryRequestMetricsFilter: InstanceRegistry publishes
+ * EurekaInstanceCanceledEvent twice for one cancel (from cancel() and from
+ * the internalCancel() it calls, with the same isReplication), so the
+ * event can't count them - a successful DELETE can. /actuator/registry-stats summarizes it all
+ * (see RegistryStatsEndpoint).
+ */
+@Component
+public class RegistryMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry meterRegistry;
+    private final PeerAwareInstanceRegistry registry;
+
+    private final Timer heartbeatLatency;
+    private final DistributionSummary fullFetchPayload;
+    private final DistributionSummary deltaFetchPayload;
+    private final Counter registrations;
+    private final Counter cancellations;
+
+    private final ConcurrentMap<String, AppRenewals> renewalsByApp = new ConcurrentHashMap<>();
+    private final WindowedRate registrationRate = new WindowedRate();
+    private final WindowedRate cancellationRate = new WindowedRate();
+    private final Field deltaQueueField;
+
+    public RegistryMetrics(MeterRegistry meterRegistry, PeerAwareInstanceRegistry registry) {
+        this.meterRegistry = meterRegistry;
+        this.registry = registry;
+
+        this.heartbeatLatency = Timer.builder("eureka.registry.heartbeat.latency")
+                .description("Time to handle one client heartbeat (renew)")
+                .publishPercentileHistogram()
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry);
+
+        this.fullFetchPayload = fetchPayload("full");
+        this.deltaFetchPayload = fetchPayload("delta");
+        this.registrations = change("register");
+        this.cancellations = change("cancel");
+
+        FunctionCounter.builder("eureka.registry.evictions", EurekaMonitors.EXPIRED, EurekaMonitors::getCount)
+                .description("Leases expired and evicted since startup")
+                .register(meterRegistry);
+
+        // The delta queue is private to AbstractInstanceRegistry - read its size reflectively
+        this.deltaQueueField = ReflectionUtils.findField(AbstractInstanceRegistry.class, "recentlyChangedQueue");
+        if (deltaQueueField != null) {
+            ReflectionUtils.makeAccessible(deltaQueueField);
+        }
+        Gauge.builder("eureka.registry.delta.queue.size", this, RegistryMetrics::deltaQueueDepth)
+                .description("Registry changes retained for delta fetches")
+                .register(meterRegistry);
+
+        Gauge.builder("eureka.registry.instances", registry, r -> ((AbstractInstanceRegistry) r).getLocalRegistrySize())
+                .description("Instances registered on this node")
+                .register(meterRegistry);
+    }
+
+    // ============================================================
+    // RECORDING (events + RegistryRequestMetricsFilter)
+    // ============================================================
+
+    @EventListener
+    public void onRenewed(EurekaInstanceRenewedEvent event) {
+        renewalsByApp.computeIfAbsent(event.getAppName(), AppRenewals::new).record(event.isReplication());
+    }
+
+    @EventListener
+    public void onRegistered(EurekaInstanceRegisteredEvent event) {
+        registrations.increment();
+        registrationRate.increment();
+    }
+
+    void recordCancel() {
+        cancellations.increment();
+        cancellationRate.increment();
+    }
+
+    void recordHeartbeat(long nanos) {
+        heartbeatLatency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordFetch(boolean delta, long bytes) {
+        (delta ? deltaFetchPayload : fullFetchPayload).record(bytes);
+    }
+
+    // ============================================================
+    // SUMMARY (/actuator/registry-stats)
+    // ============================================================
+
+    /**
+     * One compact view of the registry's load, for capacity planning.
+     */
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("instances", ((AbstractInstanceRegistry) registry).getLocalRegistrySize());
+        summary.put("applications", registry.getSortedApplications().size());
+
+        Map<String, Object> heartbeats = new LinkedHashMap<>();
+        HistogramSnapshot latency = heartbeatLatency.takeSnapshot();
+        heartbeats.put("count", latency.count());
+        for (ValueAtPercentile percentile : latency.percentileValues()) {
+            heartbeats.put("p" + Math.round(percentile.percentile() * 100) + "Ms",
+                    round(percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        heartbeats.put("maxMs", round(latency.max(TimeUnit.MILLISECONDS)));
+        summary.put("heartbeats", heartbeats);
+
+        Map<String, Object> renewals = new LinkedHashMap<>();
+        Map<String, Double> byApp = new TreeMap<>();
+        double clientRate = 0;
+        double replicatedRate = 0;
+        for (AppRenewals app : renewalsByApp.values()) {
+            clientRate += app.clientRate.perSecond();
+            replicatedRate += app.replicatedRate.perSecond();
+            byApp.put(app.appName, round(app.clientRate.perSecond() + app.replicatedRate.perSecond()));
+        }
+        renewals.put("clientPerSecond", round(clientRate));
+        renewals.put("replicatedPerSecond", round(replicatedRate));
+        renewals.put("byAppPerSecond", byApp);
+        renewals.put("lastMinute", registry.getNumOfRenewsInLastMin());
+        renewals.put("thresholdPerMinute", registry.getNumOfRenewsPerMinThreshold());
+        summary.put("renewals", renewals);
+
+        Map<String, Object> churn = new LinkedHashMap<>();
+        churn.put("perSecond", round(registrationRate.perSecond() + cancellationRate.perSecond()));
+        churn.put("registrationsLastMinute", registrationRate.lastMinute());
+        churn.put("cancellationsLastMinute", cancellationRate.lastMinute());
+        churn.put("evictionsTotal", EurekaMonitors.EXPIRED.getCount());
+        summary.put("churn", churn);
+
+        summary.put("deltaQueueDepth", (long) deltaQueueDepth());
+
+        Map<String, Object> payloads = new LinkedHashMap<>();
+        payloads.put("full", payloadSummary(fullFetchPayload));
+        payloads.put("delta", payloadSummary(deltaFetchPayload));
+        summary.put("fetchPayloadBytes", payloads);
+        return summary;
+    }
+
+    // ============================================================
+    // HELPERS
+    // ============================================================
+
+    private double deltaQueueDepth() {
+        if (deltaQueueField == null) {
+            return Double.NaN;
+        }
+        Object queue = ReflectionUtils.getField(deltaQueueField, registry);
+        return queue instanceof Queue<?> q ? q.size() : Double.NaN;
+    }
+
+    private DistributionSummary fetchPayload(String type) {
+        return DistributionSummary.builder("eureka.registry.fetch.payload")
+                .description("Bytes written per registry fetch")
+                .baseUnit("bytes")
+                .tag("type", type)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry);
+    }
+
+    private Counter change(String type) {
+        return Counter.builder("eureka.registry.changes")
+                .description("Registrations and cancellations (registry churn)")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private static Map<String, Object> payloadSummary(DistributionSummary payload) {
+        HistogramSnapshot snapshot = payload.takeSnapshot();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", snapshot.count());
+        result.put("mean", Math.round(snapshot.mean()));
+        result.put("max", Math.round(snapshot.max()));
+        return result;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Renewal counters + last-minute rates for one application.
+     */
+    private final class AppRenewals {
+
+        private final String appName;
+        private final Counter client;
+        private final Counter replicated;
+        private final WindowedRate clientRate = new WindowedRate();
+        private final WindowedRate replicatedRate = new WindowedRate();
+
+        AppRenewals(String appName) {
+            this.appName = appName;
+            this.client = renewalCounter(appName, false);
+            this.replicated = renewalCounter(appName, true);
+        }
+
+        void record(boolean isReplication) {
+            if (isReplication) {
+                replicated.increment();
+                replicatedRate.increment();
+            } else {
+                client.increment();
+                clientRate.increment();
+            }
+        }
+
+        private Counter renewalCounter(String appName, boolean isReplication) {
+            return Counter.builder("eureka.registry.renewals")
+                    .description("Lease renewals (heartbeats) received")
+                    .tag("app", appName)
+                    .tag("replication", String.valueOf(isReplication))
+                    .register(meterRegistry);
+        }
+    }
+}
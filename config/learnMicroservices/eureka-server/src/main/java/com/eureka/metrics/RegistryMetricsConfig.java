@@ -0,0 +1,23 @@
+package com.eureka.metrics;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Registers RegistryRequestMetricsFilter in front of the Eureka Jersey
+ * filter (which serves /eureka/* at the lowest precedence).
+ */
+@Configuration
+public class RegistryMetricsConfig {
+
+    @Bean
+    public FilterRegistrationBean<RegistryRequestMetricsFilter> registryRequestMetricsFilter(RegistryMetrics metrics) {
+        FilterRegistrationBean<RegistryRequestMetricsFilter> registration =
+                new FilterRegistrationBean<>(new RegistryRequestMetricsFilter(metrics));
+        registration.addUrlPatterns("/eureka/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
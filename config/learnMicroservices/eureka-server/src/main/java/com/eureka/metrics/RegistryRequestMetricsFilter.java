@@ -0,0 +1,147 @@
+package com.eureka.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Times heartbeats and measures fetch payloads on the Eureka REST API.
+ *
+ *   PUT /eureka/apps/{app}/{id}      → heartbeat latency
+ *   DELETE /eureka/apps/{app}/{id}   → cancellation (client or replicated)
+ *   GET /eureka/apps                 → full fetch payload bytes
+ *   GET /eureka/apps/delta           → delta fetch payload bytes
+ *
+ * Sizes are the bytes actually written to the client (gzip included),
+ * counted as they stream out - nothing is buffered.
+ */
+public class RegistryRequestMetricsFilter extends OncePerRequestFilter {
+
+    private final RegistryMetrics metrics;
+
+    public RegistryRequestMetricsFilter(RegistryMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+
+        if ("PUT".equals(method) && isInstancePath(path)) {
+            long start = System.nanoTime();
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                metrics.recordHeartbeat(System.nanoTime() - start);
+            }
+            return;
+        }
+
+        if ("DELETE".equals(method) && isInstancePath(path)) {
+            chain.doFilter(request, response);
+            // 200 = lease removed, 404 = nothing to cancel
+            if (response.getStatus() == HttpServletResponse.SC_OK) {
+                metrics.recordCancel();
+            }
+            return;
+        }
+
+        if ("GET".equals(method) && (path.equals("/eureka/apps") || path.equals("/eureka/apps/")
+                || path.equals("/eureka/apps/delta"))) {
+            CountingResponse counting = new CountingResponse(response);
+            chain.doFilter(request, counting);
+            metrics.recordFetch(path.endsWith("delta"), counting.bytesWritten());
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * /eureka/apps/{app}/{id} - exactly two segments after /apps/
+     * (status and metadata updates have a third one).
+     */
+    private static boolean isInstancePath(String path) {
+        if (!path.startsWith("/eureka/apps/")) {
+            return false;
+        }
+        String rest = path.substring("/eureka/apps/".length());
+        int slash = rest.indexOf('/');
+        return slash > 0 && slash < rest.length() - 1 && rest.indexOf('/', slash + 1) < 0;
+    }
+
+    /**
+     * Counts bytes written through the servlet output stream.
+     */
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+
+        private CountingOutputStream stream;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null) {
+                stream = new CountingOutputStream(super.getOutputStream());
+            }
+            return stream;
+        }
+
+        long bytesWritten() {
+            return stream == null ? 0 : stream.count;
+        }
+    }
+
+    private static final class CountingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private long count;
+
+        CountingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            delegate.setWriteListener(listener);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.eureka.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * GET /actuator/registry-stats
+ *
+ * Compact summary of the registry metrics in one call:
+ * instances, heartbeat latency percentiles, renewals/sec (total + per app),
+ * churn, delta queue depth, evictions and fetch payload sizes.
+ *
+ * The endpoint id is "registrystats" (actuator ids can't contain dashes);
+ * management.endpoints.web.path-mapping maps it to /registry-stats.
+ */
+@Component
+@Endpoint(id = "registrystats")
+public class RegistryStatsEndpoint {
+
+    private final RegistryMetrics metrics;
+
+    public RegistryStatsEndpoint(RegistryMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @ReadOperation
+    public Map<String, Object> registryStats() {
+        return metrics.summary();
+    }
+}
@@ -0,0 +1,40 @@
+package com.eureka.metrics;
+
+/**
+ * Events per second over the last minute (60 one-second buckets).
+ *
+ * A bucket is reset lazily the first time it is reused, so idle apps cost
+ * nothing and the rate decays to 0 within a minute of the last event.
+ */
+final class WindowedRate {
+
+    private static final int WINDOW_SECONDS = 60;
+
+    private final long[] counts = new long[WINDOW_SECONDS];
+    private final long[] seconds = new long[WINDOW_SECONDS];
+
+    synchronized void increment() {
+        long now = System.currentTimeMillis() / 1000;
+        int bucket = (int) (now % WINDOW_SECONDS);
+        if (seconds[bucket] != now) {
+            seconds[bucket] = now;
+            counts[bucket] = 0;
+        }
+        counts[bucket]++;
+    }
+
+    synchronized long lastMinute() {
+        long now = System.currentTimeMillis() / 1000;
+        long total = 0;
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            if (now - seconds[i] < WINDOW_SECONDS) {
+                total += counts[i];
+            }
+        }
+        return total;
+    }
+
+    double perSecond() {
+        return lastMinute() / (double) WINDOW_SECONDS;
+    }
+}
@@ -0,0 +1,41 @@
+package com.eureka.registry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compact registry storage mode (registry.compact.enabled=true).
+ *
+ * The Spring Cloud InstanceRegistry publishes EurekaInstanceRegisteredEvent
+ * synchronously BEFORE it calls super.register(...) - the entry is not
+ * stored yet. This works by object identity, not timing: the event carries
+ * the very InstanceInfo object that register() then puts into the lease,
+ * so compacting it here shrinks what gets stored. (If the registry keeps
+ * an existing lease instead - its lastDirtyTimestamp is newer - that
+ * entry was compacted by its own registration.)
+ */
+@Component
+@ConditionalOnProperty(prefix = "registry.compact", name = "enabled", havingValue = "true")
+public class CompactRegistryListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CompactRegistryListener.class);
+
+    private final InstanceInfoCompactor compactor = new InstanceInfoCompactor();
+
+    public CompactRegistryListener() {
+        log.info("📦 Compact registry storage enabled (interned strings, flat metadata)");
+    }
+
+    @EventListener
+    public void onRegistered(EurekaInstanceRegisteredEvent event) {
+        compactor.compact(event.getInstanceInfo());
+    }
+
+    public InstanceInfoCompactor getCompactor() {
+        return compactor;
+    }
+}
@@ -0,0 +1,159 @@
+package com.eureka.registry;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Instance metadata stored as two flat arrays instead of a HashMap.
+ *
+ * keys[]   - shared by every instance with the same metadata key set
+ *            (InstanceInfoCompactor hands out one array per key set)
+ * values[] - per instance, values[i] belongs to keys[i]
+ *
+ * Metadata maps hold a handful of entries and are read far more often
+ * than written, so lookups are a linear scan and writes (runtime metadata
+ * updates via PUT /apps/{app}/{id}/metadata) copy the arrays.
+ */
+final class FlatMetadataMap extends AbstractMap<String, String> {
+
+    private static final String[] EMPTY = new String[0];
+
+    private final InstanceInfoCompactor compactor;
+
+    // keys + values swapped together so readers never see them mismatched
+    private volatile Entries entries;
+
+    FlatMetadataMap(InstanceInfoCompactor compactor, Map<String, String> source) {
+        this.compactor = compactor;
+
+        String[] keys = new String[source.size()];
+        String[] values = new String[source.size()];
+        int i = 0;
+        for (Map.Entry<String, String> entry : source.entrySet()) {
+            keys[i] = entry.getKey();
+            values[i] = compactor.intern(entry.getValue());
+            i++;
+        }
+        this.entries = new Entries(compactor.shareKeys(keys), values);
+    }
+
+    @Override
+    public int size() {
+        return entries.keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return entries.indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        Entries current = entries;
+        int index = current.indexOf(key);
+        return index < 0 ? null : current.values[index];
+    }
+
+    @Override
+    public synchronized String put(String key, String value) {
+        Entries current = entries;
+        int index = current.indexOf(key);
+        String[] values;
+
+        if (index >= 0) {
+            values = current.values.clone();
+            values[index] = compactor.intern(value);
+            entries = new Entries(current.keys, values);
+            return current.values[index];
+        }
+
+        String[] keys = Arrays.copyOf(current.keys, current.keys.length + 1);
+        keys[keys.length - 1] = key;
+        values = Arrays.copyOf(current.values, keys.length);
+        values[values.length - 1] = compactor.intern(value);
+        entries = new Entries(compactor.shareKeys(keys), values);
+        return null;
+    }
+
+    @Override
+    public synchronized String remove(Object key) {
+        Entries current = entries;
+        int index = current.indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+
+        int last = current.keys.length - 1;
+        String[] keys = new String[last];
+        String[] values = new String[last];
+        System.arraycopy(current.keys, 0, keys, 0, index);
+        System.arraycopy(current.keys, index + 1, keys, index, last - index);
+        System.arraycopy(current.values, 0, values, 0, index);
+        System.arraycopy(current.values, index + 1, values, index, last - index);
+        entries = new Entries(compactor.shareKeys(keys), values);
+        return current.values[index];
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries = new Entries(EMPTY, EMPTY);
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator() {
+                Entries snapshot = entries;
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < snapshot.keys.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, String> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        int index = next++;
+                        return new SimpleImmutableEntry<>(snapshot.keys[index], snapshot.values[index]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return FlatMetadataMap.this.size();
+            }
+        };
+    }
+
+    private static final class Entries {
+
+        final String[] keys;
+        final String[] values;
+
+        Entries(String[] keys, String[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        int indexOf(Object key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (Objects.equals(keys[i], key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
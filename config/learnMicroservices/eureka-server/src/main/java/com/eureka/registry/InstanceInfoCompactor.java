@@ -0,0 +1,116 @@
+package com.eureka.registry;
+
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * ============================================================
+ * COMPACT REGISTRY: SHRINK EVERY REGISTERED InstanceInfo
+ * ============================================================
+ *
+ * WHERE THE MEMORY GOES:
+ * ----------------------
+ * Each registration is parsed into a brand new InstanceInfo, so 1000
+ * instances of app-a carry 1000 copies of "APP-A", "app-a", the same
+ * host/IP strings, the same metadata keys ("management.port", "zone"...),
+ * a HashMap per instance for 2-3 metadata entries and a DataCenterInfo
+ * object that only says "MyOwn".
+ *
+ * WHAT THIS DOES (once per registration, in place):
+ * -------------------------------------------------
+ * 1. Repeated strings → one shared copy (String.intern: weakly held by
+ *    the JVM string table, so strings of departed instances are freed)
+ *      app name, app group, VIP addresses, host name, IP, metadata values
+ * 2. Metadata HashMap → FlatMetadataMap (two small arrays); the keys array
+ *    is shared by every instance with the same key set
+ * 3. DataCenterInfo "MyOwn" → one shared immutable object
+ *
+ * WHAT IT DOES NOT DO:
+ * --------------------
+ * URLs (homePageUrl, statusPageUrl, healthCheckUrl) stay as stored
+ * strings. They embed host:port so they never repeat, and Eureka's JSON
+ * and XML codecs read those fields directly from InstanceInfo (not via
+ * getters), so they can't be derived lazily without breaking the wire
+ * format for clients and peers.
+ *
+ * The wire format is unchanged: same values, same metadata entries.
+ */
+public class InstanceInfoCompactor {
+
+    // Distinct metadata key sets are few (one per app version); cap just in case
+    private static final int MAX_KEY_SETS = 1024;
+
+    private final ConcurrentMap<List<String>, String[]> keySets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<DataCenterInfo.Name, DataCenterInfo> dataCenters = new ConcurrentHashMap<>();
+
+    /**
+     * Compact a registered instance in place.
+     *
+     * Synchronized on the instance like InstanceInfo's own metadata updates,
+     * so a concurrent runtime metadata PUT is not lost while the map is swapped.
+     */
+    public void compact(InstanceInfo info) {
+        InstanceInfo.Builder builder = new InstanceInfo.Builder(info);
+
+        synchronized (info) {
+            builder.setAppNameForDeser(intern(info.getAppName()))
+                    .setAppGroupNameForDeser(intern(info.getAppGroupName()))
+                    .setIPAddr(intern(info.getIPAddr()))
+                    .setVIPAddressDeser(intern(info.getVIPAddress()))
+                    .setSecureVIPAddressDeser(intern(info.getSecureVipAddress()));
+
+            if (info.getHostName() != null) {
+                builder.setHostName(intern(info.getHostName()));
+            }
+
+            DataCenterInfo dataCenterInfo = info.getDataCenterInfo();
+            if (dataCenterInfo instanceof MyDataCenterInfo) {
+                builder.setDataCenterInfo(dataCenters.computeIfAbsent(dataCenterInfo.getName(), MyDataCenterInfo::new));
+            }
+
+            Map<String, String> metadata = info.getMetadata();
+            if (metadata != null && !(metadata instanceof FlatMetadataMap) && metadata != Collections.<String, String>emptyMap()) {
+                builder.setMetadata(new FlatMetadataMap(this, metadata));
+            }
+        }
+    }
+
+    /**
+     * Number of distinct metadata key sets currently shared.
+     */
+    public int keySetCount() {
+        return keySets.size();
+    }
+
+    String intern(String value) {
+        return value == null ? null : value.intern();
+    }
+
+    /**
+     * One shared (never mutated) keys array per distinct key set.
+     */
+    String[] shareKeys(String[] keys) {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = intern(keys[i]);
+        }
+
+        List<String> keySet = Arrays.asList(keys);
+        String[] shared = keySets.get(keySet);
+        if (shared != null) {
+            return shared;
+        }
+        if (keySets.size() >= MAX_KEY_SETS) {
+            return keys;
+        }
+        shared = keySets.putIfAbsent(keySet, keys);
+        return shared != null ? shared : keys;
+    }
+}
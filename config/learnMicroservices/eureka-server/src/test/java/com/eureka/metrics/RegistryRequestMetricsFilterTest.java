@@ -0,0 +1,136 @@
+package com.eureka.metrics;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class RegistryRequestMetricsFilterTest {
+
+    private static final String INSTANCE = "/eureka/apps/APP-B/app-b:8081";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RegistryRequestMetricsFilter filter;
+
+    /**
+     * EurekaMonitors (the evictions counter) reads this node's data center
+     * from the ApplicationInfoManager singleton - the server context sets it
+     * up at startup, here a bare instance does.
+     */
+    @BeforeAll
+    static void registerThisNode() {
+        new ApplicationInfoManager(null, InstanceInfo.Builder.newBuilder()
+                .setAppName("EUREKA-SERVER")
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .build(), null);
+    }
+
+    @BeforeEach
+    void createFilter() {
+        filter = new RegistryRequestMetricsFilter(new RegistryMetrics(meterRegistry, mock(PeerAwareInstanceRegistry.class)));
+    }
+
+    @Test
+    void deleteThatRemovedALeaseCountsOneCancel() throws Exception {
+        serve("DELETE", INSTANCE, respond(HttpServletResponse.SC_OK, ""));
+
+        assertThat(cancels()).isEqualTo(1);
+    }
+
+    @Test
+    void deleteOfAnUnknownInstanceIsNotACancel() throws Exception {
+        serve("DELETE", INSTANCE, respond(HttpServletResponse.SC_NOT_FOUND, ""));
+
+        assertThat(cancels()).isZero();
+    }
+
+    @Test
+    void statusOverrideDeleteIsNotACancel() throws Exception {
+        serve("DELETE", INSTANCE + "/status", respond(HttpServletResponse.SC_OK, ""));
+
+        assertThat(cancels()).isZero();
+    }
+
+    @Test
+    void contextPathIsStrippedBeforeMatching() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/registry" + INSTANCE);
+        request.setContextPath("/registry");
+
+        filter.doFilter(request, new MockHttpServletResponse(), respond(HttpServletResponse.SC_OK, ""));
+
+        assertThat(cancels()).isEqualTo(1);
+    }
+
+    @Test
+    void heartbeatIsTimedWhateverItsOutcome() throws Exception {
+        serve("PUT", INSTANCE, respond(HttpServletResponse.SC_OK, ""));
+        serve("PUT", INSTANCE, respond(HttpServletResponse.SC_NOT_FOUND, ""));
+
+        assertThat(meterRegistry.get("eureka.registry.heartbeat.latency").timer().count()).isEqualTo(2);
+        assertThat(cancels()).isZero();
+    }
+
+    @Test
+    void fetchPayloadIsTheBytesWrittenToTheClient() throws Exception {
+        String full = "{\"applications\":{\"application\":[]}}";
+        String delta = "{\"applications\":{}}";
+
+        MockHttpServletResponse response = serve("GET", "/eureka/apps/", respond(HttpServletResponse.SC_OK, full));
+        serve("GET", "/eureka/apps/delta", respond(HttpServletResponse.SC_OK, delta));
+
+        assertThat(response.getContentAsString()).isEqualTo(full);
+        assertThat(payload("full")).isEqualTo(full.getBytes(StandardCharsets.UTF_8).length);
+        assertThat(payload("delta")).isEqualTo(delta.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void otherRequestsAreNotMeasured() throws Exception {
+        serve("GET", "/eureka/apps/APP-B", respond(HttpServletResponse.SC_OK, "{}"));
+        serve("PUT", INSTANCE + "/metadata", new MockFilterChain());
+
+        assertThat(meterRegistry.get("eureka.registry.fetch.payload").summaries())
+                .allMatch(summary -> summary.count() == 0);
+        assertThat(meterRegistry.get("eureka.registry.heartbeat.latency").timer().count()).isZero();
+    }
+
+    // ------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------
+
+    private MockHttpServletResponse serve(String method, String uri, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, chain);
+        return response;
+    }
+
+    /** Stands in for the Eureka resource: sets the status and writes the body */
+    private static FilterChain respond(int status, String body) {
+        return (request, response) -> {
+            ((HttpServletResponse) response).setStatus(status);
+            response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private double cancels() {
+        return meterRegistry.get("eureka.registry.changes").tag("type", "cancel").counter().count();
+    }
+
+    private double payload(String type) {
+        return meterRegistry.get("eureka.registry.fetch.payload").tag("type", type).summary().totalAmount();
+    }
+}